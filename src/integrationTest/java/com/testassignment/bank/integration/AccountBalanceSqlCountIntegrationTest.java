@@ -0,0 +1,115 @@
+package com.testassignment.bank.integration;
+
+import com.testassignment.bank.dao.AccountDAO;
+import com.testassignment.bank.entity.Account;
+import com.testassignment.bank.enums.CurrencyEnum;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL statements each balance operation issues. Not transactional, so every statement up to the
+ * commit of the request is included.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("integrationtest")
+public class AccountBalanceSqlCountIntegrationTest {
+
+    // Balance changes are a single conditional UPDATE that also returns the new balance.
+    private static final String BALANCE_UPDATE = "select balance from final table (update account_balance";
+
+    // Issued once per block of pooled ids, so whether a request sees it depends on what ran before.
+    private static final String SEQUENCE_FETCH = "select next value for";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountDAO accountDAO;
+
+    private Account createTestAccount() {
+        Account account = new Account();
+        account.setAccountNumber("sql-count");
+
+        Map<CurrencyEnum, BigDecimal> balances = new EnumMap<>(CurrencyEnum.class);
+        for (CurrencyEnum currency : CurrencyEnum.values()) {
+            balances.put(currency, BigDecimal.valueOf(1000));
+        }
+        account.setBalances(balances);
+
+        return accountDAO.save(account);
+    }
+
+    @Test
+    void testDepositUpdatesOnlyAffectedCurrencyRow() throws Exception {
+        Account account = createTestAccount();
+        SqlStatementCollector.reset();
+
+        mockMvc.perform(post("/account/" + account.getId() + "/deposit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"currency\": \"USD\", \"amount\": 50.00 }"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balances.USD").value(1050.00));
+
+        assertEquals(1, SqlStatementCollector.count(BALANCE_UPDATE), SqlStatementCollector.statements().toString());
+        assertEquals(0, SqlStatementCollector.count("delete"), SqlStatementCollector.statements().toString());
+        assertEquals(1, SqlStatementCollector.count("insert into transaction"), SqlStatementCollector.statements().toString());
+        assertEquals(3, SqlStatementCollector.statements().size() - SqlStatementCollector.count(SEQUENCE_FETCH), SqlStatementCollector.statements().toString());
+    }
+
+    @Test
+    void testExchangeUpdatesOnlyTwoCurrencyRows() throws Exception {
+        Account account = createTestAccount();
+        SqlStatementCollector.reset();
+
+        mockMvc.perform(post("/account/" + account.getId() + "/exchange")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"fromCurrency\": \"USD\", \"toCurrency\": \"EUR\", \"amount\": 100.00 }"))
+                .andExpect(status().isOk());
+
+        assertEquals(2, SqlStatementCollector.count(BALANCE_UPDATE), SqlStatementCollector.statements().toString());
+        assertEquals(0, SqlStatementCollector.count("delete"), SqlStatementCollector.statements().toString());
+        // Both legs go out as one JDBC batch of a single prepared insert.
+        assertEquals(1, SqlStatementCollector.count("insert into transaction"), SqlStatementCollector.statements().toString());
+    }
+
+    @Test
+    void testGetBalanceDoesNotWrite() throws Exception {
+        Account account = createTestAccount();
+        SqlStatementCollector.reset();
+
+        mockMvc.perform(get("/account/" + account.getId() + "/balance"))
+                .andExpect(status().isOk());
+
+        assertEquals(2, SqlStatementCollector.statements().size(), SqlStatementCollector.statements().toString());
+        assertEquals(2, SqlStatementCollector.count("select"), SqlStatementCollector.statements().toString());
+    }
+
+    @Test
+    void testRepeatedGetBalanceIsServedFromCache() throws Exception {
+        Account account = createTestAccount();
+        mockMvc.perform(get("/account/" + account.getId() + "/balance"))
+                .andExpect(status().isOk());
+        SqlStatementCollector.reset();
+
+        mockMvc.perform(get("/account/" + account.getId() + "/balance"))
+                .andExpect(status().isOk());
+
+        assertEquals(0, SqlStatementCollector.statements().size(), SqlStatementCollector.statements().toString());
+    }
+}
@@ -0,0 +1,102 @@
+package com.testassignment.bank.integration;
+
+import com.testassignment.bank.dao.AccountDAO;
+import com.testassignment.bank.entity.Account;
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs balance changes on one account from many threads at once. Not transactional, so every
+ * operation commits on its own like a real request.
+ */
+@SpringBootTest
+@ActiveProfiles("integrationtest")
+public class AccountConcurrencyIntegrationTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 200;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountDAO accountDAO;
+
+    private Account createTestAccount(BigDecimal usdBalance) {
+        Account account = new Account();
+        account.setAccountNumber("concurrency");
+
+        Map<CurrencyEnum, BigDecimal> balances = new EnumMap<>(CurrencyEnum.class);
+        balances.put(CurrencyEnum.USD, usdBalance);
+        account.setBalances(balances);
+
+        return accountDAO.save(account);
+    }
+
+    @Test
+    void testConcurrentDepositsAreNotLost() throws Exception {
+        Account account = createTestAccount(BigDecimal.ZERO);
+
+        runConcurrently(() -> accountService.depositMoney(account.getId(), CurrencyEnum.USD, BigDecimal.ONE));
+
+        BigDecimal balance = accountService.getAccountBalance(account.getId()).get(CurrencyEnum.USD);
+        assertEquals(0, BigDecimal.valueOf(OPERATIONS).compareTo(balance), balance.toString());
+    }
+
+    @Test
+    void testConcurrentDebitsNeverOverdraw() throws Exception {
+        Account account = createTestAccount(BigDecimal.valueOf(50));
+
+        List<Boolean> results = runConcurrently(() -> accountService.debitMoney(account.getId(), CurrencyEnum.USD, BigDecimal.ONE));
+
+        long succeeded = results.stream().filter(Boolean::booleanValue).count();
+        BigDecimal balance = accountService.getAccountBalance(account.getId()).get(CurrencyEnum.USD);
+        assertEquals(50, succeeded);
+        assertEquals(0, BigDecimal.ZERO.compareTo(balance), balance.toString());
+    }
+
+    private List<Boolean> runConcurrently(Callable<?> operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        operation.call();
+                        return true;
+                    } catch (IllegalArgumentException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            List<Boolean> results = new ArrayList<>();
+            for (Future<Boolean> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.testassignment.bank.entity.Transaction;
 import com.testassignment.bank.enums.CurrencyEnum;
 import com.testassignment.bank.enums.TransactionType;
 import com.testassignment.bank.service.AccountService;
+import com.testassignment.bank.service.TransactionFilter;
 import com.testassignment.bank.service.TransactionService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +23,7 @@ import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -116,7 +118,7 @@ public class AccountControllerIntegrationTest {
                     .andExpect(jsonPath("$.balances." + currency.name()).value(1500.00));
 
             // Check transaction history
-            List<Transaction> transactions = transactionService.getTransactionHistory(savedAccount.getId());
+            List<Transaction> transactions = transactionService.getTransactionHistory(savedAccount.getId(), TransactionFilter.NONE, null, 1000).getTransactions();
             Transaction lastTransaction = transactions.get(transactions.size() - 1);
             assertEquals(currency.name(), lastTransaction.getCurrency());
             assertEquals(0, lastTransaction.getAmount().compareTo(BigDecimal.valueOf(500.00)));
@@ -130,7 +132,7 @@ public class AccountControllerIntegrationTest {
                     .andExpect(jsonPath("$.balances." + currency.name()).value(2000.00));
 
             // Check transaction history
-            transactions = transactionService.getTransactionHistory(savedAccount.getId());
+            transactions = transactionService.getTransactionHistory(savedAccount.getId(), TransactionFilter.NONE, null, 1000).getTransactions();
             lastTransaction = transactions.get(transactions.size() - 1);
             assertEquals(currency.name(), lastTransaction.getCurrency());
             assertEquals(0, lastTransaction.getAmount().compareTo(BigDecimal.valueOf(500.00)));
@@ -138,6 +140,27 @@ public class AccountControllerIntegrationTest {
         }
     }
 
+    @Test
+    void testDepositAndDebitReturnWholeAccount() throws Exception {
+        Account savedAccount = createTestAccount();
+
+        mockMvc.perform(post("/account/" + savedAccount.getId() + "/deposit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"currency\": \"USD\", \"amount\": 500.00 }"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountNumber").value("12345"))
+                .andExpect(jsonPath("$.balances.USD").value(1500.00))
+                .andExpect(jsonPath("$.balances.EUR").value(1000.00));
+
+        mockMvc.perform(post("/account/" + savedAccount.getId() + "/debit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"currency\": \"EUR\", \"amount\": 200.00 }"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountNumber").value("12345"))
+                .andExpect(jsonPath("$.balances.EUR").value(800.00))
+                .andExpect(jsonPath("$.balances.USD").value(1500.00));
+    }
+
     @Test
     void testAddMoneyFailsWhenAmountIsNegative() throws Exception {
         Account savedAccount = createTestAccount();
@@ -185,7 +208,7 @@ public class AccountControllerIntegrationTest {
                     .andExpect(jsonPath("$.balances." + currency.name()).value(800.00));
 
             // Check transaction history
-            List<Transaction> transactions = transactionService.getTransactionHistory(savedAccount.getId());
+            List<Transaction> transactions = transactionService.getTransactionHistory(savedAccount.getId(), TransactionFilter.NONE, null, 1000).getTransactions();
             Transaction lastTransaction = transactions.get(transactions.size() - 1);
             assertEquals(currency.name(), lastTransaction.getCurrency());
             assertEquals(0, lastTransaction.getAmount().compareTo(BigDecimal.valueOf(200.00).negate()));
@@ -199,7 +222,7 @@ public class AccountControllerIntegrationTest {
                     .andExpect(jsonPath("$.balances." + currency.name()).value(600.00));
 
             // Check transaction history
-            transactions = transactionService.getTransactionHistory(savedAccount.getId());
+            transactions = transactionService.getTransactionHistory(savedAccount.getId(), TransactionFilter.NONE, null, 1000).getTransactions();
             lastTransaction = transactions.get(transactions.size() - 1);
             assertEquals(currency.name(), lastTransaction.getCurrency());
             assertEquals(0, lastTransaction.getAmount().compareTo(BigDecimal.valueOf(200.00).negate()));
@@ -283,7 +306,7 @@ public class AccountControllerIntegrationTest {
             initialBalances.put(currency, initialBalances.get(currency).add(BigDecimal.valueOf(500)));
 
             // Check transaction history
-            List<Transaction> transactions = transactionService.getTransactionHistory(savedAccount.getId());
+            List<Transaction> transactions = transactionService.getTransactionHistory(savedAccount.getId(), TransactionFilter.NONE, null, 1000).getTransactions();
             Transaction lastTransaction = transactions.get(transactions.size() - 1);
             assertEquals(currency.name(), lastTransaction.getCurrency());
             assertEquals(0, lastTransaction.getAmount().compareTo(BigDecimal.valueOf(500.00)));
@@ -316,7 +339,7 @@ public class AccountControllerIntegrationTest {
                 .andExpect(jsonPath("$.balances.EUR").value(100.00 * conversionRate.doubleValue() + 1000));
 
         // Check transaction history
-        List<Transaction> transactions = transactionService.getTransactionHistory(savedAccount.getId());
+        List<Transaction> transactions = transactionService.getTransactionHistory(savedAccount.getId(), TransactionFilter.NONE, null, 1000).getTransactions();
         Transaction lastTransaction = transactions.get(transactions.size() - 2);
         assertEquals("USD", lastTransaction.getCurrency());
         assertEquals(0, lastTransaction.getAmount().compareTo(BigDecimal.valueOf(100.00).negate()));
@@ -326,6 +349,8 @@ public class AccountControllerIntegrationTest {
         assertEquals("EUR", lastTransaction.getCurrency());
         assertEquals(0, lastTransaction.getAmount().compareTo(BigDecimal.valueOf(100.00 * conversionRate.doubleValue())));
         assertEquals(TransactionType.EXCHANGE, lastTransaction.getTransactionType());
+        assertNotNull(lastTransaction.getConversionRateId());
+        assertEquals(transactions.get(transactions.size() - 2).getConversionRateId(), lastTransaction.getConversionRateId());
     }
 
     @Test
@@ -362,6 +387,24 @@ public class AccountControllerIntegrationTest {
         }
     }
 
+    @Test
+    void testDepositFailsWhenAccountNotFound() throws Exception {
+        mockMvc.perform(post("/account/99999/deposit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"currency\": \"USD\", \"amount\": 10.00 }"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("No value present"));
+    }
+
+    @Test
+    void testDebitFailsWhenAccountNotFound() throws Exception {
+        mockMvc.perform(post("/account/99999/debit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"currency\": \"USD\", \"amount\": 10.00 }"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("No value present"));
+    }
+
     @Test
     void testGetAccountTransactionHistory() throws Exception {
         Account savedAccount = createTestAccount();
@@ -0,0 +1,136 @@
+package com.testassignment.bank.integration;
+
+import com.testassignment.bank.dao.AccountDAO;
+import com.testassignment.bank.dto.BatchOperationDTO;
+import com.testassignment.bank.entity.Account;
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.enums.TransactionType;
+import com.testassignment.bank.service.AccountService;
+import com.testassignment.bank.service.BatchOperationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Balance queries racing with balance changes. Not transactional, so every change commits and evicts
+ * the cached balances on its own like a real request.
+ */
+@SpringBootTest
+@ActiveProfiles("integrationtest")
+public class BalanceCacheIntegrationTest {
+
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int DEPOSITS = 200;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private BatchOperationService batchOperationService;
+
+    @Autowired
+    private AccountDAO accountDAO;
+
+    private Long createTestAccount(BigDecimal usdBalance) {
+        Account account = new Account();
+        account.setAccountNumber("cache");
+        Map<CurrencyEnum, BigDecimal> balances = new EnumMap<>(CurrencyEnum.class);
+        balances.put(CurrencyEnum.USD, usdBalance);
+        account.setBalances(balances);
+        return accountDAO.save(account).getId();
+    }
+
+    private BigDecimal usdBalance(Long accountId) {
+        return accountService.getAccountBalance(accountId).get(CurrencyEnum.USD);
+    }
+
+    @Test
+    void testReadersNeverSeeOlderBalanceOrStaleFinalBalance() throws Exception {
+        Long accountId = createTestAccount(BigDecimal.ZERO);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int i = 0; i < DEPOSITS; i++) {
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    return accountService.depositMoney(accountId, CurrencyEnum.USD, BigDecimal.ONE);
+                }));
+            }
+            // Deposits only ever raise the balance, so each reader must see it grow monotonically.
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int i = 0; i < READERS; i++) {
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    BigDecimal last = BigDecimal.ZERO;
+                    int reads = 0;
+                    while (writing.get()) {
+                        BigDecimal current = usdBalance(accountId);
+                        assertTrue(current.compareTo(last) >= 0, current + " after " + last);
+                        last = current;
+                        reads++;
+                    }
+                    return reads;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            writing.set(false);
+            for (Future<Integer> reader : readers) {
+                assertTrue(reader.get() > 0);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, BigDecimal.valueOf(DEPOSITS).compareTo(usdBalance(accountId)), usdBalance(accountId).toString());
+    }
+
+    @Test
+    void testEveryWritePathEvictsCachedBalances() {
+        Long first = createTestAccount(BigDecimal.valueOf(100));
+        Long second = createTestAccount(BigDecimal.ZERO);
+        usdBalance(first);
+        usdBalance(second);
+
+        accountService.transferMoney(first, second, CurrencyEnum.USD, CurrencyEnum.USD, BigDecimal.TEN);
+        assertEquals(0, BigDecimal.valueOf(90).compareTo(usdBalance(first)));
+        assertEquals(0, BigDecimal.TEN.compareTo(usdBalance(second)));
+
+        BatchOperationDTO debit = new BatchOperationDTO();
+        debit.setType(TransactionType.DEBIT);
+        debit.setAccountId(second);
+        debit.setCurrency(CurrencyEnum.USD);
+        debit.setAmount(4.0);
+        batchOperationService.apply(List.of(debit));
+        assertEquals(0, BigDecimal.valueOf(6).compareTo(usdBalance(second)));
+
+        accountService.exchangeCurrency(first, CurrencyEnum.USD, CurrencyEnum.EUR, BigDecimal.TEN);
+        assertEquals(0, BigDecimal.valueOf(80).compareTo(usdBalance(first)));
+        assertEquals(1, accountService.getAccountBalance(first).get(CurrencyEnum.EUR).signum());
+
+        assertThrows(IllegalArgumentException.class, () -> accountService.debitMoney(second, CurrencyEnum.USD, BigDecimal.TEN));
+        assertEquals(0, BigDecimal.valueOf(6).compareTo(usdBalance(second)));
+    }
+}
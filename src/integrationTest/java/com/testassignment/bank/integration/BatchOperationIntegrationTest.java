@@ -0,0 +1,106 @@
+package com.testassignment.bank.integration;
+
+import com.testassignment.bank.dao.AccountDAO;
+import com.testassignment.bank.entity.Account;
+import com.testassignment.bank.enums.CurrencyEnum;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Not transactional, so every account's operations commit on their own like in a real request.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("integrationtest")
+public class BatchOperationIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountDAO accountDAO;
+
+    private Long createTestAccount() {
+        Account account = new Account();
+        account.setAccountNumber("batch");
+        Map<CurrencyEnum, BigDecimal> balances = new EnumMap<>(CurrencyEnum.class);
+        for (CurrencyEnum currency : CurrencyEnum.values()) {
+            balances.put(currency, BigDecimal.valueOf(100));
+        }
+        account.setBalances(balances);
+        return accountDAO.save(account).getId();
+    }
+
+    @Test
+    void testBatchAcrossAccountsWithPartialFailure() throws Exception {
+        Long first = createTestAccount();
+        Long second = createTestAccount();
+        String body = "{ \"operations\": ["
+                + "{ \"type\": \"DEPOSIT\", \"accountId\": " + first + ", \"currency\": \"USD\", \"amount\": 50.00 },"
+                + "{ \"type\": \"DEBIT\", \"accountId\": " + second + ", \"currency\": \"EUR\", \"amount\": 500.00 },"
+                + "{ \"type\": \"EXCHANGE\", \"accountId\": " + first + ", \"fromCurrency\": \"USD\", \"toCurrency\": \"EUR\", \"amount\": 100.00 },"
+                + "{ \"type\": \"DEBIT\", \"accountId\": " + second + ", \"currency\": \"EUR\", \"amount\": 40.00 },"
+                + "{ \"type\": \"DEPOSIT\", \"accountId\": 99999, \"currency\": \"USD\", \"amount\": 1.00 }"
+                + "] }";
+
+        SqlStatementCollector.reset();
+        mockMvc.perform(post("/account/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(3))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.results[0].balances.USD").value(150.00))
+                .andExpect(jsonPath("$.results[1].error").value("Insufficient funds"))
+                .andExpect(jsonPath("$.results[2].balances.USD").value(50.00))
+                .andExpect(jsonPath("$.results[3].balances.EUR").value(60.00))
+                .andExpect(jsonPath("$.results[4].error").value("No value present"));
+
+        // Both accounts are changed in one transaction, and their ledger entries written with one prepared insert.
+        assertEquals(1, SqlStatementCollector.count("insert into transaction"), SqlStatementCollector.statements().toString());
+
+        mockMvc.perform(get("/account/" + second + "/balance"))
+                .andExpect(jsonPath("$.EUR").value(60.00));
+    }
+
+    @Test
+    void testEmptyBatchIsRejected() throws Exception {
+        mockMvc.perform(post("/account/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"operations\": [] }"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Validation Failed"));
+    }
+
+    @Test
+    void testOperationAmountIsValidatedLikeSingleOperations() throws Exception {
+        Long account = createTestAccount();
+
+        mockMvc.perform(post("/account/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"operations\": [ { \"type\": \"DEPOSIT\", \"accountId\": " + account + ", \"currency\": \"USD\", \"amount\": 0 } ] }"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details[0]").value("operations[0].amount: Amount must be positive"));
+
+        mockMvc.perform(post("/account/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"operations\": [ { \"type\": \"DEPOSIT\", \"accountId\": " + account + ", \"currency\": \"USD\", \"amount\": 1.005 } ] }"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details[0]").value("operations[0].amount: Amount cannot have more than 2 decimal places"));
+    }
+}
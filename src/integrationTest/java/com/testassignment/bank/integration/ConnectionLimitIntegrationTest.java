@@ -0,0 +1,93 @@
+package com.testassignment.bank.integration;
+
+import com.testassignment.bank.config.ConnectionLimitingDataSource;
+import com.testassignment.bank.dao.AccountDAO;
+import com.testassignment.bank.entity.Account;
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.service.AccountService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+/**
+ * Runs the virtual-threads profile with far more concurrent deposits than it lets use a connection at once.
+ * On Java 17 requests stay on platform threads, but the connection limit applies all the same.
+ */
+@SpringBootTest(properties = {
+        "bank.jdbc.connection-limit.max-connections=2",
+        "bank.notification.sink=http"
+})
+@ActiveProfiles({"integrationtest", "virtual-threads"})
+public class ConnectionLimitIntegrationTest {
+
+    private static final int THREADS = 32;
+    private static final int OPERATIONS = 200;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountDAO accountDAO;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Account createTestAccount() {
+        Account account = new Account();
+        account.setAccountNumber("connection-limit");
+
+        Map<CurrencyEnum, BigDecimal> balances = new EnumMap<>(CurrencyEnum.class);
+        balances.put(CurrencyEnum.USD, BigDecimal.ZERO);
+        account.setBalances(balances);
+
+        return accountDAO.save(account);
+    }
+
+    @Test
+    void testDepositsWaitForAConnection() throws Exception {
+        ConnectionLimitingDataSource limitingDataSource = assertInstanceOf(ConnectionLimitingDataSource.class, dataSource);
+        Account account = createTestAccount();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return accountService.depositMoney(account.getId(), CurrencyEnum.USD, BigDecimal.ONE);
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        BigDecimal balance = accountService.getAccountBalance(account.getId()).get(CurrencyEnum.USD);
+        assertEquals(0, BigDecimal.valueOf(OPERATIONS).compareTo(balance), balance.toString());
+        assertEquals(2, limitingDataSource.getAvailableCount());
+        assertEquals(2, meterRegistry.get("bank.jdbc.connection-limit.available").gauge().value());
+    }
+}
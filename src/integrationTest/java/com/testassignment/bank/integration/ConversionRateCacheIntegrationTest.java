@@ -0,0 +1,47 @@
+package com.testassignment.bank.integration;
+
+import com.testassignment.bank.cache.ConversionRateCache;
+import com.testassignment.bank.entity.CurrencyConversionRate;
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.repository.CurrencyConversionRateRepository;
+import com.testassignment.bank.service.CurrencyConversionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("integrationtest")
+public class ConversionRateCacheIntegrationTest {
+
+    @Autowired
+    private ConversionRateCache conversionRateCache;
+
+    @Autowired
+    private CurrencyConversionService currencyConversionService;
+
+    @Autowired
+    private CurrencyConversionRateRepository conversionRateRepository;
+
+    @Test
+    void testNewRateVersionInvalidatesCache() {
+        CurrencyConversionRate original = conversionRateCache.getRate(CurrencyEnum.USD, CurrencyEnum.EUR);
+        assertEquals(0, BigDecimal.valueOf(0.98).compareTo(original.getRate()));
+
+        CurrencyConversionRate newVersion = currencyConversionService.addRate(CurrencyEnum.USD, CurrencyEnum.EUR, BigDecimal.valueOf(0.90), null);
+        LocalDateTime effectiveFrom = newVersion.getEffectiveFrom();
+
+        try {
+            assertEquals(newVersion.getId(), conversionRateCache.getRate(CurrencyEnum.USD, CurrencyEnum.EUR).getId());
+            assertEquals(original.getId(), conversionRateCache.getRate(CurrencyEnum.USD, CurrencyEnum.EUR, effectiveFrom.minusNanos(1000)).getId());
+        } finally {
+            conversionRateRepository.delete(newVersion);
+        }
+        assertEquals(original.getId(), conversionRateCache.getRate(CurrencyEnum.USD, CurrencyEnum.EUR).getId());
+    }
+}
@@ -0,0 +1,77 @@
+package com.testassignment.bank.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Imported rates take effect far in the future, so they don't change the rates other tests exchange with.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("integrationtest")
+public class ConversionRateControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testImportRatesIsVisibleAtEffectiveTime() throws Exception {
+        String importJson = "{ \"rates\": ["
+                + "{ \"fromCurrency\": \"USD\", \"toCurrency\": \"EUR\", \"rate\": 0.5, \"effectiveFrom\": \"2100-01-01T00:00:00\" },"
+                + "{ \"fromCurrency\": \"EUR\", \"toCurrency\": \"USD\", \"rate\": 2.0, \"effectiveFrom\": \"2100-01-01T00:00:00\" }"
+                + "] }";
+
+        mockMvc.perform(post("/rates/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(importJson))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.imported").value(2));
+
+        mockMvc.perform(get("/rates/USD/EUR").param("at", "2100-06-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rate").value(0.5));
+
+        mockMvc.perform(get("/rates/USD/EUR"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rate").value(0.98));
+    }
+
+    @Test
+    void testImportRatesFailsWhenRateIsInvalid() throws Exception {
+        String importJson = "{ \"rates\": [ { \"fromCurrency\": \"USD\", \"toCurrency\": \"EUR\", \"rate\": -1 } ] }";
+
+        mockMvc.perform(post("/rates/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(importJson))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Validation Failed"))
+                .andExpect(jsonPath("$.details[0]").value("rates[0].rate: Rate must be positive"));
+    }
+
+    @Test
+    void testAddRateFailsWhenEffectiveFromIsInThePast() throws Exception {
+        String rateJson = "{ \"fromCurrency\": \"USD\", \"toCurrency\": \"EUR\", \"rate\": 0.5, \"effectiveFrom\": \"2000-01-01T00:00:00\" }";
+
+        mockMvc.perform(post("/rates")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(rateJson))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details[0]").value("effectiveFrom: Effective from must not be in the past"));
+    }
+
+    @Test
+    void testGetRateFailsWhenPairIsUnknown() throws Exception {
+        mockMvc.perform(get("/rates/USD/EUR").param("at", "1970-01-01T00:00:00"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,96 @@
+package com.testassignment.bank.integration;
+
+import com.testassignment.bank.dao.AccountDAO;
+import com.testassignment.bank.entity.Account;
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.service.AccountService;
+import com.testassignment.bank.service.DepositGroupCommitter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "bank.account.group-commit.enabled=true",
+        "bank.account.group-commit.max-wait=5ms"
+})
+@ActiveProfiles("integrationtest")
+public class DepositGroupCommitIntegrationTest {
+
+    private static final int THREADS = 16;
+    private static final int DEPOSITS = 400;
+
+    @Autowired
+    private DepositGroupCommitter depositGroupCommitter;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountDAO accountDAO;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Long createTestAccount() {
+        Account account = new Account();
+        account.setAccountNumber("group-commit");
+        Map<CurrencyEnum, BigDecimal> balances = new EnumMap<>(CurrencyEnum.class);
+        balances.put(CurrencyEnum.USD, BigDecimal.ZERO);
+        account.setBalances(balances);
+        return accountDAO.save(account).getId();
+    }
+
+    @Test
+    void testConcurrentDepositsAreCommittedInGroups() throws Exception {
+        Long accountId = createTestAccount();
+        double batchesBefore = meterRegistry.get("bank.deposit.group-commit.batches").counter().count();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < DEPOSITS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return depositGroupCommitter.deposit(accountId, CurrencyEnum.USD, BigDecimal.ONE);
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        BigDecimal balance = accountService.getAccountBalance(accountId).get(CurrencyEnum.USD);
+        assertEquals(0, BigDecimal.valueOf(DEPOSITS).compareTo(balance), balance.toString());
+        double batches = meterRegistry.get("bank.deposit.group-commit.batches").counter().count() - batchesBefore;
+        assertTrue(batches < DEPOSITS, "Deposits were not grouped: " + batches + " commits");
+    }
+
+    @Test
+    void testDepositToMissingAccountFailsOnlyItself() {
+        Long accountId = createTestAccount();
+
+        assertThrows(NoSuchElementException.class, () -> depositGroupCommitter.deposit(99999L, CurrencyEnum.USD, BigDecimal.ONE));
+        assertEquals(0, BigDecimal.ONE.compareTo(depositGroupCommitter.deposit(accountId, CurrencyEnum.USD, BigDecimal.ONE).getBalances().get(CurrencyEnum.USD)));
+    }
+}
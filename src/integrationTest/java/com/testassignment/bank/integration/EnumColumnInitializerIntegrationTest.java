@@ -0,0 +1,35 @@
+package com.testassignment.bank.integration;
+
+import com.testassignment.bank.config.EnumColumnInitializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Own database, so no other test has stored a TRANSFER transaction before the column is narrowed.
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:enum-columns;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("integrationtest")
+public class EnumColumnInitializerIntegrationTest {
+
+    @Autowired
+    private EnumColumnInitializer enumColumnInitializer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testMissingEnumValuesAreAdded() {
+        // The column as created before transfers existed.
+        jdbcTemplate.execute("ALTER TABLE \"TRANSACTION\" ALTER COLUMN TRANSACTION_TYPE SET DATA TYPE ENUM('DEBIT', 'DEPOSIT', 'EXCHANGE')");
+
+        enumColumnInitializer.afterPropertiesSet();
+
+        jdbcTemplate.update("INSERT INTO \"TRANSACTION\" (id, account_id, currency, amount, timestamp, transaction_type) "
+                + "VALUES (200000, 1, 'USD', 1, CURRENT_TIMESTAMP, 'TRANSFER')");
+        assertEquals("TRANSFER", jdbcTemplate.queryForObject(
+                "SELECT transaction_type FROM \"TRANSACTION\" WHERE id = 200000", String.class));
+    }
+}
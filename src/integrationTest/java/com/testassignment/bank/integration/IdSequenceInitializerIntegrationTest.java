@@ -0,0 +1,35 @@
+package com.testassignment.bank.integration;
+
+import com.testassignment.bank.config.IdSequenceInitializer;
+import com.testassignment.bank.entity.IdSequences;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("integrationtest")
+public class IdSequenceInitializerIntegrationTest {
+
+    @Autowired
+    private IdSequenceInitializer idSequenceInitializer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testSequenceIsMovedPastExistingIds() {
+        // A row as written by an IDENTITY column before the sequence existed.
+        jdbcTemplate.update("INSERT INTO \"TRANSACTION\" (id, account_id, currency, amount, timestamp, transaction_type) "
+                + "VALUES (100000, 1, 'USD', 1, CURRENT_TIMESTAMP, 'DEPOSIT')");
+
+        idSequenceInitializer.afterSingletonsInstantiated();
+
+        long nextValue = jdbcTemplate.queryForObject(
+                "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'TRANSACTION_SEQ'", Long.class);
+        assertEquals(100000 + IdSequences.ALLOCATION_SIZE + 1, nextValue);
+    }
+}
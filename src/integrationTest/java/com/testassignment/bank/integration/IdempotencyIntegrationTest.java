@@ -0,0 +1,174 @@
+package com.testassignment.bank.integration;
+
+import com.testassignment.bank.dao.AccountDAO;
+import com.testassignment.bank.entity.Account;
+import com.testassignment.bank.entity.IdempotencyRecord;
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.repository.IdempotencyRecordRepository;
+import com.testassignment.bank.service.AccountService;
+import com.testassignment.bank.service.TransactionFilter;
+import com.testassignment.bank.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Not transactional, so the key is committed together with the request's changes like in production.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("integrationtest")
+public class IdempotencyIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private AccountDAO accountDAO;
+
+    private Long createTestAccount(BigDecimal usdBalance) {
+        Account account = new Account();
+        account.setAccountNumber("idempotency");
+        Map<CurrencyEnum, BigDecimal> balances = new EnumMap<>(CurrencyEnum.class);
+        balances.put(CurrencyEnum.USD, usdBalance);
+        account.setBalances(balances);
+        return accountDAO.save(account).getId();
+    }
+
+    @Test
+    void testRetriedDebitIsAppliedOnce() throws Exception {
+        Long accountId = createTestAccount(BigDecimal.valueOf(100));
+        String body = "{ \"currency\": \"USD\", \"amount\": 30.00 }";
+
+        String first = mockMvc.perform(post("/account/" + accountId + "/debit")
+                        .header("Idempotency-Key", "debit-" + accountId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balances.USD").value(70.00))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(post("/account/" + accountId + "/debit")
+                        .header("Idempotency-Key", "debit-" + accountId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().json(first));
+
+        assertEquals(0, BigDecimal.valueOf(70).compareTo(accountService.getAccountBalance(accountId).get(CurrencyEnum.USD)));
+        assertEquals(1, transactionService.getTransactionHistory(accountId, TransactionFilter.NONE, null, 10).getTransactions().size());
+        assertTrue(idempotencyRecordRepository.existsById("debit-" + accountId));
+    }
+
+    @Test
+    void testRetriedDepositAndCreateAreAppliedOnce() throws Exception {
+        String created = mockMvc.perform(post("/account")
+                        .header("Idempotency-Key", "create-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"accountNumber\": \"idempotent\" }"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        mockMvc.perform(post("/account")
+                        .header("Idempotency-Key", "create-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"accountNumber\": \"idempotent\" }"))
+                .andExpect(status().isCreated())
+                .andExpect(content().json(created));
+
+        Long accountId = createTestAccount(BigDecimal.ZERO);
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/account/" + accountId + "/deposit")
+                            .header("Idempotency-Key", "deposit-" + accountId)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{ \"currency\": \"USD\", \"amount\": 10.00 }"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.balances.USD").value(10.00));
+        }
+        assertEquals(0, BigDecimal.TEN.compareTo(accountService.getAccountBalance(accountId).get(CurrencyEnum.USD)));
+    }
+
+    @Test
+    void testExpiredKeyIsNotReplayed() throws Exception {
+        Long accountId = createTestAccount(BigDecimal.valueOf(100));
+        String key = "expired-" + accountId;
+        idempotencyRecordRepository.save(new IdempotencyRecord(key, "0".repeat(64), "{}", LocalDateTime.now().minusDays(2)));
+
+        mockMvc.perform(post("/account/" + accountId + "/debit")
+                        .header("Idempotency-Key", key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"currency\": \"USD\", \"amount\": 30.00 }"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balances.USD").value(70.00));
+
+        assertEquals(0, BigDecimal.valueOf(70).compareTo(accountService.getAccountBalance(accountId).get(CurrencyEnum.USD)));
+        assertTrue(idempotencyRecordRepository.findById(key).orElseThrow().getCreatedAt().isAfter(LocalDateTime.now().minusHours(1)));
+    }
+
+    @Test
+    void testKeyOfFailedRequestCanBeRetried() throws Exception {
+        Long accountId = createTestAccount(BigDecimal.TEN);
+
+        mockMvc.perform(post("/account/" + accountId + "/debit")
+                        .header("Idempotency-Key", "retry-" + accountId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"currency\": \"USD\", \"amount\": 20.00 }"))
+                .andExpect(status().isBadRequest());
+        assertFalse(idempotencyRecordRepository.existsById("retry-" + accountId));
+
+        mockMvc.perform(post("/account/" + accountId + "/deposit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"currency\": \"USD\", \"amount\": 10.00 }"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/account/" + accountId + "/debit")
+                        .header("Idempotency-Key", "retry-" + accountId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"currency\": \"USD\", \"amount\": 20.00 }"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balances.USD").value(0.00));
+    }
+
+    @Test
+    void testKeyReusedForDifferentRequestIsRejected() throws Exception {
+        Long accountId = createTestAccount(BigDecimal.valueOf(100));
+
+        mockMvc.perform(post("/account/" + accountId + "/debit")
+                        .header("Idempotency-Key", "reuse-" + accountId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"currency\": \"USD\", \"amount\": 1.00 }"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/account/" + accountId + "/debit")
+                        .header("Idempotency-Key", "reuse-" + accountId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"currency\": \"USD\", \"amount\": 2.00 }"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details[0]").value("Idempotency-Key was already used for a different request"));
+
+        assertEquals(0, BigDecimal.valueOf(99).compareTo(accountService.getAccountBalance(accountId).get(CurrencyEnum.USD)));
+    }
+}
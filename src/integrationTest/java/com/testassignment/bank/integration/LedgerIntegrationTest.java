@@ -0,0 +1,200 @@
+package com.testassignment.bank.integration;
+
+import com.testassignment.bank.dto.BalanceMismatchDTO;
+import com.testassignment.bank.dto.LedgerSnapshotDTO;
+import com.testassignment.bank.dto.LedgerVerificationDTO;
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.service.AccountService;
+import com.testassignment.bank.service.LedgerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Own database, as other tests create accounts with opening balances that the transaction log knows nothing about.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ledger;DB_CLOSE_DELAY=-1",
+        "bank.ledger.settle-time=0s",
+        "bank.ledger.verify-partition-size=2",
+        "bank.ledger.retained-interval-snapshots=2"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("integrationtest")
+public class LedgerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM balance_snapshot");
+        jdbcTemplate.update("DELETE FROM \"TRANSACTION\"");
+        jdbcTemplate.update("DELETE FROM account_balance");
+        jdbcTemplate.update("DELETE FROM account");
+    }
+
+    private Long createAccountWithActivity() {
+        Long accountId = accountService.createAccount("ledger").getId();
+        accountService.depositMoney(accountId, CurrencyEnum.USD, new BigDecimal("100.00"));
+        accountService.debitMoney(accountId, CurrencyEnum.USD, new BigDecimal("30.00"));
+        accountService.exchangeCurrency(accountId, CurrencyEnum.USD, CurrencyEnum.EUR, new BigDecimal("20.00"));
+        return accountId;
+    }
+
+    private void insertTransaction(long id, Long accountId, LocalDateTime timestamp, String amount, String type) {
+        jdbcTemplate.update("INSERT INTO \"TRANSACTION\" (id, account_id, currency, amount, timestamp, transaction_type) "
+                + "VALUES (?, ?, 'USD', ?, ?, ?)", id, accountId, new BigDecimal(amount), Timestamp.valueOf(timestamp), type);
+    }
+
+    private BigDecimal balance(Long accountId, CurrencyEnum currency) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM account_balance WHERE account_id = ? AND currency = ?",
+                BigDecimal.class, accountId, currency.name());
+    }
+
+    @Test
+    void testBalancesWrittenByAccountServiceMatchLedger() {
+        Long firstAccountId = createAccountWithActivity();
+        Long secondAccountId = createAccountWithActivity();
+        accountService.transferMoney(firstAccountId, secondAccountId, CurrencyEnum.USD, CurrencyEnum.USD, new BigDecimal("10.00"));
+        createAccountWithActivity();
+        createAccountWithActivity();
+
+        LedgerVerificationDTO verification = ledgerService.verifyBalances();
+
+        assertTrue(verification.getMismatches().isEmpty());
+        assertTrue(verification.getPartitions() >= 2);
+    }
+
+    @Test
+    void testVerifyReportsDriftInEveryPartition() {
+        Long firstAccountId = createAccountWithActivity();
+        createAccountWithActivity();
+        createAccountWithActivity();
+        Long lastAccountId = createAccountWithActivity();
+        jdbcTemplate.update("UPDATE account_balance SET balance = balance + 1 WHERE account_id = ? AND currency = 'USD'", firstAccountId);
+        jdbcTemplate.update("DELETE FROM account_balance WHERE account_id = ? AND currency = 'USD'", lastAccountId);
+
+        List<BalanceMismatchDTO> mismatches = ledgerService.verifyBalances().getMismatches();
+
+        assertEquals(2, mismatches.size());
+        BalanceMismatchDTO changed = mismatches.stream().filter(m -> m.getAccountId().equals(firstAccountId)).findFirst().orElseThrow();
+        assertEquals(CurrencyEnum.USD, changed.getCurrency());
+        assertEquals(0, changed.getBalance().compareTo(new BigDecimal("51.00")));
+        assertEquals(0, changed.getLedgerBalance().compareTo(new BigDecimal("50.00")));
+        BalanceMismatchDTO missing = mismatches.stream().filter(m -> m.getAccountId().equals(lastAccountId)).findFirst().orElseThrow();
+        assertEquals(CurrencyEnum.USD, missing.getCurrency());
+        assertEquals(0, missing.getBalance().signum());
+        assertEquals(0, missing.getLedgerBalance().compareTo(new BigDecimal("50.00")));
+    }
+
+    @Test
+    void testSnapshotsContinueFromThePreviousOne() {
+        Long accountId = createAccountWithActivity();
+        LedgerSnapshotDTO first = ledgerService.takeSnapshot();
+        accountService.depositMoney(accountId, CurrencyEnum.USD, new BigDecimal("5.00"));
+        LedgerSnapshotDTO second = ledgerService.takeSnapshot();
+
+        assertEquals(2, first.getBalances());
+        assertTrue(second.getCutoff().isAfter(first.getCutoff()));
+        assertEquals(new BigDecimal("55.00"), jdbcTemplate.queryForObject(
+                "SELECT balance FROM balance_snapshot WHERE account_id = ? AND currency = 'USD' AND cutoff = ?",
+                BigDecimal.class, accountId, Timestamp.valueOf(second.getCutoff())));
+    }
+
+    @Test
+    void testOnlyNewestIntervalSnapshotsAreKept() {
+        Long accountId = accountService.createAccount("ledger").getId();
+        LocalDate today = LocalDate.now();
+        insertTransaction(800_000, accountId, today.minusDays(4).atTime(12, 0), "10.00", "DEPOSIT");
+        ledgerService.takeSnapshot(today.minusDays(3).atStartOfDay());
+        ledgerService.takeSnapshot(today.minusDays(2).atTime(10, 0));
+        ledgerService.takeSnapshot(today.minusDays(2).atTime(11, 0));
+        ledgerService.takeSnapshot(today.minusDays(1).atTime(10, 0));
+
+        assertEquals(1, ledgerService.purgeIntervalSnapshots());
+
+        assertEquals(List.of(Timestamp.valueOf(today.minusDays(3).atStartOfDay()), Timestamp.valueOf(today.minusDays(2).atTime(11, 0)),
+                        Timestamp.valueOf(today.minusDays(1).atTime(10, 0))),
+                jdbcTemplate.queryForList("SELECT DISTINCT cutoff FROM balance_snapshot ORDER BY cutoff", Timestamp.class));
+        assertEquals(0, ledgerService.purgeIntervalSnapshots());
+    }
+
+    @Test
+    void testRebuildReplaysOnlyTransactionsAfterTheLatestSnapshot() {
+        Long accountId = createAccountWithActivity();
+        LedgerSnapshotDTO snapshot = ledgerService.takeSnapshot();
+        accountService.depositMoney(accountId, CurrencyEnum.USD, new BigDecimal("5.00"));
+        accountService.depositMoney(accountId, CurrencyEnum.RUB, new BigDecimal("7.00"));
+        accountService.getAccountBalance(accountId);
+
+        // Without the snapshot these balances could not be rebuilt any more.
+        jdbcTemplate.update("DELETE FROM \"TRANSACTION\" WHERE timestamp <= ?", Timestamp.valueOf(snapshot.getCutoff()));
+        jdbcTemplate.update("UPDATE account_balance SET balance = 999 WHERE account_id = ? AND currency IN ('USD', 'EUR')", accountId);
+        jdbcTemplate.update("DELETE FROM account_balance WHERE account_id = ? AND currency = 'RUB'", accountId);
+        jdbcTemplate.update("UPDATE account_balance SET balance = 1 WHERE account_id = ? AND currency = 'SEK'", accountId);
+
+        int corrected = ledgerService.rebuildBalances();
+
+        assertEquals(4, corrected);
+        assertEquals(new BigDecimal("55.00"), balance(accountId, CurrencyEnum.USD));
+        assertEquals(new BigDecimal("7.00"), balance(accountId, CurrencyEnum.RUB));
+        assertEquals(0, balance(accountId, CurrencyEnum.SEK).signum());
+        assertEquals(balance(accountId, CurrencyEnum.EUR), accountService.getAccountBalance(accountId).get(CurrencyEnum.EUR));
+        assertTrue(ledgerService.verifyBalances().getMismatches().isEmpty());
+    }
+
+    @Test
+    void testBalanceAsOfEndOfDay() throws Exception {
+        Long accountId = accountService.createAccount("ledger").getId();
+        LocalDate today = LocalDate.now();
+        // Ten days of history, 10.00 deposited at noon and 3.00 debited in the evening of each day.
+        for (int day = 10; day >= 1; day--) {
+            insertTransaction(900_000 + 2L * day, accountId, today.minusDays(day).atTime(12, 0), "10.00", "DEPOSIT");
+            insertTransaction(900_001 + 2L * day, accountId, today.minusDays(day).atTime(18, 0), "-3.00", "DEBIT");
+        }
+        ledgerService.takeSnapshot(today.minusDays(7).atStartOfDay());
+        ledgerService.takeSnapshot(today.minusDays(3).atStartOfDay());
+
+        for (int day = 10; day >= 1; day--) {
+            LocalDateTime endOfDay = today.minusDays(day - 1).atStartOfDay();
+            BigDecimal expected = new BigDecimal("7.00").multiply(BigDecimal.valueOf(11 - day));
+            assertEquals(0, expected.compareTo(accountService.getAccountBalanceAt(accountId, endOfDay).get(CurrencyEnum.USD)), "day " + day);
+        }
+        assertEquals(0, new BigDecimal("45.00").compareTo(
+                accountService.getAccountBalanceAt(accountId, today.minusDays(5).atTime(15, 0)).get(CurrencyEnum.USD)));
+
+        mockMvc.perform(get("/account/" + accountId + "/balance").param("asOf", today.minusDays(4).atStartOfDay().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.USD").value(42.0))
+                .andExpect(jsonPath("$.EUR").value(0));
+        mockMvc.perform(get("/account/" + accountId + "/balance").param("asOf", LocalDateTime.now().plusDays(1).toString()))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/account/999999/balance").param("asOf", today.atStartOfDay().toString()))
+                .andExpect(status().isNotFound());
+    }
+}
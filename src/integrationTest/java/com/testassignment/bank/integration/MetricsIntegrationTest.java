@@ -0,0 +1,55 @@
+package com.testassignment.bank.integration;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+// Metrics export is off in tests unless asked for.
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("integrationtest")
+public class MetricsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testOperationsAreExposedToPrometheus() throws Exception {
+        String account = mockMvc.perform(post("/account")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"accountNumber\":\"metrics\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Integer accountId = JsonPath.read(account, "$.id");
+
+        mockMvc.perform(post("/account/" + accountId + "/debit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"currency\":\"USD\",\"amount\":10.00}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/account/999999/balance"))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("bank_account_operations_seconds_count{operation=\"create\",outcome=\"success\"} 1")))
+                .andExpect(content().string(containsString("bank_account_operations_seconds_count{operation=\"debit\",outcome=\"insufficient_funds\"} 1")))
+                .andExpect(content().string(containsString("bank_account_operations_seconds_count{operation=\"balance\",outcome=\"not_found\"} 1")))
+                .andExpect(content().string(containsString("bank_db_statements_count{uri=\"/account\"} 1")))
+                .andExpect(content().string(containsString("bank_db_operations_seconds_count{operation=\"balance_update\",outcome=\"success\"} 1")))
+                .andExpect(content().string(containsString("bank_notification_delivery_seconds")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")));
+    }
+}
@@ -0,0 +1,47 @@
+package com.testassignment.bank.integration;
+
+import com.testassignment.bank.controller.NotificationStubController;
+import com.testassignment.bank.enums.NotificationType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Not transactional on purpose: notifications are only dispatched after the service transaction commits.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("integrationtest")
+public class NotificationIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private NotificationStubController notificationStub;
+
+    @Test
+    void testAccountCreationIsDeliveredToStub() throws Exception {
+        mockMvc.perform(post("/account")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"accountNumber\": \"notify-1\" }"))
+                .andExpect(status().isCreated());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline && notificationStub.getReceived().stream()
+                .noneMatch(event -> event.getType() == NotificationType.ACCOUNT_CREATED)) {
+            Thread.sleep(20);
+        }
+
+        assertTrue(notificationStub.getReceived().stream()
+                .anyMatch(event -> event.getType() == NotificationType.ACCOUNT_CREATED));
+    }
+}
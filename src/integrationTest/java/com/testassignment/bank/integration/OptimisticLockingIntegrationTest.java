@@ -0,0 +1,85 @@
+package com.testassignment.bank.integration;
+
+import com.testassignment.bank.dao.AccountDAO;
+import com.testassignment.bank.entity.Account;
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.service.AccountMutationExecutor;
+import com.testassignment.bank.service.AccountService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Concurrent deposits in optimistic mode: conflicting requests are retried until every deposit is applied.
+ */
+@SpringBootTest(properties = {
+        "bank.account.concurrency-mode=optimistic",
+        "bank.account.retry.max-attempts=100"
+})
+@ActiveProfiles("integrationtest")
+public class OptimisticLockingIntegrationTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 100;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountMutationExecutor accountMutationExecutor;
+
+    @Autowired
+    private AccountDAO accountDAO;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testConcurrentDepositsAreRetriedAndNotLost() throws Exception {
+        Account account = new Account();
+        account.setAccountNumber("optimistic");
+        Map<CurrencyEnum, BigDecimal> balances = new EnumMap<>(CurrencyEnum.class);
+        balances.put(CurrencyEnum.USD, BigDecimal.ZERO);
+        account.setBalances(balances);
+        Long accountId = accountDAO.save(account).getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return accountMutationExecutor.execute(accountId, () -> accountService.depositMoney(accountId, CurrencyEnum.USD, BigDecimal.ONE));
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        BigDecimal balance = accountService.getAccountBalance(accountId).get(CurrencyEnum.USD);
+        assertEquals(0, BigDecimal.valueOf(OPERATIONS).compareTo(balance), balance.toString());
+
+        double conflicts = meterRegistry.get("bank.account.optimistic.conflicts").counter().count();
+        double retries = meterRegistry.get("bank.account.optimistic.retries").counter().count();
+        assertEquals(conflicts, retries);
+    }
+}
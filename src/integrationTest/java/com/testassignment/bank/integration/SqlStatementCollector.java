@@ -0,0 +1,39 @@
+package com.testassignment.bank.integration;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records every SQL statement Hibernate prepares, so tests can assert how many statements an operation costs.
+ * Registered through hibernate.session_factory.statement_inspector in the integrationtest profile.
+ */
+public class SqlStatementCollector implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new ArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        synchronized (STATEMENTS) {
+            STATEMENTS.add(sql.toLowerCase());
+        }
+        return sql;
+    }
+
+    public static void reset() {
+        synchronized (STATEMENTS) {
+            STATEMENTS.clear();
+        }
+    }
+
+    public static List<String> statements() {
+        synchronized (STATEMENTS) {
+            return new ArrayList<>(STATEMENTS);
+        }
+    }
+
+    public static long count(String prefix) {
+        return statements().stream().filter(sql -> sql.startsWith(prefix)).count();
+    }
+}
@@ -0,0 +1,204 @@
+package com.testassignment.bank.integration;
+
+import com.testassignment.bank.dao.AccountDAO;
+import com.testassignment.bank.entity.Account;
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.exception.StatementBudgetExceededException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements each AccountController endpoint runs on the request thread, as counted
+ * for the bank.db.statements metric. Fetches of the next block of ids are left out, as whether a request
+ * needs one depends on what ran before it. Requests over the budgets in application.properties fail here.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "bank.statement-budget.mode=fail",
+        "bank.statement-budget.endpoints.[/account/batch]=9"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("integrationtest")
+public class StatementBudgetIntegrationTest {
+
+    private static final String SEQUENCE_FETCH = "select next value for";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountDAO accountDAO;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Account createTestAccount() {
+        Account account = new Account();
+        account.setAccountNumber("statement-budget");
+
+        Map<CurrencyEnum, BigDecimal> balances = new EnumMap<>(CurrencyEnum.class);
+        for (CurrencyEnum currency : CurrencyEnum.values()) {
+            balances.put(currency, BigDecimal.valueOf(1000));
+        }
+        account.setBalances(balances);
+
+        return accountDAO.save(account);
+    }
+
+    private long statements(String uri, MockHttpServletRequestBuilder request, ResultMatcher expectedStatus) throws Exception {
+        double before = totalStatements(uri);
+        SqlStatementCollector.reset();
+        mockMvc.perform(request).andExpect(expectedStatus);
+        return Math.round(totalStatements(uri) - before) - SqlStatementCollector.count(SEQUENCE_FETCH);
+    }
+
+    private double totalStatements(String uri) {
+        DistributionSummary summary = meterRegistry.find("bank.db.statements").tag("uri", uri).summary();
+        return summary != null ? summary.totalAmount() : 0;
+    }
+
+    private static MockHttpServletRequestBuilder postJson(String uri, String content) {
+        return post(uri).contentType(MediaType.APPLICATION_JSON).content(content);
+    }
+
+    @Test
+    void testCreateAccount() throws Exception {
+        assertEquals(2, statements("/account", postJson("/account", "{ \"accountNumber\": \"new\" }"), status().isCreated()));
+    }
+
+    @Test
+    void testDeposit() throws Exception {
+        Account account = createTestAccount();
+
+        // The balance update, one read of the account and its balances for the response, and the ledger row.
+        assertEquals(3, statements("/account/{accountId}/deposit",
+                postJson("/account/" + account.getId() + "/deposit", "{ \"currency\": \"USD\", \"amount\": 50.00 }"), status().isOk()));
+    }
+
+    @Test
+    void testDepositWithIdempotencyKey() throws Exception {
+        Account account = createTestAccount();
+
+        // Plus the lookup and the insert of the key.
+        assertEquals(5, statements("/account/{accountId}/deposit",
+                postJson("/account/" + account.getId() + "/deposit", "{ \"currency\": \"USD\", \"amount\": 50.00 }")
+                        .header("Idempotency-Key", "statement-budget-deposit"), status().isOk()));
+    }
+
+    @Test
+    void testDebit() throws Exception {
+        Account account = createTestAccount();
+
+        assertEquals(3, statements("/account/{accountId}/debit",
+                postJson("/account/" + account.getId() + "/debit", "{ \"currency\": \"USD\", \"amount\": 50.00 }"), status().isOk()));
+    }
+
+    @Test
+    void testExchange() throws Exception {
+        Account account = createTestAccount();
+
+        // Two balance updates; both ledger rows are one batched insert.
+        assertEquals(5, statements("/account/{accountId}/exchange",
+                postJson("/account/" + account.getId() + "/exchange", "{ \"fromCurrency\": \"USD\", \"toCurrency\": \"EUR\", \"amount\": 100.00 }"),
+                status().isOk()));
+    }
+
+    @Test
+    void testTransfer() throws Exception {
+        Account from = createTestAccount();
+        Account to = createTestAccount();
+
+        // Both row locks, the balances of the sending account, both balance updates and the batched ledger rows.
+        assertEquals(6, statements("/account/{accountId}/transfer",
+                postJson("/account/" + from.getId() + "/transfer", "{ \"toAccountId\": " + to.getId() + ", \"currency\": \"USD\", \"amount\": 10.00 }"),
+                status().isOk()));
+    }
+
+    @Test
+    void testBatch() throws Exception {
+        Account first = createTestAccount();
+        Account second = createTestAccount();
+
+        // Each account is loaded and its ledger rows written on their own.
+        assertEquals(9, statements("/account/batch", postJson("/account/batch", "{ \"operations\": ["
+                + "{ \"type\": \"DEPOSIT\", \"accountId\": " + first.getId() + ", \"currency\": \"USD\", \"amount\": 10.00 },"
+                + "{ \"type\": \"DEBIT\", \"accountId\": " + first.getId() + ", \"currency\": \"EUR\", \"amount\": 10.00 },"
+                + "{ \"type\": \"DEPOSIT\", \"accountId\": " + second.getId() + ", \"currency\": \"USD\", \"amount\": 10.00 } ] }"),
+                status().isOk()));
+    }
+
+    @Test
+    void testRequestOverBudgetFails() throws Exception {
+        Account first = createTestAccount();
+        Account second = createTestAccount();
+        Account third = createTestAccount();
+
+        assertThrows(StatementBudgetExceededException.class, () -> mockMvc.perform(postJson("/account/batch", "{ \"operations\": ["
+                + "{ \"type\": \"DEPOSIT\", \"accountId\": " + first.getId() + ", \"currency\": \"USD\", \"amount\": 10.00 },"
+                + "{ \"type\": \"DEPOSIT\", \"accountId\": " + second.getId() + ", \"currency\": \"USD\", \"amount\": 10.00 },"
+                + "{ \"type\": \"DEPOSIT\", \"accountId\": " + third.getId() + ", \"currency\": \"USD\", \"amount\": 10.00 } ] }")));
+
+        assertEquals(1, meterRegistry.get("bank.db.statements.over-budget").tag("uri", "/account/batch").counter().count());
+    }
+
+    @Test
+    void testBalance() throws Exception {
+        Account account = createTestAccount();
+
+        assertEquals(2, statements("/account/{accountId}/balance", get("/account/" + account.getId() + "/balance"), status().isOk()));
+        // Served from the cache the first request filled.
+        assertEquals(0, statements("/account/{accountId}/balance", get("/account/" + account.getId() + "/balance"), status().isOk()));
+    }
+
+    @Test
+    void testBalanceAsOf() throws Exception {
+        Account account = createTestAccount();
+
+        // The snapshot and ledger queries go through JdbcTemplate and are not counted.
+        assertEquals(2, statements("/account/{accountId}/balance",
+                get("/account/" + account.getId() + "/balance").param("asOf", LocalDateTime.now().minusMinutes(1).toString()), status().isOk()));
+    }
+
+    @Test
+    void testTransactionHistory() throws Exception {
+        Account account = createTestAccount();
+
+        assertEquals(3, statements("/account/{accountId}/transactions",
+                get("/account/" + account.getId() + "/transactions").param("currency", "USD"), status().isOk()));
+    }
+
+    @Test
+    void testTransactionExport() throws Exception {
+        Account account = createTestAccount();
+
+        // The rows are read on the async thread, which is not counted.
+        double before = totalStatements("/account/{accountId}/transactions/export");
+        MvcResult started = mockMvc.perform(get("/account/" + account.getId() + "/transactions/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+        assertEquals(2, Math.round(totalStatements("/account/{accountId}/transactions/export") - before));
+    }
+}
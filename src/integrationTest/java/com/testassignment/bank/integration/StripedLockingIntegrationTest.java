@@ -0,0 +1,85 @@
+package com.testassignment.bank.integration;
+
+import com.testassignment.bank.dao.AccountDAO;
+import com.testassignment.bank.entity.Account;
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.service.AccountMutationExecutor;
+import com.testassignment.bank.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Concurrent deposits and debits on two accounts in striped mode.
+ */
+@SpringBootTest(properties = "bank.account.concurrency-mode=striped")
+@ActiveProfiles("integrationtest")
+public class StripedLockingIntegrationTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 100;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountMutationExecutor accountMutationExecutor;
+
+    @Autowired
+    private AccountDAO accountDAO;
+
+    private Long createTestAccount() {
+        Account account = new Account();
+        account.setAccountNumber("striped");
+        Map<CurrencyEnum, BigDecimal> balances = new EnumMap<>(CurrencyEnum.class);
+        balances.put(CurrencyEnum.USD, BigDecimal.valueOf(OPERATIONS));
+        account.setBalances(balances);
+        return accountDAO.save(account).getId();
+    }
+
+    @Test
+    void testMutationsOfEachAccountAreSerialized() throws Exception {
+        Long depositAccountId = createTestAccount();
+        Long debitAccountId = createTestAccount();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return accountMutationExecutor.execute(depositAccountId, () -> accountService.depositMoney(depositAccountId, CurrencyEnum.USD, BigDecimal.ONE));
+                }));
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return accountMutationExecutor.execute(debitAccountId, () -> accountService.debitMoney(debitAccountId, CurrencyEnum.USD, BigDecimal.ONE));
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        BigDecimal deposited = accountService.getAccountBalance(depositAccountId).get(CurrencyEnum.USD);
+        BigDecimal debited = accountService.getAccountBalance(debitAccountId).get(CurrencyEnum.USD);
+        assertEquals(0, BigDecimal.valueOf(2L * OPERATIONS).compareTo(deposited), deposited.toString());
+        assertEquals(0, BigDecimal.ZERO.compareTo(debited), debited.toString());
+    }
+}
@@ -0,0 +1,115 @@
+package com.testassignment.bank.integration;
+
+import com.testassignment.bank.dao.AccountDAO;
+import com.testassignment.bank.entity.Account;
+import com.testassignment.bank.entity.Transaction;
+import com.testassignment.bank.enums.TransactionType;
+import com.testassignment.bank.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Not transactional: the export reads in its own transaction on the async request thread, so the test
+ * data has to be committed.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("integrationtest")
+public class TransactionExportIntegrationTest {
+
+    private static final int ROWS = 1200;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountDAO accountDAO;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private Long createAccountWithHistory() {
+        Account account = new Account();
+        account.setAccountNumber("export");
+        account.setBalances(new HashMap<>());
+        Long accountId = accountDAO.save(account).getId();
+
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            Transaction transaction = new Transaction();
+            transaction.setAccountId(accountId);
+            transaction.setCurrency(i % 2 == 0 ? "USD" : "EUR");
+            transaction.setAmount(BigDecimal.ONE);
+            transaction.setTransactionType(TransactionType.DEPOSIT);
+            transaction.setTimestamp(start.plusSeconds(i));
+            transactions.add(transaction);
+        }
+        transactionRepository.saveAll(transactions);
+        return accountId;
+    }
+
+    private String export(Long accountId, String... params) throws Exception {
+        var builder = get("/account/" + accountId + "/transactions/export");
+        for (int i = 0; i < params.length; i += 2) {
+            builder.param(params[i], params[i + 1]);
+        }
+        MvcResult started = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", startsWith("attachment")))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    @Test
+    void testExportNdjsonContainsWholeHistoryInOrder() throws Exception {
+        Long accountId = createAccountWithHistory();
+
+        String[] lines = export(accountId).split("\n");
+
+        assertEquals(ROWS, lines.length);
+        assertTrue(lines[0].contains("\"timestamp\":\"2024-01-01T00:00:00\""), lines[0]);
+        assertTrue(lines[ROWS - 1].contains("\"timestamp\":\"2024-01-01T00:19:59\""), lines[ROWS - 1]);
+    }
+
+    @Test
+    void testExportCsvWithFilter() throws Exception {
+        Long accountId = createAccountWithHistory();
+
+        String[] lines = export(accountId, "format", "csv", "currency", "EUR").split("\n");
+
+        assertEquals("id,accountId,currency,amount,timestamp,transactionType,conversionRateId,conversionRateLegIds,counterpartyAccountId", lines[0]);
+        assertEquals(ROWS / 2 + 1, lines.length);
+        assertTrue(lines[1].contains(",EUR,1.00,2024-01-01T00:00:01,DEPOSIT,"), lines[1]);
+    }
+
+    @Test
+    void testExportOfMissingAccountIsNotFound() throws Exception {
+        mockMvc.perform(get("/account/99999/transactions/export"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("No value present"));
+    }
+}
@@ -0,0 +1,132 @@
+package com.testassignment.bank.integration;
+
+import com.testassignment.bank.controller.AccountController;
+import com.testassignment.bank.dao.AccountDAO;
+import com.testassignment.bank.entity.Account;
+import com.testassignment.bank.entity.Transaction;
+import com.testassignment.bank.enums.TransactionType;
+import com.testassignment.bank.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("integrationtest")
+@Transactional
+public class TransactionHistoryIntegrationTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountDAO accountDAO;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    // Five deposits in USD one minute apart, then two debits in EUR sharing one timestamp.
+    private Long createAccountWithHistory() {
+        Account account = new Account();
+        account.setAccountNumber("history");
+        account.setBalances(new HashMap<>());
+        Long accountId = accountDAO.save(account).getId();
+
+        for (int i = 0; i < 5; i++) {
+            saveTransaction(accountId, "USD", TransactionType.DEPOSIT, START.plusMinutes(i));
+        }
+        saveTransaction(accountId, "EUR", TransactionType.DEBIT, START.plusHours(1));
+        saveTransaction(accountId, "EUR", TransactionType.DEBIT, START.plusHours(1));
+        return accountId;
+    }
+
+    private void saveTransaction(Long accountId, String currency, TransactionType type, LocalDateTime timestamp) {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(accountId);
+        transaction.setCurrency(currency);
+        transaction.setAmount(BigDecimal.TEN);
+        transaction.setTransactionType(type);
+        transaction.setTimestamp(timestamp);
+        transactionRepository.save(transaction);
+    }
+
+    @Test
+    void testPagesFollowCursorUntilHistoryEnds() throws Exception {
+        Long accountId = createAccountWithHistory();
+
+        MvcResult first = mockMvc.perform(get("/account/" + accountId + "/transactions").param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].timestamp").value("2024-01-01T00:00:00"))
+                .andExpect(header().exists(AccountController.NEXT_CURSOR_HEADER))
+                .andReturn();
+
+        MvcResult second = mockMvc.perform(get("/account/" + accountId + "/transactions").param("limit", "3")
+                        .param("cursor", first.getResponse().getHeader(AccountController.NEXT_CURSOR_HEADER)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].timestamp").value("2024-01-01T00:03:00"))
+                .andExpect(jsonPath("$[2].transactionType").value("DEBIT"))
+                .andReturn();
+
+        // The last page starts between two rows with the same timestamp; the id breaks the tie.
+        MvcResult third = mockMvc.perform(get("/account/" + accountId + "/transactions").param("limit", "3")
+                        .param("cursor", second.getResponse().getHeader(AccountController.NEXT_CURSOR_HEADER)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].timestamp").value("2024-01-01T01:00:00"))
+                .andReturn();
+        assertNull(third.getResponse().getHeader(AccountController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void testFiltersByCurrencyTypeAndTimeRange() throws Exception {
+        Long accountId = createAccountWithHistory();
+
+        mockMvc.perform(get("/account/" + accountId + "/transactions").param("currency", "EUR"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        mockMvc.perform(get("/account/" + accountId + "/transactions").param("type", "DEPOSIT"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(5)));
+
+        mockMvc.perform(get("/account/" + accountId + "/transactions")
+                        .param("from", "2024-01-01T00:01:00")
+                        .param("to", "2024-01-01T00:04:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].timestamp").value("2024-01-01T00:01:00"));
+    }
+
+    @Test
+    void testRejectsInvalidLimitAndCursor() throws Exception {
+        Long accountId = createAccountWithHistory();
+
+        mockMvc.perform(get("/account/" + accountId + "/transactions").param("limit", "5000"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Validation Failed"));
+
+        mockMvc.perform(get("/account/" + accountId + "/transactions").param("cursor", "garbage"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details[0]").value("Invalid cursor"));
+    }
+}
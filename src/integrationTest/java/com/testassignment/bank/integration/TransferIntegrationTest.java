@@ -0,0 +1,162 @@
+package com.testassignment.bank.integration;
+
+import com.testassignment.bank.dao.AccountDAO;
+import com.testassignment.bank.entity.Account;
+import com.testassignment.bank.entity.Transaction;
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.enums.TransactionType;
+import com.testassignment.bank.service.AccountMutationExecutor;
+import com.testassignment.bank.service.AccountService;
+import com.testassignment.bank.service.TransactionFilter;
+import com.testassignment.bank.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Not transactional, so every transfer commits on its own like a real request.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("integrationtest")
+public class TransferIntegrationTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 200;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountMutationExecutor accountMutationExecutor;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountDAO accountDAO;
+
+    private Long createTestAccount(BigDecimal usdBalance) {
+        Account account = new Account();
+        account.setAccountNumber("transfer");
+        Map<CurrencyEnum, BigDecimal> balances = new EnumMap<>(CurrencyEnum.class);
+        for (CurrencyEnum currency : CurrencyEnum.values()) {
+            balances.put(currency, BigDecimal.ZERO);
+        }
+        balances.put(CurrencyEnum.USD, usdBalance);
+        account.setBalances(balances);
+        return accountDAO.save(account).getId();
+    }
+
+    @Test
+    void testTransferWritesPairedTransactions() throws Exception {
+        Long from = createTestAccount(BigDecimal.valueOf(100));
+        Long to = createTestAccount(BigDecimal.ZERO);
+
+        mockMvc.perform(post("/account/" + from + "/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"toAccountId\": " + to + ", \"currency\": \"USD\", \"amount\": 40.00 }"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balances.USD").value(60.00));
+
+        Transaction debit = transactionService.getTransactionHistory(from, TransactionFilter.NONE, null, 10).getTransactions().get(0);
+        Transaction credit = transactionService.getTransactionHistory(to, TransactionFilter.NONE, null, 10).getTransactions().get(0);
+        assertEquals(TransactionType.TRANSFER, debit.getTransactionType());
+        assertEquals(0, new BigDecimal("-40.00").compareTo(debit.getAmount()));
+        assertEquals(to, debit.getCounterpartyAccountId());
+        assertEquals(0, new BigDecimal("40.00").compareTo(credit.getAmount()));
+        assertEquals(from, credit.getCounterpartyAccountId());
+    }
+
+    @Test
+    void testCrossCurrencyTransfer() throws Exception {
+        Long from = createTestAccount(BigDecimal.valueOf(100));
+        Long to = createTestAccount(BigDecimal.ZERO);
+
+        mockMvc.perform(post("/account/" + from + "/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"toAccountId\": " + to + ", \"currency\": \"USD\", \"toCurrency\": \"EUR\", \"amount\": 50.00 }"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balances.USD").value(50.00));
+
+        BigDecimal credited = accountService.getAccountBalance(to).get(CurrencyEnum.EUR);
+        Transaction credit = transactionService.getTransactionHistory(to, TransactionFilter.NONE, null, 10).getTransactions().get(0);
+        assertEquals(0, credited.compareTo(credit.getAmount()));
+        assertEquals(1, credited.signum());
+    }
+
+    @Test
+    void testRejectedTransferChangesNothing() throws Exception {
+        Long from = createTestAccount(BigDecimal.TEN);
+        Long to = createTestAccount(BigDecimal.ZERO);
+
+        mockMvc.perform(post("/account/" + from + "/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"toAccountId\": " + to + ", \"currency\": \"USD\", \"amount\": 10.01 }"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details[0]").value("Insufficient funds"));
+
+        mockMvc.perform(post("/account/" + from + "/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"toAccountId\": 99999, \"currency\": \"USD\", \"amount\": 1.00 }"))
+                .andExpect(status().isNotFound());
+
+        assertEquals(0, BigDecimal.TEN.compareTo(accountService.getAccountBalance(from).get(CurrencyEnum.USD)));
+        assertEquals(0, transactionService.getTransactionHistory(from, TransactionFilter.NONE, null, 10).getTransactions().size());
+    }
+
+    @Test
+    void testOppositeTransfersDoNotDeadlock() throws Exception {
+        Long first = createTestAccount(BigDecimal.valueOf(1000));
+        Long second = createTestAccount(BigDecimal.valueOf(1000));
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS; i++) {
+                Long from = i % 2 == 0 ? first : second;
+                Long to = i % 2 == 0 ? second : first;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return accountMutationExecutor.execute(from, to,
+                            () -> accountService.transferMoney(from, to, CurrencyEnum.USD, CurrencyEnum.USD, BigDecimal.ONE));
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        BigDecimal firstBalance = accountService.getAccountBalance(first).get(CurrencyEnum.USD);
+        BigDecimal secondBalance = accountService.getAccountBalance(second).get(CurrencyEnum.USD);
+        assertEquals(0, BigDecimal.valueOf(1000).compareTo(firstBalance), firstBalance.toString());
+        assertEquals(0, BigDecimal.valueOf(1000).compareTo(secondBalance), secondBalance.toString());
+        assertEquals(OPERATIONS, transactionService.getTransactionHistory(first, TransactionFilter.NONE, null, 1000).getTransactions().size());
+    }
+}
@@ -0,0 +1,54 @@
+package com.testassignment.bank.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testassignment.bank.dto.AccountDTO;
+import com.testassignment.bank.enums.CurrencyEnum;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON (de)serialization of the response most account endpoints return, with an ObjectMapper configured
+ * the way Spring MVC configures its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AccountDtoJsonBenchmark {
+
+    private ObjectMapper objectMapper;
+    private AccountDTO account;
+    private String json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        account = new AccountDTO();
+        account.setId(123456L);
+        account.setAccountNumber("EE382200221020145685");
+        Map<CurrencyEnum, BigDecimal> balances = new HashMap<>();
+        for (CurrencyEnum currency : CurrencyEnum.values()) {
+            balances.put(currency, new BigDecimal("12345.67"));
+        }
+        account.setBalances(balances);
+        json = objectMapper.writeValueAsString(account);
+    }
+
+    @Benchmark
+    public String serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(account);
+    }
+
+    @Benchmark
+    public AccountDTO deserialize() throws JsonProcessingException {
+        return objectMapper.readValue(json, AccountDTO.class);
+    }
+}
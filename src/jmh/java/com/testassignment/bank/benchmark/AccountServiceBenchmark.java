@@ -0,0 +1,82 @@
+package com.testassignment.bank.benchmark;
+
+import com.testassignment.bank.dto.AccountDTO;
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.service.AccountMutationExecutor;
+import com.testassignment.bank.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balance changes the way AccountController runs them, through {@link AccountMutationExecutor}, on an
+ * account of each benchmark thread and on one account shared by all threads (-t sets the thread count).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AccountServiceBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    @Param({"atomic", "optimistic", "striped"})
+    public String concurrencyMode;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private AccountMutationExecutor accountMutationExecutor;
+    private Long sharedAccountId;
+
+    @State(Scope.Thread)
+    public static class ThreadAccount {
+
+        private Long accountId;
+
+        @Setup(Level.Trial)
+        public void create(AccountServiceBenchmark benchmark) {
+            accountId = BenchmarkContext.newFundedAccount(benchmark.context);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start("--bank.account.concurrency-mode=" + concurrencyMode);
+        accountService = context.getBean(AccountService.class);
+        accountMutationExecutor = context.getBean(AccountMutationExecutor.class);
+        sharedAccountId = BenchmarkContext.newFundedAccount(context);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public AccountDTO deposit(ThreadAccount account) {
+        return accountMutationExecutor.execute(account.accountId,
+                () -> accountService.depositMoney(account.accountId, CurrencyEnum.USD, AMOUNT));
+    }
+
+    @Benchmark
+    public AccountDTO debit(ThreadAccount account) {
+        return accountMutationExecutor.execute(account.accountId,
+                () -> accountService.debitMoney(account.accountId, CurrencyEnum.USD, AMOUNT));
+    }
+
+    @Benchmark
+    public AccountDTO depositSharedAccount() {
+        return accountMutationExecutor.execute(sharedAccountId,
+                () -> accountService.depositMoney(sharedAccountId, CurrencyEnum.USD, AMOUNT));
+    }
+
+    @Benchmark
+    public AccountDTO exchange(ThreadAccount account) {
+        return accountMutationExecutor.execute(account.accountId,
+                () -> accountService.exchangeCurrency(account.accountId, CurrencyEnum.USD, CurrencyEnum.EUR, AMOUNT));
+    }
+}
@@ -0,0 +1,43 @@
+package com.testassignment.bank.benchmark;
+
+import com.testassignment.bank.BankApplication;
+import com.testassignment.bank.dao.AccountDAO;
+import com.testassignment.bank.entity.Account;
+import com.testassignment.bank.enums.CurrencyEnum;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Starts the application without a web server against its own in-memory H2 database, with
+ * notifications off, so the benchmarks measure the services and the database.
+ */
+final class BenchmarkContext {
+
+    // Enough that no benchmark runs an account dry.
+    static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000000.00");
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * @param properties Extra properties as command line arguments, e.g. --bank.account.concurrency-mode=striped.
+     */
+    static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(BankApplication.class).profiles("jmh").run(properties);
+    }
+
+    static Long newFundedAccount(ConfigurableApplicationContext context) {
+        Account account = new Account();
+        account.setAccountNumber("benchmark");
+        Map<CurrencyEnum, BigDecimal> balances = new EnumMap<>(CurrencyEnum.class);
+        for (CurrencyEnum currency : CurrencyEnum.values()) {
+            balances.put(currency, OPENING_BALANCE);
+        }
+        account.setBalances(balances);
+        return context.getBean(AccountDAO.class).save(account).getId();
+    }
+}
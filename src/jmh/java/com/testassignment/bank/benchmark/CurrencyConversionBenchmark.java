@@ -0,0 +1,46 @@
+package com.testassignment.bank.benchmark;
+
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.service.ConversionResult;
+import com.testassignment.bank.service.CurrencyConversionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CurrencyConversionBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("123.45");
+
+    @Param({"USD", "SEK"})
+    public CurrencyEnum fromCurrency;
+
+    @Param({"EUR", "RUB"})
+    public CurrencyEnum toCurrency;
+
+    private ConfigurableApplicationContext context;
+    private CurrencyConversionService currencyConversionService;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start();
+        currencyConversionService = context.getBean(CurrencyConversionService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public ConversionResult convert() {
+        return currencyConversionService.convert(fromCurrency, toCurrency, AMOUNT);
+    }
+}
@@ -0,0 +1,90 @@
+package com.testassignment.bank.benchmark;
+
+import com.testassignment.bank.entity.Transaction;
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.enums.TransactionType;
+import com.testassignment.bank.service.AccountService;
+import com.testassignment.bank.service.TransactionCursor;
+import com.testassignment.bank.service.TransactionFilter;
+import com.testassignment.bank.service.TransactionPage;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Pages through the history of an account with historySize transactions, one per minute, a quarter of
+ * them in EUR. The cost of a page should not depend on the size of the history.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TransactionHistoryBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"1000", "100000"})
+    public int historySize;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private Long accountId;
+    private String middleCursor;
+    private TransactionFilter eurFilter;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start();
+        accountService = context.getBean(AccountService.class);
+        accountId = BenchmarkContext.newFundedAccount(context);
+
+        LocalDateTime start = LocalDateTime.now().minusMinutes(historySize);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Integer> rows = IntStream.range(0, historySize).boxed().toList();
+        jdbcTemplate.batchUpdate("INSERT INTO \"TRANSACTION\" (id, account_id, currency, amount, timestamp, transaction_type) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", rows, 1000, (statement, row) -> {
+            statement.setLong(1, 1_000_000_000L + row);
+            statement.setLong(2, accountId);
+            statement.setString(3, row % 4 == 0 ? CurrencyEnum.EUR.name() : CurrencyEnum.USD.name());
+            statement.setBigDecimal(4, BigDecimal.ONE);
+            statement.setTimestamp(5, Timestamp.valueOf(start.plusMinutes(row)));
+            statement.setString(6, TransactionType.DEPOSIT.name());
+        });
+
+        Transaction middle = new Transaction();
+        middle.setId(1_000_000_000L + historySize / 2);
+        middle.setTimestamp(start.plusMinutes(historySize / 2).truncatedTo(ChronoUnit.MICROS));
+        middleCursor = TransactionCursor.after(middle).encode();
+        eurFilter = new TransactionFilter(CurrencyEnum.EUR, null, null, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionPage firstPage() {
+        return accountService.getAccountTransactionHistory(accountId, TransactionFilter.NONE, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public TransactionPage pageInTheMiddle() {
+        return accountService.getAccountTransactionHistory(accountId, TransactionFilter.NONE, middleCursor, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public TransactionPage filteredPage() {
+        return accountService.getAccountTransactionHistory(accountId, eurFilter, null, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,71 @@
+package com.testassignment.bank.benchmark;
+
+import com.testassignment.bank.entity.Transaction;
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.enums.TransactionType;
+import com.testassignment.bank.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput of the transaction log, in rows per second, for one row per commit, the two rows of
+ * an exchange and a batch of 50 rows per commit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TransactionLogBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private TransactionTemplate transactionTemplate;
+    private Long accountId;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start();
+        transactionService = context.getBean(TransactionService.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        accountId = BenchmarkContext.newFundedAccount(context);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public void oneRowPerCommit() {
+        transactionTemplate.executeWithoutResult(status ->
+                transactionService.saveTransaction(accountId, CurrencyEnum.USD.name(), AMOUNT, TransactionType.DEPOSIT));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public void exchangePerCommit() {
+        transactionTemplate.executeWithoutResult(status -> transactionService.saveExchangeTransactions(
+                accountId, CurrencyEnum.USD.name(), AMOUNT.negate(), CurrencyEnum.EUR.name(), AMOUNT, null));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(50)
+    public void fiftyRowsPerCommit() {
+        List<Transaction> transactions = new ArrayList<>(50);
+        for (int i = 0; i < 50; i++) {
+            transactions.add(transactionService.newTransaction(accountId, CurrencyEnum.USD.name(), AMOUNT, TransactionType.DEPOSIT));
+        }
+        transactionTemplate.executeWithoutResult(status -> transactionService.saveTransactions(transactions));
+    }
+}
@@ -0,0 +1,75 @@
+package com.testassignment.bank.benchmark;
+
+import com.testassignment.bank.dto.AccountDTO;
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.service.AccountMutationExecutor;
+import com.testassignment.bank.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transfers between random pairs of a pool of accounts, in both directions. The fewer accounts and the
+ * more threads (-t), the more transfers wait for each other's account locks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+public class TransferBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+
+    @Param({"atomic", "striped"})
+    public String concurrencyMode;
+
+    @Param({"2", "64"})
+    public int accounts;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private AccountMutationExecutor accountMutationExecutor;
+    private Long[] accountIds;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start("--bank.account.concurrency-mode=" + concurrencyMode);
+        accountService = context.getBean(AccountService.class);
+        accountMutationExecutor = context.getBean(AccountMutationExecutor.class);
+        accountIds = new Long[accounts];
+        for (int i = 0; i < accounts; i++) {
+            accountIds[i] = BenchmarkContext.newFundedAccount(context);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public AccountDTO transfer() {
+        return transfer(CurrencyEnum.USD);
+    }
+
+    @Benchmark
+    public AccountDTO transferWithConversion() {
+        return transfer(CurrencyEnum.EUR);
+    }
+
+    private AccountDTO transfer(CurrencyEnum toCurrency) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(accounts);
+        int to = (from + 1 + random.nextInt(accounts - 1)) % accounts;
+        Long fromAccountId = accountIds[from];
+        Long toAccountId = accountIds[to];
+        return accountMutationExecutor.execute(fromAccountId, toAccountId,
+                () -> accountService.transferMoney(fromAccountId, toAccountId, CurrencyEnum.USD, toCurrency, AMOUNT));
+    }
+}
@@ -0,0 +1,137 @@
+package com.testassignment.bank.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests on a fixed schedule (an open model): request i is due at start + i / rate whether or not
+ * earlier requests have completed, and its response time is measured from when it was due. A slow server
+ * therefore shows up as higher response times instead of as a lower request rate, which is what a closed
+ * loop of clients waiting for their previous response would report (coordinated omission).
+ */
+public class LoadGenerator {
+
+    private final LoadTestOptions options;
+    private final HttpClient client;
+    private final URI baseUri;
+    private final List<Long> accountIds;
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public LoadGenerator(LoadTestOptions options, HttpClient client, URI baseUri, List<Long> accountIds) {
+        this.options = options;
+        this.client = client;
+        this.baseUri = baseUri;
+        this.accountIds = accountIds;
+        options.getMix().keySet().forEach(operation -> stats.put(operation, new OperationStats()));
+    }
+
+    /**
+     * Runs the warmup and the measured duration, then waits for the requests still in flight.
+     * @return Requests sent per second during the measured duration.
+     */
+    public double run() throws InterruptedException {
+        Random random = new Random();
+        Operation[] schedule = weightedSchedule();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.getRate();
+        long warmupNanos = options.getWarmup().toNanos();
+        long endNanos = warmupNanos + options.getDuration().toNanos();
+
+        long start = System.nanoTime();
+        long sent = 0;
+        for (long i = 0; i * intervalNanos < endNanos; i++) {
+            long due = start + i * intervalNanos;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            boolean measured = i * intervalNanos >= warmupNanos;
+            Operation operation = schedule[random.nextInt(schedule.length)];
+            OperationStats operationStats = stats.get(operation);
+            if (inFlight.incrementAndGet() > options.getMaxInFlight()) {
+                inFlight.decrementAndGet();
+                if (measured) {
+                    operationStats.notSent.incrementAndGet();
+                }
+                continue;
+            }
+
+            long accountId = accountIds.get(random.nextInt(accountIds.size()));
+            long sentAt = System.nanoTime();
+            client.sendAsync(operation.request(baseUri, accountId, random), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long completedAt = System.nanoTime();
+                        inFlight.decrementAndGet();
+                        if (measured) {
+                            operationStats.record(due, sentAt, completedAt, error == null && response.statusCode() < 400);
+                        }
+                    });
+            if (measured) {
+                sent++;
+            }
+        }
+
+        long measuredNanos = System.nanoTime() - start - warmupNanos;
+        while (inFlight.get() > 0) {
+            Thread.sleep(10);
+        }
+        return sent * (double) TimeUnit.SECONDS.toNanos(1) / measuredNanos;
+    }
+
+    public Map<Operation, OperationStats> getStats() {
+        return stats;
+    }
+
+    // Each operation appears as often as its weight, so a uniform pick follows the mix.
+    private Operation[] weightedSchedule() {
+        return options.getMix().entrySet().stream()
+                .flatMap(entry -> Collections.nCopies(entry.getValue(), entry.getKey()).stream())
+                .toArray(Operation[]::new);
+    }
+
+    public static class OperationStats {
+
+        private final Recorder responseTimes = new Recorder(3);
+        private final Recorder serviceTimes = new Recorder(3);
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong notSent = new AtomicLong();
+
+        void record(long dueAt, long sentAt, long completedAt, boolean success) {
+            responseTimes.recordValue(completedAt - dueAt);
+            serviceTimes.recordValue(completedAt - sentAt);
+            if (!success) {
+                errors.incrementAndGet();
+            }
+        }
+
+        public Histogram responseTimes() {
+            return responseTimes.getIntervalHistogram();
+        }
+
+        public Histogram serviceTimes() {
+            return serviceTimes.getIntervalHistogram();
+        }
+
+        public long errors() {
+            return errors.get();
+        }
+
+        public long notSent() {
+            return notSent.get();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.testassignment.bank.load;
+
+import lombok.Data;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Options of a load test run, given as --name=value arguments.
+ */
+@Data
+public class LoadTestOptions {
+
+    // Requests per second, sent on a fixed schedule whether or not earlier requests have completed.
+    private int rate = 200;
+
+    private Duration duration = Duration.ofSeconds(30);
+
+    // Requests sent during the warmup are not recorded.
+    private Duration warmup = Duration.ofSeconds(10);
+
+    private int accounts = 100;
+
+    // Relative weights of the operations.
+    private Map<Operation, Integer> mix = parseMix("create=1,deposit=30,debit=20,exchange=10,balance=30,history=9");
+
+    // Requests that would exceed this many in flight are not sent and are counted as such.
+    private int maxInFlight = 1000;
+
+    // Names the report files, e.g. after the commit under test.
+    private String label = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+
+    private String reportDir = "build/reports/loadtest";
+
+    // Report of an earlier run to compare the percentiles with.
+    private String baseline;
+
+    // Profiles the application runs with on top of loadtest, e.g. virtual-threads.
+    private List<String> profiles = new ArrayList<>();
+
+    // Application properties as name=value, applied over every profile, e.g. to give two runs the same settings.
+    private List<String> properties = new ArrayList<>();
+
+    public static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "rate" -> options.setRate(Integer.parseInt(value));
+                case "duration" -> options.setDuration(DurationStyle.detectAndParse(value));
+                case "warmup" -> options.setWarmup(DurationStyle.detectAndParse(value));
+                case "accounts" -> options.setAccounts(Integer.parseInt(value));
+                case "mix" -> options.setMix(parseMix(value));
+                case "max-in-flight" -> options.setMaxInFlight(Integer.parseInt(value));
+                case "label" -> options.setLabel(value);
+                case "report-dir" -> options.setReportDir(value);
+                case "baseline" -> options.setBaseline(value);
+                case "profiles" -> options.setProfiles(List.of(value.split(",")));
+                case "property" -> options.getProperties().add(value);
+                default -> throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+        return options;
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split("=");
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,70 @@
+package com.testassignment.bank.load;
+
+import lombok.Data;
+import org.HdrHistogram.Histogram;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a load test run, written as JSON so runs of different commits can be compared.
+ */
+@Data
+public class LoadTestReport {
+
+    private String label;
+    private LocalDateTime startedAt;
+    private List<String> profiles;
+    private List<String> properties;
+    private String javaVersion;
+    private boolean virtualThreads;
+    private int targetRate;
+    private double achievedRate;
+    private long measuredSeconds;
+    private Map<Operation, OperationReport> operations = new EnumMap<>(Operation.class);
+
+    @Data
+    public static class OperationReport {
+
+        private long requests;
+        private long errors;
+        private long notSent;
+
+        // From the time the request was due to be sent, so time spent waiting behind slow requests counts.
+        private Percentiles responseTime;
+
+        // From the time the request was actually sent.
+        private Percentiles serviceTime;
+    }
+
+    /**
+     * Percentiles in milliseconds.
+     */
+    @Data
+    public static class Percentiles {
+
+        private double p50;
+        private double p90;
+        private double p99;
+        private double p999;
+        private double max;
+        private double mean;
+
+        static Percentiles of(Histogram nanos) {
+            Percentiles percentiles = new Percentiles();
+            percentiles.setP50(millis(nanos.getValueAtPercentile(50)));
+            percentiles.setP90(millis(nanos.getValueAtPercentile(90)));
+            percentiles.setP99(millis(nanos.getValueAtPercentile(99)));
+            percentiles.setP999(millis(nanos.getValueAtPercentile(99.9)));
+            percentiles.setMax(millis(nanos.getMaxValue()));
+            percentiles.setMean(nanos.getMean() / 1_000_000);
+            return percentiles;
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.testassignment.bank.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.testassignment.bank.BankApplication;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Starts the application on a random port against a fresh H2 database in build/loadtest, prepares a pool
+ * of funded accounts, drives the API with {@link LoadGenerator} and writes the report as JSON, plus the full
+ * percentile distribution of every operation as .hgrm files that HdrHistogram's plotter can show.
+ */
+public class LoadTestRunner {
+
+    private static final String OPENING_DEPOSIT = "1000000.00";
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build().enable(SerializationFeature.INDENT_OUTPUT);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BankApplication.class)
+                .profiles("loadtest")
+                .profiles(options.getProfiles().toArray(String[]::new))
+                .run(options.getProperties().stream().map(property -> "--" + property).toArray(String[]::new))) {
+            URI baseUri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+            List<Long> accountIds = createAccounts(client, baseUri, objectMapper, options.getAccounts());
+            LoadGenerator generator = new LoadGenerator(options, client, baseUri, accountIds);
+            LocalDateTime startedAt = LocalDateTime.now();
+            System.out.printf("Sending %d requests/s for %s after a %s warmup...%n", options.getRate(), options.getDuration(), options.getWarmup());
+            double achievedRate = generator.run();
+
+            LoadTestReport report = new LoadTestReport();
+            report.setLabel(options.getLabel());
+            report.setStartedAt(startedAt);
+            report.setProfiles(options.getProfiles());
+            report.setProperties(options.getProperties());
+            report.setJavaVersion(Runtime.version().toString());
+            report.setVirtualThreads(Threading.VIRTUAL.isActive(context.getEnvironment()));
+            report.setTargetRate(options.getRate());
+            report.setAchievedRate(achievedRate);
+            report.setMeasuredSeconds(options.getDuration().toSeconds());
+
+            File reportDir = new File(options.getReportDir());
+            reportDir.mkdirs();
+            for (Map.Entry<Operation, LoadGenerator.OperationStats> entry : generator.getStats().entrySet()) {
+                Histogram responseTimes = entry.getValue().responseTimes();
+                LoadTestReport.OperationReport operation = new LoadTestReport.OperationReport();
+                operation.setRequests(responseTimes.getTotalCount());
+                operation.setErrors(entry.getValue().errors());
+                operation.setNotSent(entry.getValue().notSent());
+                operation.setResponseTime(LoadTestReport.Percentiles.of(responseTimes));
+                operation.setServiceTime(LoadTestReport.Percentiles.of(entry.getValue().serviceTimes()));
+                report.getOperations().put(entry.getKey(), operation);
+
+                File distribution = new File(reportDir, options.getLabel() + "-" + entry.getKey().name().toLowerCase() + ".hgrm");
+                try (PrintStream out = new PrintStream(distribution)) {
+                    responseTimes.outputPercentileDistribution(out, 1_000_000.0);
+                }
+            }
+
+            File reportFile = new File(reportDir, options.getLabel() + ".json");
+            objectMapper.writeValue(reportFile, report);
+            printSummary(report, options.getBaseline() != null ? objectMapper.readTree(new File(options.getBaseline())) : null);
+            System.out.println("Report written to " + reportFile.getPath());
+        }
+    }
+
+    private static List<Long> createAccounts(HttpClient client, URI baseUri, ObjectMapper objectMapper, int count)
+            throws IOException, InterruptedException {
+        List<Long> accountIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            JsonNode account = objectMapper.readTree(send(client, Operation.post(baseUri.resolve("/account"), "{\"accountNumber\":\"LOAD" + i + "\"}")));
+            long accountId = account.get("id").asLong();
+            send(client, Operation.post(baseUri.resolve("/account/" + accountId + "/deposit"),
+                    "{\"currency\":\"USD\",\"amount\":" + OPENING_DEPOSIT + "}"));
+            accountIds.add(accountId);
+        }
+        return accountIds;
+    }
+
+    private static String send(HttpClient client, HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException(request.uri() + " failed with " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private static void printSummary(LoadTestReport report, JsonNode baseline) {
+        System.out.printf("%nJava %s, requests on %s threads%n", report.getJavaVersion(), report.isVirtualThreads() ? "virtual" : "platform");
+        System.out.printf("Target %d requests/s, achieved %.1f requests/s%n", report.getTargetRate(), report.getAchievedRate());
+        System.out.printf("%-9s %9s %7s %8s %9s %9s %9s %9s %9s%n",
+                "operation", "requests", "errors", "not sent", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        report.getOperations().forEach((operation, result) -> {
+            LoadTestReport.Percentiles responseTime = result.getResponseTime();
+            System.out.printf("%-9s %9d %7d %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n", operation, result.getRequests(), result.getErrors(),
+                    result.getNotSent(), responseTime.getP50(), responseTime.getP90(), responseTime.getP99(), responseTime.getP999(),
+                    responseTime.getMax());
+
+            JsonNode before = baseline != null ? baseline.path("operations").path(operation.name()).path("responseTime") : null;
+            if (before != null && !before.isMissingNode()) {
+                System.out.printf("%-9s %36s %+8.1f%% %+8.1f%% %+8.1f%% %+8.1f%% %+8.1f%%%n", "", "vs " + baseline.path("label").asText(),
+                        change(before.path("p50").asDouble(), responseTime.getP50()),
+                        change(before.path("p90").asDouble(), responseTime.getP90()),
+                        change(before.path("p99").asDouble(), responseTime.getP99()),
+                        change(before.path("p999").asDouble(), responseTime.getP999()),
+                        change(before.path("max").asDouble(), responseTime.getMax()));
+            }
+        });
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) * 100 / before;
+    }
+}
@@ -0,0 +1,70 @@
+package com.testassignment.bank.load;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.Random;
+
+/**
+ * The API calls the load test mixes, each on a random account of the prepared pool.
+ */
+public enum Operation {
+
+    CREATE {
+        @Override
+        HttpRequest request(URI baseUri, long accountId, Random random) {
+            return post(baseUri.resolve("/account"), "{\"accountNumber\":\"LOAD" + random.nextInt(1_000_000) + "\"}");
+        }
+    },
+    DEPOSIT {
+        @Override
+        HttpRequest request(URI baseUri, long accountId, Random random) {
+            return post(accountUri(baseUri, accountId, "deposit"), money(random));
+        }
+    },
+    DEBIT {
+        @Override
+        HttpRequest request(URI baseUri, long accountId, Random random) {
+            return post(accountUri(baseUri, accountId, "debit"), money(random));
+        }
+    },
+    EXCHANGE {
+        @Override
+        HttpRequest request(URI baseUri, long accountId, Random random) {
+            return post(accountUri(baseUri, accountId, "exchange"),
+                    "{\"fromCurrency\":\"USD\",\"toCurrency\":\"EUR\",\"amount\":" + amount(random) + "}");
+        }
+    },
+    BALANCE {
+        @Override
+        HttpRequest request(URI baseUri, long accountId, Random random) {
+            return HttpRequest.newBuilder(accountUri(baseUri, accountId, "balance")).GET().build();
+        }
+    },
+    HISTORY {
+        @Override
+        HttpRequest request(URI baseUri, long accountId, Random random) {
+            return HttpRequest.newBuilder(accountUri(baseUri, accountId, "transactions?limit=50")).GET().build();
+        }
+    };
+
+    abstract HttpRequest request(URI baseUri, long accountId, Random random);
+
+    private static URI accountUri(URI baseUri, long accountId, String path) {
+        return baseUri.resolve("/account/" + accountId + "/" + path);
+    }
+
+    private static String money(Random random) {
+        return "{\"currency\":\"USD\",\"amount\":" + amount(random) + "}";
+    }
+
+    private static String amount(Random random) {
+        return (1 + random.nextInt(100)) + "." + random.nextInt(10) + "0";
+    }
+
+    static HttpRequest post(URI uri, String body) {
+        return HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+}
@@ -0,0 +1,138 @@
+package com.testassignment.bank.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.testassignment.bank.config.AccountProperties;
+import com.testassignment.bank.enums.CurrencyEnum;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Balances of recently queried accounts, bounded in size (Caffeine's W-TinyLFU eviction). Entries are
+ * loaded on a miss and dropped once a transaction that changed the account's balances completes.
+ * <p>
+ * Balances are loaded without holding a lock, so a load waiting for a connection never blocks a commit
+ * that holds one. Every eviction first bumps a generation counter and a load that sees it change takes
+ * back what it published, so balances read before a commit never outlive that commit's eviction. A
+ * transaction that has changed an account reads around the cache until it completes, so uncommitted
+ * balances are never cached. Hits, misses and evictions are exposed as cache.* metrics tagged
+ * cache=account.balances.
+ */
+@Component
+public class AccountBalanceCache {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final AccountProperties.BalanceCache properties;
+    private final Cache<Long, Map<CurrencyEnum, BigDecimal>> balances;
+
+    // Per stripe of accounts, so writes to other accounts don't keep a load from being cached.
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public AccountBalanceCache(AccountProperties accountProperties, MeterRegistry meterRegistry) {
+        this.properties = accountProperties.getBalanceCache();
+        this.balances = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, balances, "account.balances");
+    }
+
+    /**
+     * @return The cached balances of the account, loading them first if they are not cached.
+     */
+    public Map<CurrencyEnum, BigDecimal> get(Long accountId, Function<Long, Map<CurrencyEnum, BigDecimal>> loader) {
+        if (!properties.isEnabled() || changedInCurrentTransaction(accountId)) {
+            return loader.apply(accountId);
+        }
+        Map<CurrencyEnum, BigDecimal> cached = balances.getIfPresent(accountId);
+        if (cached != null) {
+            return cached;
+        }
+
+        int stripe = stripe(accountId);
+        long generation = generations.get(stripe);
+        Map<CurrencyEnum, BigDecimal> loaded = copyOf(loader.apply(accountId));
+        balances.asMap().putIfAbsent(accountId, loaded);
+        if (generations.get(stripe) != generation) {
+            balances.asMap().remove(accountId, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Drops the account's balances once the current transaction completes, or right away outside a transaction.
+     */
+    public void evictAfterCompletion(Long accountId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(accountId);
+            return;
+        }
+
+        pendingEvictions().add(accountId);
+    }
+
+    public void clear() {
+        for (int stripe = 0; stripe < GENERATION_STRIPES; stripe++) {
+            generations.incrementAndGet(stripe);
+        }
+        balances.invalidateAll();
+    }
+
+    public long size() {
+        return balances.estimatedSize();
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean changedInCurrentTransaction(Long accountId) {
+        Set<Long> pending = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        return pending != null && pending.contains(accountId);
+    }
+
+    // One synchronization per transaction however many balance changes it makes.
+    @SuppressWarnings("unchecked")
+    private Set<Long> pendingEvictions() {
+        Set<Long> pending = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+
+        Set<Long> accountIds = new HashSet<>();
+        TransactionSynchronizationManager.bindResource(this, accountIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(AccountBalanceCache.this);
+                accountIds.forEach(AccountBalanceCache.this::evict);
+            }
+        });
+        return accountIds;
+    }
+
+    private void evict(Long accountId) {
+        generations.incrementAndGet(stripe(accountId));
+        balances.invalidate(accountId);
+    }
+
+    private static int stripe(Long accountId) {
+        return Long.hashCode(accountId) & (GENERATION_STRIPES - 1);
+    }
+
+    private static Map<CurrencyEnum, BigDecimal> copyOf(Map<CurrencyEnum, BigDecimal> loaded) {
+        Map<CurrencyEnum, BigDecimal> copy = new EnumMap<>(CurrencyEnum.class);
+        copy.putAll(loaded);
+        return Collections.unmodifiableMap(copy);
+    }
+}
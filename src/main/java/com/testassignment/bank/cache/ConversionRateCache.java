@@ -0,0 +1,146 @@
+package com.testassignment.bank.cache;
+
+import com.testassignment.bank.config.RateProperties;
+import com.testassignment.bank.entity.CurrencyConversionRate;
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.repository.CurrencyConversionRateRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the current {@link ConversionRateSnapshot}. Reads never touch the database once the snapshot is
+ * loaded; any write to CurrencyConversionRate invalidates it and the next read loads a fresh one, with
+ * cross rates derived as configured in {@link RateProperties}. Once a future-dated version takes effect the
+ * snapshot is rebuilt from the rates it already holds.
+ */
+@Component
+public class ConversionRateCache {
+
+    private final CurrencyConversionRateRepository conversionRateRepository;
+    private final RateProperties rateProperties;
+    private final AtomicReference<ConversionRateSnapshot> snapshot = new AtomicReference<>();
+
+    // Bumped on every invalidation so a load that raced with a write is not published.
+    private final AtomicLong generation = new AtomicLong();
+
+    // Not synchronized: a virtual thread blocked on the query inside a monitor would pin its carrier thread.
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    public ConversionRateCache(CurrencyConversionRateRepository conversionRateRepository, RateProperties rateProperties) {
+        this.conversionRateRepository = conversionRateRepository;
+        this.rateProperties = rateProperties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        getSnapshot();
+    }
+
+    /**
+     * @return The rate version currently in effect for the pair, or null if there is none.
+     */
+    public CurrencyConversionRate getRate(CurrencyEnum fromCurrency, CurrencyEnum toCurrency) {
+        return getRate(fromCurrency, toCurrency, LocalDateTime.now());
+    }
+
+    /**
+     * @return The rate version in effect for the pair at the given time, or null if there is none.
+     */
+    public CurrencyConversionRate getRate(CurrencyEnum fromCurrency, CurrencyEnum toCurrency, LocalDateTime time) {
+        return getSnapshot().getRate(fromCurrency, toCurrency, time);
+    }
+
+    public ConversionRateSnapshot getSnapshot() {
+        ConversionRateSnapshot current = snapshot.get();
+        if (current == null) {
+            return load();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (!current.isExpired(now)) {
+            return current;
+        }
+        // No database access needed; if a write replaced the snapshot meanwhile, that one wins.
+        ConversionRateSnapshot rebuilt = current.rebuiltAt(now);
+        snapshot.compareAndSet(current, rebuilt);
+        return rebuilt;
+    }
+
+    /**
+     * Drops the current snapshot. Inside a transaction this happens after commit, so concurrent readers
+     * cannot reload rates that are about to be rolled back or are not visible yet.
+     */
+    public void invalidate() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            doInvalidate();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                doInvalidate();
+            }
+        });
+    }
+
+    /**
+     * Loads the rates once the current transaction commits and publishes them as the new snapshot in a
+     * single swap, so readers see either all of the written rates or none of them.
+     */
+    public void refreshAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh();
+            }
+        });
+    }
+
+    private void refresh() {
+        loadLock.lock();
+        try {
+            generation.incrementAndGet();
+            snapshot.set(ConversionRateSnapshot.of(conversionRateRepository.findAll(), rateProperties));
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private void doInvalidate() {
+        generation.incrementAndGet();
+        snapshot.set(null);
+    }
+
+    private ConversionRateSnapshot load() {
+        loadLock.lock();
+        try {
+            ConversionRateSnapshot current = snapshot.get();
+            if (current != null) {
+                return current;
+            }
+
+            long loadedGeneration = generation.get();
+            ConversionRateSnapshot loaded = ConversionRateSnapshot.of(conversionRateRepository.findAll(), rateProperties);
+            if (generation.get() == loadedGeneration) {
+                snapshot.compareAndSet(null, loaded);
+            }
+            return loaded;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+}
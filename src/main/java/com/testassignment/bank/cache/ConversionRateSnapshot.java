@@ -0,0 +1,225 @@
+package com.testassignment.bank.cache;
+
+import com.testassignment.bank.config.RateProperties;
+import com.testassignment.bank.entity.CurrencyConversionRate;
+import com.testassignment.bank.enums.CurrencyEnum;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Immutable matrix of rate histories indexed by {@link CurrencyEnum#ordinal()}.
+ * A new snapshot is built for every change instead of mutating an existing one.
+ * <p>
+ * Pairs without a direct rate are derived by multiplying the rates along a conversion path. Derived rates are
+ * returned as unsaved CurrencyConversionRate instances without an id, carrying the ids of the versions they
+ * were derived from instead.
+ * <p>
+ * The paths and the rates in effect at build time, direct and derived, are precomputed and answer lookups
+ * until the next future-dated version takes effect. From then on the snapshot is {@link #isExpired expired}
+ * and is {@link #rebuiltAt rebuilt} from the same histories.
+ */
+public final class ConversionRateSnapshot {
+
+    private static final CurrencyEnum[] CURRENCIES = CurrencyEnum.values();
+    private static final int SIZE = CURRENCIES.length;
+
+    private final RateHistory[] histories;
+    private final RateProperties properties;
+
+    // Intermediate hops from -> ... -> to for pairs without a direct rate, null if the pair can't be derived.
+    private final CurrencyEnum[][] paths;
+
+    private final CurrencyConversionRate[] current;
+    private final LocalDateTime builtAt;
+    private final LocalDateTime validUntil;
+
+    private ConversionRateSnapshot(RateHistory[] histories, RateProperties properties, LocalDateTime builtAt) {
+        this.histories = histories;
+        this.properties = properties;
+        this.paths = paths(histories, properties, builtAt);
+        this.builtAt = builtAt;
+
+        LocalDateTime nextChange = LocalDateTime.MAX;
+        for (RateHistory history : histories) {
+            if (history != null) {
+                LocalDateTime change = history.nextChangeAfter(builtAt);
+                if (change != null && change.isBefore(nextChange)) {
+                    nextChange = change;
+                }
+            }
+        }
+        this.validUntil = nextChange;
+
+        this.current = new CurrencyConversionRate[SIZE * SIZE];
+        for (CurrencyEnum fromCurrency : CURRENCIES) {
+            for (CurrencyEnum toCurrency : CURRENCIES) {
+                current[index(fromCurrency, toCurrency)] = resolve(fromCurrency, toCurrency, builtAt);
+            }
+        }
+    }
+
+    public static ConversionRateSnapshot of(Collection<CurrencyConversionRate> conversionRates, RateProperties properties) {
+        List<List<CurrencyConversionRate>> versionsByPair = new ArrayList<>(SIZE * SIZE);
+        for (int i = 0; i < SIZE * SIZE; i++) {
+            versionsByPair.add(new ArrayList<>());
+        }
+        for (CurrencyConversionRate conversionRate : conversionRates) {
+            versionsByPair.get(index(conversionRate.getFromCurrency(), conversionRate.getToCurrency())).add(conversionRate);
+        }
+
+        RateHistory[] histories = new RateHistory[SIZE * SIZE];
+        for (int i = 0; i < histories.length; i++) {
+            if (!versionsByPair.get(i).isEmpty()) {
+                histories[i] = new RateHistory(versionsByPair.get(i));
+            }
+        }
+        return new ConversionRateSnapshot(histories, properties, LocalDateTime.now());
+    }
+
+    /**
+     * @return Whether a version has taken effect since the snapshot was built, so the precomputed rates are stale.
+     */
+    public boolean isExpired(LocalDateTime time) {
+        return !time.isBefore(validUntil);
+    }
+
+    /**
+     * @return A snapshot of the same rate versions with the rates in effect at the given time precomputed.
+     */
+    public ConversionRateSnapshot rebuiltAt(LocalDateTime time) {
+        return new ConversionRateSnapshot(histories, properties, time);
+    }
+
+    /**
+     * @return The rate version in effect at the given time, or null if the pair has no rate at that time.
+     */
+    public CurrencyConversionRate getRate(CurrencyEnum fromCurrency, CurrencyEnum toCurrency, LocalDateTime time) {
+        if (!time.isBefore(builtAt) && time.isBefore(validUntil)) {
+            return current[index(fromCurrency, toCurrency)];
+        }
+        return resolve(fromCurrency, toCurrency, time);
+    }
+
+    private CurrencyConversionRate resolve(CurrencyEnum fromCurrency, CurrencyEnum toCurrency, LocalDateTime time) {
+        int index = index(fromCurrency, toCurrency);
+        RateHistory direct = histories[index];
+        if (direct != null) {
+            return direct.at(time);
+        }
+
+        CurrencyEnum[] path = paths[index];
+        if (path == null) {
+            return null;
+        }
+
+        BigDecimal rate = BigDecimal.ONE;
+        LocalDateTime effectiveFrom = null;
+        List<Long> legIds = new ArrayList<>(path.length + 1);
+        CurrencyEnum hopFrom = fromCurrency;
+        for (int i = 0; i <= path.length; i++) {
+            CurrencyEnum hopTo = i < path.length ? path[i] : toCurrency;
+            CurrencyConversionRate leg = histories[index(hopFrom, hopTo)].at(time);
+            if (leg == null) {
+                return null;
+            }
+            rate = rate.multiply(leg.getRate());
+            legIds.add(leg.getId());
+            if (leg.getEffectiveFrom() != null && (effectiveFrom == null || leg.getEffectiveFrom().isAfter(effectiveFrom))) {
+                effectiveFrom = leg.getEffectiveFrom();
+            }
+            hopFrom = hopTo;
+        }
+
+        CurrencyConversionRate derived = new CurrencyConversionRate();
+        derived.setFromCurrency(fromCurrency);
+        derived.setToCurrency(toCurrency);
+        derived.setRate(rate);
+        derived.setEffectiveFrom(effectiveFrom);
+        derived.setLegIds(List.copyOf(legIds));
+        return derived;
+    }
+
+    private static CurrencyEnum[][] paths(RateHistory[] histories, RateProperties properties, LocalDateTime time) {
+        CurrencyEnum[][] paths = new CurrencyEnum[SIZE * SIZE][];
+        for (CurrencyEnum fromCurrency : CURRENCIES) {
+            for (CurrencyEnum toCurrency : CURRENCIES) {
+                if (fromCurrency == toCurrency || histories[index(fromCurrency, toCurrency)] != null) {
+                    continue;
+                }
+                paths[index(fromCurrency, toCurrency)] = switch (properties.getCrossRateMode()) {
+                    case NONE -> null;
+                    case BASE -> basePath(histories, fromCurrency, toCurrency, properties.getBaseCurrency());
+                    case SHORTEST_PATH -> shortestPath(histories, fromCurrency, toCurrency, time);
+                };
+            }
+        }
+        return paths;
+    }
+
+    private static CurrencyEnum[] basePath(RateHistory[] histories, CurrencyEnum fromCurrency, CurrencyEnum toCurrency, CurrencyEnum baseCurrency) {
+        if (fromCurrency == baseCurrency || toCurrency == baseCurrency) {
+            return null;
+        }
+        boolean legsExist = histories[index(fromCurrency, baseCurrency)] != null && histories[index(baseCurrency, toCurrency)] != null;
+        return legsExist ? new CurrencyEnum[]{baseCurrency} : null;
+    }
+
+    // Breadth-first search over currencies with direct rates. Of the paths with the fewest hops, the one whose rates
+    // in effect at the given time multiply to the most is kept; neighbours are visited in enum order so ties are stable.
+    private static CurrencyEnum[] shortestPath(RateHistory[] histories, CurrencyEnum fromCurrency, CurrencyEnum toCurrency, LocalDateTime time) {
+        int[] distance = new int[SIZE];
+        Arrays.fill(distance, -1);
+        // Best rate product from fromCurrency, null if a leg on the path has no rate in effect yet.
+        BigDecimal[] best = new BigDecimal[SIZE];
+        CurrencyEnum[] previous = new CurrencyEnum[SIZE];
+        Deque<CurrencyEnum> queue = new ArrayDeque<>();
+        distance[fromCurrency.ordinal()] = 0;
+        best[fromCurrency.ordinal()] = BigDecimal.ONE;
+        queue.add(fromCurrency);
+
+        // Every currency one hop closer is polled before the next one, so best[] is final by the time it is used.
+        while (!queue.isEmpty()) {
+            CurrencyEnum currency = queue.poll();
+            for (CurrencyEnum next : CURRENCIES) {
+                RateHistory history = histories[index(currency, next)];
+                if (history == null) {
+                    continue;
+                }
+                if (distance[next.ordinal()] == -1) {
+                    distance[next.ordinal()] = distance[currency.ordinal()] + 1;
+                    queue.add(next);
+                } else if (distance[next.ordinal()] != distance[currency.ordinal()] + 1) {
+                    continue;
+                }
+
+                CurrencyConversionRate leg = history.at(time);
+                BigDecimal rate = best[currency.ordinal()] != null && leg != null ? best[currency.ordinal()].multiply(leg.getRate()) : null;
+                BigDecimal bestRate = best[next.ordinal()];
+                if (previous[next.ordinal()] == null || (rate != null && (bestRate == null || rate.compareTo(bestRate) > 0))) {
+                    best[next.ordinal()] = rate;
+                    previous[next.ordinal()] = currency;
+                }
+            }
+        }
+        return previous[toCurrency.ordinal()] != null ? hops(previous, fromCurrency, toCurrency) : null;
+    }
+
+    private static CurrencyEnum[] hops(CurrencyEnum[] previous, CurrencyEnum fromCurrency, CurrencyEnum toCurrency) {
+        Deque<CurrencyEnum> hops = new ArrayDeque<>();
+        for (CurrencyEnum currency = previous[toCurrency.ordinal()]; currency != fromCurrency; currency = previous[currency.ordinal()]) {
+            hops.addFirst(currency);
+        }
+        return hops.toArray(CurrencyEnum[]::new);
+    }
+
+    private static int index(CurrencyEnum fromCurrency, CurrencyEnum toCurrency) {
+        return fromCurrency.ordinal() * SIZE + toCurrency.ordinal();
+    }
+}
@@ -0,0 +1,65 @@
+package com.testassignment.bank.cache;
+
+import com.testassignment.bank.entity.CurrencyConversionRate;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * All versions of the rate for one currency pair, sorted by effectiveFrom so the version in effect at a
+ * given time is found with a binary search.
+ */
+final class RateHistory {
+
+    static final Comparator<CurrencyConversionRate> BY_EFFECTIVE_FROM = Comparator
+            .comparing(CurrencyConversionRate::getEffectiveFrom, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(CurrencyConversionRate::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final CurrencyConversionRate[] versions;
+
+    RateHistory(List<CurrencyConversionRate> versions) {
+        this.versions = versions.stream().sorted(BY_EFFECTIVE_FROM).toArray(CurrencyConversionRate[]::new);
+    }
+
+    /**
+     * @return The version in effect at the given time, or null if the first version starts later.
+     */
+    CurrencyConversionRate at(LocalDateTime time) {
+        // Lookups are almost always for "now", which is answered by the latest version without searching.
+        CurrencyConversionRate latest = versions[versions.length - 1];
+        if (isEffectiveAt(latest, time)) {
+            return latest;
+        }
+
+        int low = 0;
+        int high = versions.length - 2;
+        CurrencyConversionRate found = null;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (isEffectiveAt(versions[mid], time)) {
+                found = versions[mid];
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @return The effectiveFrom of the first version starting after the given time, or null if there is none.
+     */
+    LocalDateTime nextChangeAfter(LocalDateTime time) {
+        for (CurrencyConversionRate version : versions) {
+            if (!isEffectiveAt(version, time)) {
+                return version.getEffectiveFrom();
+            }
+        }
+        return null;
+    }
+
+    private static boolean isEffectiveAt(CurrencyConversionRate version, LocalDateTime time) {
+        return version.getEffectiveFrom() == null || !version.getEffectiveFrom().isAfter(time);
+    }
+}
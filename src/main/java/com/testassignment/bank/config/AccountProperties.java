@@ -0,0 +1,93 @@
+package com.testassignment.bank.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "bank.account")
+public class AccountProperties {
+
+    /**
+     * How concurrent balance changes are kept consistent:
+     * atomic - the change is applied by a single conditional UPDATE in the database,
+     * optimistic - the balance is read, changed and written back with a version check; conflicting
+     * requests are retried,
+     * striped - mutations of the same account are serialized by an in-process lock before the transaction
+     * starts; only safe when a single instance writes to the database.
+     */
+    private ConcurrencyMode concurrencyMode = ConcurrencyMode.ATOMIC;
+
+    private Retry retry = new Retry();
+
+    private Lock lock = new Lock();
+
+    private GroupCommit groupCommit = new GroupCommit();
+
+    private BalanceCache balanceCache = new BalanceCache();
+
+    private Batch batch = new Batch();
+
+    @Data
+    public static class Retry {
+
+        // Attempts per request, including the first one.
+        private int maxAttempts = 5;
+
+        // Backoff doubles after every conflict up to maxBackoff; the actual sleep is a random value below it.
+        private Duration initialBackoff = Duration.ofMillis(5);
+        private Duration maxBackoff = Duration.ofMillis(100);
+    }
+
+    @Data
+    public static class Lock {
+
+        // Accounts are hashed onto this many locks, so memory stays fixed however many accounts there are.
+        private int stripes = 256;
+
+        // How long a request waits for its account's lock before it is rejected.
+        private Duration timeout = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class GroupCommit {
+
+        // When enabled, concurrent deposits are collected and committed together in one transaction.
+        private boolean enabled = false;
+
+        // How long the first deposit of a batch waits for others to join it.
+        private Duration maxWait = Duration.ofNanos(500_000);
+
+        private int maxBatchSize = 100;
+
+        // Deposits arriving while the queue is full are committed on their own.
+        private int queueCapacity = 10_000;
+
+        // How long a caller waits for the worker to take its deposit. A deposit not taken by then is committed
+        // on its own; once taken, the caller waits for its batch to commit.
+        private Duration resultTimeout = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class BalanceCache {
+
+        // When enabled, balance queries are answered from memory until the account's balances change.
+        private boolean enabled = true;
+
+        // Accounts kept in memory; the ones least likely to be read again are evicted first.
+        private long maxSize = 100_000;
+    }
+
+    @Data
+    public static class Batch {
+
+        // Accounts of a batch request whose operations are applied in one transaction. Their rows stay
+        // locked until it commits, and an unexpected error fails the operations of all of them.
+        private int accountsPerTransaction = 100;
+    }
+
+    public enum ConcurrencyMode {
+        ATOMIC, OPTIMISTIC, STRIPED
+    }
+}
@@ -0,0 +1,34 @@
+package com.testassignment.bank.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+public class ConnectionLimitConfig {
+
+    // The pool Spring Boot creates for spring.datasource.*; other data sources are left as they are.
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    // Static and bound by hand, as post-processors are created before configuration properties beans.
+    @Bean
+    @ConditionalOnProperty(name = "bank.jdbc.connection-limit.enabled", havingValue = "true")
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(Environment environment) {
+        ConnectionLimitProperties properties = Binder.get(environment)
+                .bind("bank.jdbc.connection-limit", ConnectionLimitProperties.class)
+                .orElseGet(ConnectionLimitProperties::new);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource && DATA_SOURCE_BEAN.equals(beanName)) {
+                    return new ConnectionLimitingDataSource(dataSource, properties.getMaxConnections(), properties.getAcquireTimeout());
+                }
+                return bean;
+            }
+        };
+    }
+}
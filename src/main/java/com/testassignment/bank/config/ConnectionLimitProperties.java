@@ -0,0 +1,20 @@
+package com.testassignment.bank.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "bank.jdbc.connection-limit")
+public class ConnectionLimitProperties {
+
+    // Puts a ConnectionLimitingDataSource in front of the connection pool.
+    private boolean enabled = false;
+
+    // Connections that may be in use at once. Below the pool size, so background work still gets one.
+    private int maxConnections = 8;
+
+    // How long a thread waits for its turn before the request fails.
+    private Duration acquireTimeout = Duration.ofSeconds(5);
+}
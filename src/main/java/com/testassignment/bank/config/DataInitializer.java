@@ -1,23 +1,28 @@
 package com.testassignment.bank.config;
 
-import com.testassignment.bank.entity.CurrencyConversionRate;
+import com.testassignment.bank.dto.ConversionRateRequestDTO;
 import com.testassignment.bank.enums.CurrencyEnum;
 import com.testassignment.bank.repository.CurrencyConversionRateRepository;
+import com.testassignment.bank.service.RateImportService;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
 public class DataInitializer {
 
     // This method initializes the database with the conversion rates between different currencies.
-    // Won't run if table is already populated.
+    // Won't run if table is already populated, e.g. by RateFileImporter which runs first.
     @Bean
-    public CommandLineRunner initDatabase(CurrencyConversionRateRepository repository) {
+    @Order(2)
+    public CommandLineRunner initDatabase(CurrencyConversionRateRepository repository, RateImportService rateImportService) {
         return args -> {
             if (repository.count() > 0) {
                 return;
@@ -50,15 +55,17 @@ public class DataInitializer {
             conversionRates.put(CurrencyEnum.SEK, sekRates);
             conversionRates.put(CurrencyEnum.RUB, rubRates);
 
+            List<ConversionRateRequestDTO> rows = new ArrayList<>();
             conversionRates.forEach((fromCurrency, rates) -> {
                 rates.forEach((toCurrency, rate) -> {
-                    CurrencyConversionRate conversionRate = new CurrencyConversionRate();
+                    ConversionRateRequestDTO conversionRate = new ConversionRateRequestDTO();
                     conversionRate.setFromCurrency(fromCurrency);
                     conversionRate.setToCurrency(toCurrency);
                     conversionRate.setRate(BigDecimal.valueOf(rate));
-                    repository.save(conversionRate);
+                    rows.add(conversionRate);
                 });
             });
+            rateImportService.importRates(rows);
         };
     }
 }
@@ -0,0 +1,65 @@
+package com.testassignment.bank.config;
+
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.enums.TransactionType;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Adds enum constants introduced since a table was created to its ENUM column. Hibernate maps enums to
+ * H2 ENUM columns, but the schema update never changes an existing column, so e.g. a TRANSFER
+ * transaction could not be stored in a database created before transfers existed. Runs as soon as the
+ * schema update is done, so the columns are widened before any other startup work or request writes to them.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class EnumColumnInitializer implements InitializingBean {
+
+    // Table and column of every enum mapped with EnumType.STRING.
+    private static final Map<List<String>, Class<? extends Enum<?>>> ENUM_COLUMNS = Map.of(
+            List.of("TRANSACTION", "TRANSACTION_TYPE"), TransactionType.class,
+            List.of("ACCOUNT_BALANCE", "CURRENCY"), CurrencyEnum.class,
+            List.of("BALANCE_SNAPSHOT", "CURRENCY"), CurrencyEnum.class,
+            List.of("CURRENCY_CONVERSION_RATE", "FROM_CURRENCY"), CurrencyEnum.class,
+            List.of("CURRENCY_CONVERSION_RATE", "TO_CURRENCY"), CurrencyEnum.class
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EnumColumnInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        ENUM_COLUMNS.forEach((column, enumType) -> {
+            String table = column.get(0);
+            String name = column.get(1);
+            Set<String> existing = new HashSet<>(jdbcTemplate.queryForList(
+                    "SELECT e.VALUE_NAME FROM INFORMATION_SCHEMA.ENUM_VALUES e JOIN INFORMATION_SCHEMA.COLUMNS c "
+                            + "ON c.DTD_IDENTIFIER = e.ENUM_IDENTIFIER AND c.TABLE_NAME = e.OBJECT_NAME "
+                            + "WHERE c.TABLE_NAME = ? AND c.COLUMN_NAME = ?", String.class, table, name));
+
+            // Columns that are not ENUM columns have no values and are left alone.
+            List<String> constants = Arrays.stream(enumType.getEnumConstants()).map(Enum::name).toList();
+            if (existing.isEmpty() || existing.containsAll(constants)) {
+                return;
+            }
+
+            // Existing values are kept, so rows holding a constant that was since removed stay readable.
+            Set<String> values = new HashSet<>(existing);
+            values.addAll(constants);
+            String definition = values.stream().sorted().map(value -> "'" + value + "'").collect(Collectors.joining(", "));
+            jdbcTemplate.execute("ALTER TABLE \"" + table + "\" ALTER COLUMN " + name + " SET DATA TYPE ENUM(" + definition + ")");
+        });
+    }
+}
@@ -0,0 +1,38 @@
+package com.testassignment.bank.config;
+
+import com.testassignment.bank.entity.IdSequences;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the id sequences past the ids already in their tables. Needed for databases whose rows were
+ * created with IDENTITY ids before the sequences existed, as the schema update starts a new sequence at 1.
+ * Runs once the schema is up to date and before the web server starts, so no request takes a block of
+ * ids from the old sequence.
+ */
+@Component
+public class IdSequenceInitializer implements SmartInitializingSingleton {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        IdSequences.BY_TABLE.forEach((table, sequence) -> {
+            long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM \"" + table.toUpperCase() + "\"", Long.class);
+            long nextValue = jdbcTemplate.queryForObject(
+                    "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?", Long.class, sequence.toUpperCase());
+
+            // The pooled optimizer hands out the ALLOCATION_SIZE ids up to the value it fetches, so the next
+            // value has to clear the existing ids by a whole block.
+            long safeValue = maxId + IdSequences.ALLOCATION_SIZE + 1;
+            if (maxId > 0 && nextValue < safeValue) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + safeValue);
+            }
+        });
+    }
+}
@@ -0,0 +1,20 @@
+package com.testassignment.bank.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "bank.idempotency")
+public class IdempotencyProperties {
+
+    // How long a key is remembered; a retry after that is treated as a new request.
+    private Duration ttl = Duration.ofHours(24);
+
+    // Keys held in memory, so replays are answered without a query; older keys are still found in the table.
+    private long maxCachedKeys = 100_000;
+
+    // How often keys older than ttl are deleted from the table.
+    private Duration purgeInterval = Duration.ofHours(1);
+}
@@ -0,0 +1,32 @@
+package com.testassignment.bank.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "bank.ledger")
+public class LedgerProperties {
+
+    /**
+     * Ledger mode: the transaction table is the source of truth and account_balance is a projection of it,
+     * rebuilt on startup from the latest snapshot plus the transactions after it.
+     */
+    private boolean enabled = false;
+
+    private Duration snapshotInterval = Duration.ofHours(1);
+
+    // Only this many of the newest snapshots taken every snapshotInterval are kept; end-of-day snapshots are never purged.
+    private int retainedIntervalSnapshots = 48;
+
+    // Takes a snapshot as of the midnight before each run, for end-of-day balances; "-" turns it off.
+    private String endOfDaySnapshotCron = "0 5 0 * * *";
+
+    // Transactions younger than this are left out of a snapshot, as they may not have committed yet.
+    private Duration settleTime = Duration.ofMinutes(1);
+
+    // Accounts are verified in ranges of this many ids, verifyParallelism ranges at a time.
+    private long verifyPartitionSize = 10_000;
+    private int verifyParallelism = Runtime.getRuntime().availableProcessors();
+}
@@ -0,0 +1,29 @@
+package com.testassignment.bank.config;
+
+import com.testassignment.bank.service.LedgerService;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+/**
+ * In ledger mode, rebuilds account balances from the transaction log on startup, so balances that
+ * drifted while the application was down are corrected. Runs once all beans are created and before the
+ * web server starts, so no request reads or changes a balance that is about to be rebuilt.
+ */
+@Component
+public class LedgerRecovery implements SmartInitializingSingleton {
+
+    private final LedgerService ledgerService;
+    private final LedgerProperties ledgerProperties;
+
+    public LedgerRecovery(LedgerService ledgerService, LedgerProperties ledgerProperties) {
+        this.ledgerService = ledgerService;
+        this.ledgerProperties = ledgerProperties;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (ledgerProperties.isEnabled()) {
+            ledgerService.rebuildBalances();
+        }
+    }
+}
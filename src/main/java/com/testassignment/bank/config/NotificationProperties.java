@@ -0,0 +1,40 @@
+package com.testassignment.bank.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "bank.notification")
+public class NotificationProperties {
+
+    // When disabled, events are discarded without being queued.
+    private boolean enabled = true;
+
+    // Which NotificationSink delivers the events: http, virtual-thread or in-memory.
+    private String sink = "http";
+
+    // Placeholders are resolved on every send, so the url may reference ${local.server.port}.
+    private String url = "https://httpstat.us/200";
+
+    private int queueCapacity = 10_000;
+    private int batchSize = 100;
+
+    private int maxRetries = 3;
+    private Duration retryBackoff = Duration.ofMillis(200);
+
+    private Sink http = new Sink();
+    private Sink virtualThread = new Sink();
+    private Sink inMemory = new Sink();
+
+    @Data
+    public static class Sink {
+
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration requestTimeout = Duration.ofSeconds(5);
+
+        // Maximum number of batches the sink may have in flight at once.
+        private int maxConcurrency = 256;
+    }
+}
@@ -0,0 +1,47 @@
+package com.testassignment.bank.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testassignment.bank.notification.HttpClientNotificationSink;
+import com.testassignment.bank.notification.InMemoryNotificationSink;
+import com.testassignment.bank.notification.NotificationSink;
+import com.testassignment.bank.notification.VirtualThreadNotificationSink;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.net.http.HttpClient;
+
+@Configuration
+public class NotificationSinkConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "bank.notification.sink", havingValue = "http", matchIfMissing = true)
+    public NotificationSink httpClientNotificationSink(ObjectMapper objectMapper, Environment environment, NotificationProperties properties) {
+        NotificationProperties.Sink sinkProperties = properties.getHttp();
+        return new HttpClientNotificationSink(newHttpClient(sinkProperties), objectMapper, environment, properties, sinkProperties);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "bank.notification.sink", havingValue = "virtual-thread")
+    public NotificationSink virtualThreadNotificationSink(ObjectMapper objectMapper, Environment environment, NotificationProperties properties) {
+        NotificationProperties.Sink sinkProperties = properties.getVirtualThread();
+        HttpClient httpClient = newHttpClient(sinkProperties);
+        HttpClientNotificationSink requestFactory = new HttpClientNotificationSink(httpClient, objectMapper, environment, properties, sinkProperties);
+        return new VirtualThreadNotificationSink(requestFactory, httpClient, sinkProperties.getMaxConcurrency());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "bank.notification.sink", havingValue = "in-memory")
+    public NotificationSink inMemoryNotificationSink(NotificationProperties properties) {
+        return new InMemoryNotificationSink(properties.getInMemory().getMaxConcurrency());
+    }
+
+    // One client per sink, so keep-alive connections to the receiver are reused across batches.
+    private static HttpClient newHttpClient(NotificationProperties.Sink sinkProperties) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(sinkProperties.getConnectTimeout())
+                .build();
+    }
+}
@@ -0,0 +1,78 @@
+package com.testassignment.bank.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testassignment.bank.dto.ConversionRateRequestDTO;
+import com.testassignment.bank.dto.RateImportResponseDTO;
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.service.RateImportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Imports rate versions from the file set in bank.rates.import-file on startup. JSON files contain an
+ * array of rate objects as accepted by POST /rates/batch; CSV files have the columns
+ * fromCurrency,toCurrency,rate[,effectiveFrom] with an optional header line.
+ */
+@Slf4j
+@Component
+@Order(1)
+@ConditionalOnProperty(name = "bank.rates.import-file")
+public class RateFileImporter implements CommandLineRunner {
+
+    private final RateImportService rateImportService;
+    private final ObjectMapper objectMapper;
+    private final Path file;
+
+    public RateFileImporter(RateImportService rateImportService, ObjectMapper objectMapper, @Value("${bank.rates.import-file}") Path file) {
+        this.rateImportService = rateImportService;
+        this.objectMapper = objectMapper;
+        this.file = file;
+    }
+
+    @Override
+    public void run(String... args) throws IOException {
+        List<ConversionRateRequestDTO> rates = file.toString().endsWith(".json") ? readJson() : readCsv();
+        RateImportResponseDTO response = rateImportService.importRates(rates);
+        log.info("Imported {} conversion rates from {}", response.getImported(), file);
+    }
+
+    private List<ConversionRateRequestDTO> readJson() throws IOException {
+        return objectMapper.readValue(file.toFile(), new TypeReference<>() {});
+    }
+
+    private List<ConversionRateRequestDTO> readCsv() throws IOException {
+        List<ConversionRateRequestDTO> rates = new ArrayList<>();
+        for (String line : Files.readAllLines(file)) {
+            String[] columns = line.trim().split("\\s*,\\s*");
+            if (columns[0].isEmpty() || columns[0].equalsIgnoreCase("fromCurrency")) {
+                continue;
+            }
+            if (columns.length < 3) {
+                throw new IllegalArgumentException("Invalid rate line: " + line);
+            }
+
+            ConversionRateRequestDTO rate = new ConversionRateRequestDTO();
+            rate.setFromCurrency(CurrencyEnum.valueOf(columns[0]));
+            rate.setToCurrency(CurrencyEnum.valueOf(columns[1]));
+            rate.setRate(new BigDecimal(columns[2]));
+            if (columns.length > 3 && !columns[3].isEmpty()) {
+                rate.setEffectiveFrom(LocalDateTime.parse(columns[3]));
+            }
+            rates.add(rate);
+        }
+        return rates;
+    }
+}
@@ -0,0 +1,25 @@
+package com.testassignment.bank.config;
+
+import com.testassignment.bank.enums.CurrencyEnum;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "bank.rates")
+public class RateProperties {
+
+    /**
+     * How rates for pairs without a direct rate are derived:
+     * none - only direct rates are used,
+     * base - through the base currency (from -> base -> to),
+     * shortest-path - through the fewest intermediate currencies that have rates, taking the path with the
+     * best rate when several are equally short.
+     */
+    private CrossRateMode crossRateMode = CrossRateMode.BASE;
+
+    private CurrencyEnum baseCurrency = CurrencyEnum.EUR;
+
+    public enum CrossRateMode {
+        NONE, BASE, SHORTEST_PATH
+    }
+}
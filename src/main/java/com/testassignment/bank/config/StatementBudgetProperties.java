@@ -0,0 +1,37 @@
+package com.testassignment.bank.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "bank.statement-budget")
+public class StatementBudgetProperties {
+
+    private Mode mode = Mode.OFF;
+
+    // Most SQL statements a request to an endpoint may run, by URI pattern,
+    // e.g. bank.statement-budget.endpoints.[/account/{accountId}/balance]=2.
+    private Map<String, Integer> endpoints = new HashMap<>();
+
+    // Applies to endpoints without an entry of their own; none if not set.
+    private Integer defaultBudget;
+
+    // A request that runs the same statement this many times is logged as a likely N+1 query.
+    private int repeatedStatementThreshold = 5;
+
+    public Integer budgetFor(String uri) {
+        return endpoints.getOrDefault(uri, defaultBudget);
+    }
+
+    public enum Mode {
+        // Statements are only counted.
+        OFF,
+        // Requests over budget and repeated statements are logged.
+        LOG,
+        // Requests over budget fail once they have completed. Meant for tests, as the statements have already run.
+        FAIL
+    }
+}
@@ -0,0 +1,31 @@
+package com.testassignment.bank.config;
+
+import com.testassignment.bank.metrics.StatementCounter;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.BeanUtils;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ClassUtils;
+
+@Configuration
+public class StatementCountConfig {
+
+    // Installs the counter as Hibernate's statement inspector, keeping one set through
+    // spring.jpa.properties behind it.
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer() {
+        return properties -> {
+            Object configured = properties.get(AvailableSettings.STATEMENT_INSPECTOR);
+            StatementInspector delegate = null;
+            if (configured instanceof StatementInspector inspector) {
+                delegate = inspector;
+            } else if (configured != null) {
+                Class<?> type = ClassUtils.resolveClassName(configured.toString(), StatementCountConfig.class.getClassLoader());
+                delegate = (StatementInspector) BeanUtils.instantiateClass(type);
+            }
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCounter(delegate));
+        };
+    }
+}
@@ -1,71 +1,152 @@
 package com.testassignment.bank.controller;
 
 import com.testassignment.bank.dto.AccountDTO;
+import com.testassignment.bank.dto.BatchRequestDTO;
+import com.testassignment.bank.dto.BatchResponseDTO;
 import com.testassignment.bank.dto.CreateAccountRequestDTO;
 import com.testassignment.bank.dto.ExchangeRequestDTO;
 import com.testassignment.bank.dto.MoneyRequestDTO;
+import com.testassignment.bank.dto.TransactionHistoryRequestDTO;
+import com.testassignment.bank.dto.TransferRequestDTO;
 import com.testassignment.bank.entity.Transaction;
 import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.enums.ExportFormat;
+import com.testassignment.bank.service.AccountMutationExecutor;
 import com.testassignment.bank.service.AccountService;
+import com.testassignment.bank.service.BatchOperationService;
+import com.testassignment.bank.service.DepositGroupCommitter;
+import com.testassignment.bank.service.IdempotencyService;
+import com.testassignment.bank.service.TransactionFilter;
+import com.testassignment.bank.service.TransactionExportService;
+import com.testassignment.bank.service.TransactionPage;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/account")
 public class AccountController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final AccountService accountService;
+    private final AccountMutationExecutor accountMutationExecutor;
+    private final TransactionExportService transactionExportService;
+    private final DepositGroupCommitter depositGroupCommitter;
+    private final BatchOperationService batchOperationService;
+    private final IdempotencyService idempotencyService;
 
     // Constructor injection for AccountService
-    public AccountController(AccountService accountService) {
+    public AccountController(AccountService accountService, AccountMutationExecutor accountMutationExecutor,
+                             TransactionExportService transactionExportService, DepositGroupCommitter depositGroupCommitter,
+                             BatchOperationService batchOperationService, IdempotencyService idempotencyService) {
         this.accountService = accountService;
+        this.accountMutationExecutor = accountMutationExecutor;
+        this.transactionExportService = transactionExportService;
+        this.depositGroupCommitter = depositGroupCommitter;
+        this.batchOperationService = batchOperationService;
+        this.idempotencyService = idempotencyService;
     }
 
     /**
      * Endpoint to create a new account.
      * @param request DTO containing the account number.
+     * @param idempotencyKey Optional key; a repeated request with the same key gets the first response back.
      * @return AccountDTO containing the details of the created account.
      */
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public AccountDTO createAccount(@Valid @RequestBody CreateAccountRequestDTO request) {
-        return accountService.createAccount(request.getAccountNumber());
+    public AccountDTO createAccount(@Valid @RequestBody CreateAccountRequestDTO request,
+                                    @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "POST /account " + request, AccountDTO.class,
+                Supplier::get, () -> accountService.createAccount(request.getAccountNumber()));
     }
 
     /**
      * Endpoint to deposit money into an account.
      * @param accountId ID of the account.
      * @param request DTO containing the currency and amount to deposit.
+     * @param idempotencyKey Optional key; a repeated request with the same key gets the first response back.
      * @return AccountDTO containing the updated account details.
      */
     @PostMapping("/{accountId}/deposit")
-    public AccountDTO addMoney(@PathVariable Long accountId, @Valid @RequestBody MoneyRequestDTO request) {
-        return accountService.depositMoney(accountId, request.getCurrency(), BigDecimal.valueOf(request.getAmount()));
+    public AccountDTO addMoney(@PathVariable Long accountId, @Valid @RequestBody MoneyRequestDTO request,
+                               @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return depositGroupCommitter.deposit(accountId, request.getCurrency(), BigDecimal.valueOf(request.getAmount()));
+        }
+        // Not group committed: the key has to be stored in the deposit's own transaction.
+        return idempotencyService.execute(idempotencyKey, "POST /account/" + accountId + "/deposit " + request, AccountDTO.class,
+                deposit -> accountMutationExecutor.execute(accountId, deposit),
+                () -> accountService.depositMoney(accountId, request.getCurrency(), BigDecimal.valueOf(request.getAmount())));
     }
 
     /**
      * Endpoint to debit money from an account.
      * @param accountId ID of the account.
      * @param request DTO containing the currency and amount to debit.
+     * @param idempotencyKey Optional key; a repeated request with the same key gets the first response back.
      * @return AccountDTO containing the updated account details.
      */
     @PostMapping("/{accountId}/debit")
-    public AccountDTO debitMoney(@PathVariable Long accountId, @Valid @RequestBody MoneyRequestDTO request) {
-        return accountService.debitMoney(accountId, request.getCurrency(), BigDecimal.valueOf(request.getAmount()));
+    public AccountDTO debitMoney(@PathVariable Long accountId, @Valid @RequestBody MoneyRequestDTO request,
+                                 @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "POST /account/" + accountId + "/debit " + request, AccountDTO.class,
+                debit -> accountMutationExecutor.execute(accountId, debit),
+                () -> accountService.debitMoney(accountId, request.getCurrency(), BigDecimal.valueOf(request.getAmount())));
+    }
+
+    /**
+     * Endpoint to transfer money to another account.
+     * @param accountId ID of the account the money is taken from.
+     * @param request DTO containing the receiving account, the currencies and the amount to transfer.
+     * @param idempotencyKey Optional key; a repeated request with the same key gets the first response back.
+     * @return AccountDTO containing the updated details of the sending account.
+     */
+    @PostMapping("/{accountId}/transfer")
+    public AccountDTO transferMoney(@PathVariable Long accountId, @Valid @RequestBody TransferRequestDTO request,
+                                    @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        CurrencyEnum toCurrency = request.getToCurrency() != null ? request.getToCurrency() : request.getCurrency();
+        return idempotencyService.execute(idempotencyKey, "POST /account/" + accountId + "/transfer " + request, AccountDTO.class,
+                transfer -> accountMutationExecutor.execute(accountId, request.getToAccountId(), transfer),
+                () -> accountService.transferMoney(accountId, request.getToAccountId(), request.getCurrency(), toCurrency,
+                        BigDecimal.valueOf(request.getAmount())));
+    }
+
+    /**
+     * Endpoint to apply many deposits, debits and exchanges, possibly across accounts, in one request.
+     * @param request DTO containing the operations.
+     * @return One result per operation in request order; rejected operations don't affect the others.
+     */
+    @PostMapping("/batch")
+    public BatchResponseDTO applyBatch(@Valid @RequestBody BatchRequestDTO request) {
+        return batchOperationService.apply(request.getOperations());
     }
 
     /**
      * Endpoint to get the balance of an account.
      * @param accountId ID of the account.
+     * @param asOf Optional point in time to get the balance at instead of the current balance.
      * @return Map containing the balances of the account in different currencies.
      */
     @GetMapping("/{accountId}/balance")
-    public Map<CurrencyEnum, BigDecimal> getAccountBalance(@PathVariable Long accountId) {
+    public Map<CurrencyEnum, BigDecimal> getAccountBalance(@PathVariable Long accountId,
+                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        if (asOf != null) {
+            return accountService.getAccountBalanceAt(accountId, asOf);
+        }
         return accountService.getAccountBalance(accountId);
     }
 
@@ -73,20 +154,54 @@ public class AccountController {
      * Endpoint to exchange currency in an account.
      * @param accountId ID of the account.
      * @param request DTO containing the currencies and amount to exchange.
+     * @param idempotencyKey Optional key; a repeated request with the same key gets the first response back.
      * @return AccountDTO containing the updated account details.
      */
     @PostMapping("/{accountId}/exchange")
-    public AccountDTO exchangeCurrency(@PathVariable Long accountId, @Valid @RequestBody ExchangeRequestDTO request) {
-        return accountService.exchangeCurrency(accountId, request.getFromCurrency(), request.getToCurrency(), BigDecimal.valueOf(request.getAmount()));
+    public AccountDTO exchangeCurrency(@PathVariable Long accountId, @Valid @RequestBody ExchangeRequestDTO request,
+                                       @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "POST /account/" + accountId + "/exchange " + request, AccountDTO.class,
+                exchange -> accountMutationExecutor.execute(accountId, exchange),
+                () -> accountService.exchangeCurrency(accountId, request.getFromCurrency(), request.getToCurrency(), BigDecimal.valueOf(request.getAmount())));
     }
 
     /**
-     * Endpoint to get the transaction history of an account.
+     * Endpoint to get the transaction history of an account, one page at a time.
      * @param accountId ID of the account.
-     * @return List of transactions for the account.
+     * @param request Optional filters, page size and the cursor returned with the previous page.
+     * @return Transactions in chronological order; the X-Next-Cursor header is set if more follow.
      */
     @GetMapping("/{accountId}/transactions")
-    public List<Transaction> getAccountTransactionHistory(@PathVariable Long accountId) {
-        return accountService.getAccountTransactionHistory(accountId);
+    public ResponseEntity<List<Transaction>> getAccountTransactionHistory(@PathVariable Long accountId, @Valid TransactionHistoryRequestDTO request) {
+        TransactionFilter filter = new TransactionFilter(request.getCurrency(), request.getType(), request.getFrom(), request.getTo());
+        TransactionPage page = accountService.getAccountTransactionHistory(accountId, filter, request.getCursor(), request.getLimit());
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getTransactions());
+    }
+
+    /**
+     * Endpoint to export the full transaction history of an account.
+     * @param accountId ID of the account.
+     * @param format ndjson (one JSON object per line) or csv.
+     * @param request Optional filters; limit and cursor are ignored.
+     * @return The transactions in chronological order, streamed as they are read.
+     */
+    @GetMapping("/{accountId}/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactionHistory(@PathVariable Long accountId,
+                                                                          @RequestParam(defaultValue = "ndjson") String format,
+                                                                          @Valid TransactionHistoryRequestDTO request) {
+        ExportFormat exportFormat = ExportFormat.fromString(format);
+        TransactionFilter filter = new TransactionFilter(request.getCurrency(), request.getType(), request.getFrom(), request.getTo());
+        transactionExportService.verifyAccountExists(accountId);
+
+        StreamingResponseBody body = outputStream -> transactionExportService.export(accountId, filter, exportFormat, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions-" + accountId + "." + exportFormat.getFileExtension() + "\"")
+                .body(body);
     }
 }
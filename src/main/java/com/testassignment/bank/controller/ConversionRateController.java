@@ -0,0 +1,65 @@
+package com.testassignment.bank.controller;
+
+import com.testassignment.bank.dto.ConversionRateDTO;
+import com.testassignment.bank.dto.ConversionRateRequestDTO;
+import com.testassignment.bank.dto.RateImportRequestDTO;
+import com.testassignment.bank.dto.RateImportResponseDTO;
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.service.CurrencyConversionService;
+import com.testassignment.bank.service.RateImportService;
+import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/rates")
+public class ConversionRateController {
+
+    private final CurrencyConversionService currencyConversionService;
+    private final RateImportService rateImportService;
+
+    // Constructor injection for CurrencyConversionService and RateImportService
+    public ConversionRateController(CurrencyConversionService currencyConversionService, RateImportService rateImportService) {
+        this.currencyConversionService = currencyConversionService;
+        this.rateImportService = rateImportService;
+    }
+
+    /**
+     * Endpoint to append a new version of a conversion rate.
+     * @param request DTO containing the currency pair, the rate and optionally when it becomes effective.
+     * @return ConversionRateDTO containing the stored rate version.
+     */
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public ConversionRateDTO addRate(@Valid @RequestBody ConversionRateRequestDTO request) {
+        return ConversionRateDTO.fromEntity(currencyConversionService.addRate(
+                request.getFromCurrency(), request.getToCurrency(), request.getRate(), request.getEffectiveFrom()));
+    }
+
+    /**
+     * Endpoint to import many rate versions in one transaction.
+     * @param request DTO containing the rate versions to append.
+     * @return RateImportResponseDTO containing the number of imported rates.
+     */
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public RateImportResponseDTO importRates(@Valid @RequestBody RateImportRequestDTO request) {
+        return rateImportService.importRates(request.getRates());
+    }
+
+    /**
+     * Endpoint to get the rate version in effect for a currency pair at a point in time.
+     * @param fromCurrency Currency to convert from.
+     * @param toCurrency Currency to convert to.
+     * @param at Point in time, defaults to now.
+     * @return ConversionRateDTO containing the rate version in effect.
+     */
+    @GetMapping("/{fromCurrency}/{toCurrency}")
+    public ConversionRateDTO getRate(@PathVariable CurrencyEnum fromCurrency, @PathVariable CurrencyEnum toCurrency,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ConversionRateDTO.fromEntity(currencyConversionService.getRateAt(fromCurrency, toCurrency, at != null ? at : LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,41 @@
+package com.testassignment.bank.controller;
+
+import com.testassignment.bank.dto.LedgerSnapshotDTO;
+import com.testassignment.bank.dto.LedgerVerificationDTO;
+import com.testassignment.bank.service.LedgerService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/ledger")
+public class LedgerController {
+
+    private final LedgerService ledgerService;
+
+    public LedgerController(LedgerService ledgerService) {
+        this.ledgerService = ledgerService;
+    }
+
+    /**
+     * Endpoint to snapshot the ledger balances instead of waiting for the scheduled snapshot.
+     * @param at Optional cutoff, e.g. to backfill end-of-day snapshots; defaults to settle-time ago.
+     * @return LedgerSnapshotDTO containing the snapshot cutoff and size.
+     */
+    @PostMapping("/snapshots")
+    @ResponseStatus(HttpStatus.CREATED)
+    public LedgerSnapshotDTO takeSnapshot(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return at != null ? ledgerService.takeSnapshot(at) : ledgerService.takeSnapshot();
+    }
+
+    /**
+     * Endpoint to check every account balance against the transaction log.
+     * @return LedgerVerificationDTO containing the balances that differ from the log.
+     */
+    @GetMapping("/verify")
+    public LedgerVerificationDTO verifyBalances() {
+        return ledgerService.verifyBalances();
+    }
+}
@@ -0,0 +1,37 @@
+package com.testassignment.bank.controller;
+
+import com.testassignment.bank.notification.NotificationEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Local stand-in for the external notification receiver, used by tests instead of a remote service.
+ */
+@RestController
+@RequestMapping("/notifications/stub")
+@ConditionalOnProperty(name = "bank.notification.stub.enabled", havingValue = "true")
+public class NotificationStubController {
+
+    private final List<NotificationEvent> received = new CopyOnWriteArrayList<>();
+
+    /**
+     * Endpoint receiving a batch of notification events.
+     * @param events Delivered events.
+     * @return Plain acknowledgement.
+     */
+    @PostMapping
+    public String receive(@RequestBody List<NotificationEvent> events) {
+        received.addAll(events);
+        return "OK";
+    }
+
+    public List<NotificationEvent> getReceived() {
+        return received;
+    }
+}
@@ -1,25 +1,215 @@
 package com.testassignment.bank.dao;
 
+import com.testassignment.bank.cache.AccountBalanceCache;
+import com.testassignment.bank.config.AccountProperties;
 import com.testassignment.bank.entity.Account;
+import com.testassignment.bank.entity.AccountBalance;
+import com.testassignment.bank.entity.AccountBalanceId;
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.metrics.DbOperation;
+import com.testassignment.bank.metrics.OperationMetrics;
+import com.testassignment.bank.repository.AccountBalanceRepository;
 import com.testassignment.bank.repository.AccountRepository;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
 @Component
 public class AccountDAO {
 
     private final AccountRepository accountRepository;
+    private final AccountBalanceRepository accountBalanceRepository;
+    private final AccountProperties accountProperties;
+    private final AccountBalanceCache accountBalanceCache;
+    private final OperationMetrics operationMetrics;
 
-    public AccountDAO(AccountRepository accountRepository) {
+    public AccountDAO(AccountRepository accountRepository, AccountBalanceRepository accountBalanceRepository, AccountProperties accountProperties,
+                      AccountBalanceCache accountBalanceCache, OperationMetrics operationMetrics) {
         this.accountRepository = accountRepository;
+        this.accountBalanceRepository = accountBalanceRepository;
+        this.accountProperties = accountProperties;
+        this.accountBalanceCache = accountBalanceCache;
+        this.operationMetrics = operationMetrics;
     }
 
+    /**
+     * Saves a new account together with one balance row per entry of its balances map.
+     */
     public Account save(Account account) {
-        return accountRepository.save(account);
+        Account savedAccount = accountRepository.save(account);
+
+        List<AccountBalance> rows = account.getBalances().entrySet().stream()
+                .map(entry -> new AccountBalance(savedAccount.getId(), entry.getKey(), entry.getValue()))
+                .toList();
+        accountBalanceRepository.saveAll(rows);
+
+        savedAccount.setBalances(account.getBalances());
+        return savedAccount;
     }
 
     public Optional<Account> findById(Long id) {
-        return accountRepository.findById(id);
+        return operationMetrics.time(DbOperation.ACCOUNT_FIND, () -> accountRepository.findById(id).map(account -> {
+            account.setBalances(findBalances(id));
+            return account;
+        }));
+    }
+
+    /**
+     * Like {@link #findById}, but reads the account and its balances in a single query. Meant for reading an
+     * account back after changing one of its balances, when it has at least one balance row.
+     * @return The account, or empty if it doesn't exist or has no balance rows.
+     */
+    public Optional<Account> findWithBalances(Long id) {
+        return operationMetrics.time(DbOperation.ACCOUNT_FIND, () -> {
+            List<AccountBalanceRepository.AccountBalanceView> rows = accountBalanceRepository.findAccountBalancesByAccountId(id);
+            if (rows.isEmpty()) {
+                return Optional.empty();
+            }
+
+            Account account = new Account();
+            account.setId(id);
+            account.setAccountNumber(rows.get(0).getAccountNumber());
+            Map<CurrencyEnum, BigDecimal> balances = new EnumMap<>(CurrencyEnum.class);
+            for (AccountBalanceRepository.AccountBalanceView row : rows) {
+                balances.put(row.getCurrency(), row.getBalance());
+            }
+            account.setBalances(balances);
+            return Optional.of(account);
+        });
+    }
+
+    /**
+     * Locks the account rows until the transaction ends, one at a time in ascending id order. Every caller
+     * that needs several accounts takes them in the same order, so two of them can't deadlock each other.
+     * @throws NoSuchElementException if one of the accounts doesn't exist.
+     */
+    public void lockForUpdate(Long firstAccountId, Long secondAccountId) {
+        Long lower = Math.min(firstAccountId, secondAccountId);
+        Long upper = Math.max(firstAccountId, secondAccountId);
+        operationMetrics.time(DbOperation.ACCOUNT_LOCK, () -> {
+            accountRepository.findByIdForUpdate(lower).orElseThrow(() -> new NoSuchElementException("No value present"));
+            if (!upper.equals(lower)) {
+                accountRepository.findByIdForUpdate(upper).orElseThrow(() -> new NoSuchElementException("No value present"));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Locks the rows of any number of accounts until the transaction ends, in ascending id order like
+     * {@link #lockForUpdate(Long, Long)}, and loads their balances.
+     * @return The accounts that exist by id, in ascending order; accounts that don't exist are left out.
+     */
+    public Map<Long, Account> lockForUpdate(Collection<Long> accountIds) {
+        List<Long> ids = accountIds.stream().distinct().sorted().toList();
+        return operationMetrics.time(DbOperation.ACCOUNT_LOCK, () -> {
+            Map<Long, Account> accounts = new LinkedHashMap<>();
+            for (Long id : ids) {
+                accountRepository.findByIdForUpdate(id).ifPresent(account -> {
+                    account.setBalances(findBalances(id));
+                    accounts.put(id, account);
+                });
+            }
+            return accounts;
+        });
+    }
+
+    /**
+     * Adds delta to the balance of one currency, either atomically with a single conditional UPDATE or
+     * optimistically, depending on bank.account.concurrency-mode. The account is not loaded first; only
+     * when no balance row matched is it checked that it exists.
+     * @return The new balance, or empty if a debit would make the balance negative.
+     * @throws NoSuchElementException if the account doesn't exist.
+     */
+    public Optional<BigDecimal> addToBalance(Long accountId, CurrencyEnum currency, BigDecimal delta) {
+        accountBalanceCache.evictAfterCompletion(accountId);
+        return operationMetrics.time(DbOperation.BALANCE_UPDATE, () -> updateBalance(accountId, currency, delta));
+    }
+
+    /**
+     * Debits one currency of an account and credits another, as an exchange does. The two balance rows are
+     * updated in currency order, so opposite exchanges on the same account lock them in the same order and
+     * can't deadlock each other. If the debit would overdraw the account, a credit already applied is taken
+     * back, so a rejected exchange changes nothing even if its transaction goes on.
+     * @return The new balances of both currencies, or empty if the debit would make its balance negative.
+     * @throws NoSuchElementException if the account doesn't exist.
+     */
+    public Optional<Map<CurrencyEnum, BigDecimal>> exchangeBalances(Long accountId, CurrencyEnum fromCurrency, BigDecimal debit,
+                                                                    CurrencyEnum toCurrency, BigDecimal credit) {
+        Map<CurrencyEnum, BigDecimal> balances = new EnumMap<>(CurrencyEnum.class);
+        if (fromCurrency.compareTo(toCurrency) < 0) {
+            Optional<BigDecimal> fromBalance = addToBalance(accountId, fromCurrency, debit.negate());
+            if (fromBalance.isEmpty()) {
+                return Optional.empty();
+            }
+            balances.put(fromCurrency, fromBalance.get());
+            balances.put(toCurrency, addToBalance(accountId, toCurrency, credit).orElseThrow());
+        } else {
+            BigDecimal toBalance = addToBalance(accountId, toCurrency, credit).orElseThrow();
+            Optional<BigDecimal> fromBalance = addToBalance(accountId, fromCurrency, debit.negate());
+            if (fromBalance.isEmpty()) {
+                addToBalance(accountId, toCurrency, credit.negate()).orElseThrow();
+                return Optional.empty();
+            }
+            balances.put(toCurrency, toBalance);
+            balances.put(fromCurrency, fromBalance.get());
+        }
+        return Optional.of(balances);
+    }
+
+    private Optional<BigDecimal> updateBalance(Long accountId, CurrencyEnum currency, BigDecimal delta) {
+        if (accountProperties.getConcurrencyMode() == AccountProperties.ConcurrencyMode.OPTIMISTIC) {
+            return addToBalanceOptimistically(accountId, currency, delta);
+        }
+
+        Optional<BigDecimal> newBalance = accountBalanceRepository.addToBalance(accountId, currency.name(), delta);
+        if (newBalance.isPresent()) {
+            return newBalance;
+        }
+        return addToMissingBalance(accountId, currency, delta);
+    }
+
+    // The versioned UPDATE is issued when the transaction flushes; if another request changed the row
+    // in the meantime it fails with an OptimisticLockingFailureException and the transaction rolls back.
+    private Optional<BigDecimal> addToBalanceOptimistically(Long accountId, CurrencyEnum currency, BigDecimal delta) {
+        Optional<AccountBalance> row = accountBalanceRepository.findById(new AccountBalanceId(accountId, currency));
+        if (row.isEmpty()) {
+            return addToMissingBalance(accountId, currency, delta);
+        }
+
+        BigDecimal newBalance = row.get().getBalance().add(delta);
+        if (newBalance.signum() < 0) {
+            return Optional.empty();
+        }
+        row.get().setBalance(newBalance);
+        return Optional.of(newBalance);
+    }
+
+    // No balance row matched: the account doesn't exist, a debit would overdraw it, or the currency was
+    // added after the account was created, in which case a credit starts its balance.
+    private Optional<BigDecimal> addToMissingBalance(Long accountId, CurrencyEnum currency, BigDecimal delta) {
+        if (!accountRepository.existsById(accountId)) {
+            throw new NoSuchElementException("No value present");
+        }
+        if (delta.signum() < 0) {
+            return Optional.empty();
+        }
+        accountBalanceRepository.save(new AccountBalance(accountId, currency, delta));
+        return Optional.of(delta);
+    }
+
+    private Map<CurrencyEnum, BigDecimal> findBalances(Long accountId) {
+        Map<CurrencyEnum, BigDecimal> balances = new EnumMap<>(CurrencyEnum.class);
+        for (AccountBalanceRepository.BalanceView row : accountBalanceRepository.findBalancesByAccountId(accountId)) {
+            balances.put(row.getCurrency(), row.getBalance());
+        }
+        return balances;
     }
 }
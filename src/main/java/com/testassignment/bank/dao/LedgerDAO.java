@@ -0,0 +1,173 @@
+package com.testassignment.bank.dao;
+
+import com.testassignment.bank.dto.BalanceMismatchDTO;
+import com.testassignment.bank.enums.CurrencyEnum;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Set-based queries over the transaction log. The ledger balance of an account is its balance in a
+ * snapshot plus the sum of its transactions after the snapshot cutoff, so none of these queries reads
+ * transactions that the snapshot already covers.
+ */
+@Component
+public class LedgerDAO {
+
+    // Stands in for the cutoff when there is no snapshot yet; no snapshot row has it, every transaction is after it.
+    private static final LocalDateTime BEGINNING_OF_LEDGER = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    // Ledger balances per account and currency, with the currency as VARCHAR like in the transaction table.
+    private static final String LEDGER_BALANCES_SQL = "SELECT account_id, currency, SUM(amount) AS balance FROM ("
+            + "SELECT account_id, CAST(currency AS VARCHAR(255)) AS currency, balance AS amount FROM balance_snapshot "
+            + "WHERE cutoff = :snapshotCutoff %s "
+            + "UNION ALL "
+            + "SELECT account_id, currency, amount FROM \"TRANSACTION\" WHERE timestamp > :snapshotCutoff %s"
+            + ") GROUP BY account_id, currency";
+
+    private static final String INSERT_SNAPSHOT_SQL = "INSERT INTO balance_snapshot (cutoff, account_id, currency, balance) "
+            + "SELECT :cutoff, account_id, currency, balance FROM ("
+            + LEDGER_BALANCES_SQL.formatted("", "AND timestamp <= :cutoff")
+            + ") WHERE balance <> 0";
+
+    private static final String REPLAY_LEDGER_SQL = "MERGE INTO account_balance b USING ("
+            + LEDGER_BALANCES_SQL.formatted("", "")
+            + ") l ON b.account_id = l.account_id AND CAST(b.currency AS VARCHAR(255)) = l.currency "
+            + "WHEN MATCHED AND b.balance <> l.balance THEN UPDATE SET balance = l.balance, version = b.version + 1 "
+            + "WHEN NOT MATCHED THEN INSERT (account_id, currency, balance, version) VALUES (l.account_id, l.currency, l.balance, 0)";
+
+    // Balances the ledger has nothing for since it was last zero.
+    private static final String RESET_UNBACKED_BALANCES_SQL = "UPDATE account_balance b SET balance = 0, version = version + 1 "
+            + "WHERE balance <> 0 "
+            + "AND NOT EXISTS (SELECT 1 FROM balance_snapshot s WHERE s.cutoff = :snapshotCutoff "
+            + "AND s.account_id = b.account_id AND s.currency = b.currency) "
+            + "AND NOT EXISTS (SELECT 1 FROM \"TRANSACTION\" t WHERE t.account_id = b.account_id "
+            + "AND t.timestamp > :snapshotCutoff AND t.currency = CAST(b.currency AS VARCHAR(255)))";
+
+    private static final String ACCOUNT_RANGE_LEDGER_SQL =
+            LEDGER_BALANCES_SQL.formatted("AND account_id BETWEEN :fromId AND :toId", "AND account_id BETWEEN :fromId AND :toId");
+
+    private static final String FIND_MISMATCHES_SQL = "SELECT b.account_id, CAST(b.currency AS VARCHAR(255)) AS currency, "
+            + "b.balance, COALESCE(l.balance, 0) AS ledger_balance "
+            + "FROM account_balance b LEFT JOIN (" + ACCOUNT_RANGE_LEDGER_SQL + ") l "
+            + "ON l.account_id = b.account_id AND l.currency = CAST(b.currency AS VARCHAR(255)) "
+            + "WHERE b.account_id BETWEEN :fromId AND :toId AND b.balance <> COALESCE(l.balance, 0) "
+            + "UNION ALL "
+            + "SELECT l.account_id, l.currency, 0, l.balance FROM (" + ACCOUNT_RANGE_LEDGER_SQL + ") l "
+            + "WHERE l.balance <> 0 AND NOT EXISTS (SELECT 1 FROM account_balance b "
+            + "WHERE b.account_id = l.account_id AND CAST(b.currency AS VARCHAR(255)) = l.currency)";
+
+    // One account's balances from a snapshot, moved to another point in time by the transactions in between.
+    // With sign -1 the transactions are taken back out, for a snapshot after that point.
+    private static final String ACCOUNT_BALANCES_SQL = "SELECT currency, SUM(amount) AS balance FROM ("
+            + "SELECT CAST(currency AS VARCHAR(255)) AS currency, balance AS amount FROM balance_snapshot "
+            + "WHERE account_id = :accountId AND cutoff = :snapshotCutoff "
+            + "UNION ALL "
+            + "SELECT currency, amount * :sign FROM \"TRANSACTION\" "
+            + "WHERE account_id = :accountId AND timestamp > :lower AND timestamp <= :upper"
+            + ") GROUP BY currency";
+
+    // Snapshots whose cutoff isn't a midnight, older than the newest :keep of them.
+    private static final String PURGE_INTERVAL_SNAPSHOTS_SQL = "DELETE FROM balance_snapshot "
+            + "WHERE CAST(cutoff AS TIME) <> TIME '00:00:00' AND cutoff < ("
+            + "SELECT MIN(cutoff) FROM (SELECT DISTINCT cutoff FROM balance_snapshot WHERE CAST(cutoff AS TIME) <> TIME '00:00:00' "
+            + "ORDER BY cutoff DESC LIMIT :keep))";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public LedgerDAO(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<LocalDateTime> findLatestSnapshotCutoff() {
+        return Optional.ofNullable(jdbcTemplate.queryForObject(
+                "SELECT MAX(cutoff) FROM balance_snapshot", new MapSqlParameterSource(), LocalDateTime.class));
+    }
+
+    public Optional<LocalDateTime> findSnapshotCutoffAtOrBefore(LocalDateTime time) {
+        return Optional.ofNullable(jdbcTemplate.queryForObject("SELECT MAX(cutoff) FROM balance_snapshot WHERE cutoff <= :time",
+                new MapSqlParameterSource("time", time), LocalDateTime.class));
+    }
+
+    public Optional<LocalDateTime> findSnapshotCutoffAfter(LocalDateTime time) {
+        return Optional.ofNullable(jdbcTemplate.queryForObject("SELECT MIN(cutoff) FROM balance_snapshot WHERE cutoff > :time",
+                new MapSqlParameterSource("time", time), LocalDateTime.class));
+    }
+
+    public int countSnapshotBalances(LocalDateTime cutoff) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM balance_snapshot WHERE cutoff = :cutoff",
+                new MapSqlParameterSource("cutoff", cutoff), Integer.class);
+    }
+
+    /**
+     * Stores the ledger balances as of the cutoff, computed from the previous snapshot and the transactions since.
+     * @return Number of balances stored.
+     */
+    public int insertSnapshot(LocalDateTime cutoff, LocalDateTime previousCutoff) {
+        return jdbcTemplate.update(INSERT_SNAPSHOT_SQL, snapshotParameters(previousCutoff).addValue("cutoff", cutoff));
+    }
+
+    /**
+     * Deletes all but the newest interval snapshots. Every snapshot holds complete balances, so the remaining
+     * ones don't depend on the deleted ones.
+     * @param keep Number of snapshots with a cutoff other than midnight to keep, at least one.
+     * @return Number of balances deleted.
+     */
+    public int purgeIntervalSnapshots(int keep) {
+        return jdbcTemplate.update(PURGE_INTERVAL_SNAPSHOTS_SQL, new MapSqlParameterSource("keep", Math.max(keep, 1)));
+    }
+
+    /**
+     * Sets every account balance that differs from its ledger balance to the ledger balance.
+     * @return Number of balances changed.
+     */
+    public int replayLedger(LocalDateTime snapshotCutoff) {
+        MapSqlParameterSource parameters = snapshotParameters(snapshotCutoff);
+        return jdbcTemplate.update(REPLAY_LEDGER_SQL, parameters) + jdbcTemplate.update(RESET_UNBACKED_BALANCES_SQL, parameters);
+    }
+
+    public Optional<long[]> findAccountIdRange() {
+        return jdbcTemplate.query("SELECT MIN(id), MAX(id) FROM account", rs -> {
+            rs.next();
+            long min = rs.getLong(1);
+            return rs.wasNull() ? Optional.empty() : Optional.of(new long[]{min, rs.getLong(2)});
+        });
+    }
+
+    public List<BalanceMismatchDTO> findMismatches(LocalDateTime snapshotCutoff, long fromId, long toId) {
+        MapSqlParameterSource parameters = snapshotParameters(snapshotCutoff).addValue("fromId", fromId).addValue("toId", toId);
+        return jdbcTemplate.query(FIND_MISMATCHES_SQL, parameters, (rs, rowNum) -> new BalanceMismatchDTO(
+                rs.getLong("account_id"), CurrencyEnum.valueOf(rs.getString("currency")),
+                rs.getBigDecimal("balance"), rs.getBigDecimal("ledger_balance")));
+    }
+
+    /**
+     * @param snapshotCutoff Snapshot to start from, null to sum the account's transactions from the beginning.
+     * @return The account's non-zero balances as of the given time, from the snapshot plus or minus the transactions in between.
+     */
+    public Map<CurrencyEnum, BigDecimal> findAccountBalancesAt(Long accountId, LocalDateTime snapshotCutoff, LocalDateTime time) {
+        MapSqlParameterSource parameters = snapshotParameters(snapshotCutoff).addValue("accountId", accountId);
+        if (snapshotCutoff == null || !snapshotCutoff.isAfter(time)) {
+            parameters.addValue("sign", 1).addValue("lower", parameters.getValue("snapshotCutoff")).addValue("upper", time);
+        } else {
+            parameters.addValue("sign", -1).addValue("lower", time).addValue("upper", snapshotCutoff);
+        }
+
+        Map<CurrencyEnum, BigDecimal> balances = new EnumMap<>(CurrencyEnum.class);
+        jdbcTemplate.query(ACCOUNT_BALANCES_SQL, parameters, rs -> {
+            balances.put(CurrencyEnum.valueOf(rs.getString("currency")), rs.getBigDecimal("balance"));
+        });
+        return balances;
+    }
+
+    private static MapSqlParameterSource snapshotParameters(LocalDateTime snapshotCutoff) {
+        return new MapSqlParameterSource("snapshotCutoff", snapshotCutoff != null ? snapshotCutoff : BEGINNING_OF_LEDGER);
+    }
+}
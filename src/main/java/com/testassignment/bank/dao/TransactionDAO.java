@@ -1,25 +1,53 @@
 package com.testassignment.bank.dao;
 
 import com.testassignment.bank.entity.Transaction;
+import com.testassignment.bank.enums.TransactionType;
+import com.testassignment.bank.metrics.DbOperation;
+import com.testassignment.bank.metrics.OperationMetrics;
 import com.testassignment.bank.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Component
 public class TransactionDAO {
 
     private final TransactionRepository transactionRepository;
+    private final EntityManager entityManager;
+    private final OperationMetrics operationMetrics;
 
-    public TransactionDAO(TransactionRepository transactionRepository) {
+    public TransactionDAO(TransactionRepository transactionRepository, EntityManager entityManager, OperationMetrics operationMetrics) {
         this.transactionRepository = transactionRepository;
+        this.entityManager = entityManager;
+        this.operationMetrics = operationMetrics;
     }
 
     public void save(Transaction transaction) {
         transactionRepository.save(transaction);
     }
 
-    public List<Transaction> findByAccountId(Long accountId) {
-        return transactionRepository.findByAccountId(accountId);
+    public void saveAll(List<Transaction> transactions) {
+        transactionRepository.saveAll(transactions);
+    }
+
+    public List<Transaction> findPage(Long accountId, LocalDateTime lower, LocalDateTime upper, LocalDateTime afterTimestamp, Long afterId,
+                                      String currency, TransactionType type, int limit) {
+        return operationMetrics.time(DbOperation.TRANSACTION_PAGE,
+                () -> transactionRepository.findPage(accountId, lower, upper, afterTimestamp, afterId, currency, type, Limit.of(limit)));
+    }
+
+    public Stream<Transaction> streamAll(Long accountId, LocalDateTime lower, LocalDateTime upper, String currency, TransactionType type) {
+        return transactionRepository.streamAll(accountId, lower, upper, currency, type);
+    }
+
+    /**
+     * Removes a transaction from the persistence context, so reading a long stream doesn't keep every row in memory.
+     */
+    public void detach(Transaction transaction) {
+        entityManager.detach(transaction);
     }
 }
@@ -0,0 +1,23 @@
+package com.testassignment.bank.dto;
+
+import com.testassignment.bank.enums.CurrencyEnum;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceMismatchDTO {
+
+    private Long accountId;
+    private CurrencyEnum currency;
+
+    // Balance stored in account_balance.
+    private BigDecimal balance;
+
+    // Balance according to the transaction log.
+    private BigDecimal ledgerBalance;
+}
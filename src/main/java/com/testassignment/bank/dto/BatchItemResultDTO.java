@@ -0,0 +1,40 @@
+package com.testassignment.bank.dto;
+
+import com.testassignment.bank.enums.CurrencyEnum;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Data
+public class BatchItemResultDTO {
+
+    // Position of the operation in the request.
+    private int index;
+    private Long accountId;
+    private boolean success;
+
+    // Balances of the account right after the operation; only set on success.
+    private Map<CurrencyEnum, BigDecimal> balances;
+
+    // Why the operation was rejected; only set on failure.
+    private String error;
+
+    public static BatchItemResultDTO succeeded(int index, Long accountId, Map<CurrencyEnum, BigDecimal> balances) {
+        BatchItemResultDTO result = new BatchItemResultDTO();
+        result.setIndex(index);
+        result.setAccountId(accountId);
+        result.setSuccess(true);
+        result.setBalances(balances);
+        return result;
+    }
+
+    public static BatchItemResultDTO failed(int index, Long accountId, String error) {
+        BatchItemResultDTO result = new BatchItemResultDTO();
+        result.setIndex(index);
+        result.setAccountId(accountId);
+        result.setSuccess(false);
+        result.setError(error);
+        return result;
+    }
+}
@@ -0,0 +1,32 @@
+package com.testassignment.bank.dto;
+
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.enums.TransactionType;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+/**
+ * One operation of a batch request. DEPOSIT and DEBIT use currency, EXCHANGE uses fromCurrency and toCurrency.
+ */
+@Data
+public class BatchOperationDTO {
+
+    @NotNull(message = "Type is mandatory")
+    private TransactionType type;
+
+    @NotNull(message = "Account ID is mandatory")
+    private Long accountId;
+
+    private CurrencyEnum currency;
+
+    private CurrencyEnum fromCurrency;
+
+    private CurrencyEnum toCurrency;
+
+    @NotNull(message = "Amount is mandatory")
+    @Positive(message = "Amount must be positive")
+    @Digits(integer = 10, fraction = 2, message = "Amount cannot have more than 2 decimal places")
+    private Double amount;
+}
@@ -0,0 +1,16 @@
+package com.testassignment.bank.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchRequestDTO {
+
+    @NotEmpty(message = "Operations are mandatory")
+    @Size(max = 10000, message = "At most 10000 operations per batch")
+    private List<@Valid BatchOperationDTO> operations;
+}
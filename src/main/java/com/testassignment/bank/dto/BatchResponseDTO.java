@@ -0,0 +1,15 @@
+package com.testassignment.bank.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchResponseDTO {
+
+    private int succeeded;
+    private int failed;
+
+    // One result per operation, in request order.
+    private List<BatchItemResultDTO> results;
+}
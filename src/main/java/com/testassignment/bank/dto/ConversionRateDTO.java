@@ -0,0 +1,29 @@
+package com.testassignment.bank.dto;
+
+import com.testassignment.bank.entity.CurrencyConversionRate;
+import com.testassignment.bank.enums.CurrencyEnum;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+public class ConversionRateDTO {
+
+    private Long id;
+    private CurrencyEnum fromCurrency;
+    private CurrencyEnum toCurrency;
+    private BigDecimal rate;
+    private LocalDateTime effectiveFrom;
+
+    public static ConversionRateDTO fromEntity(CurrencyConversionRate conversionRate) {
+        ConversionRateDTO dto = new ConversionRateDTO();
+        dto.setId(conversionRate.getId());
+        dto.setFromCurrency(conversionRate.getFromCurrency());
+        dto.setToCurrency(conversionRate.getToCurrency());
+        dto.setRate(conversionRate.getRate());
+        dto.setEffectiveFrom(conversionRate.getEffectiveFrom());
+
+        return dto;
+    }
+}
@@ -0,0 +1,32 @@
+package com.testassignment.bank.dto;
+
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.validation.ValidCurrencyEnum;
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+public class ConversionRateRequestDTO {
+
+    @NotNull(message = "From currency is mandatory")
+    @ValidCurrencyEnum
+    private CurrencyEnum fromCurrency;
+
+    @NotNull(message = "To currency is mandatory")
+    @ValidCurrencyEnum
+    private CurrencyEnum toCurrency;
+
+    @NotNull(message = "Rate is mandatory")
+    @Positive(message = "Rate must be positive")
+    private BigDecimal rate;
+
+    // Defaults to the time of the request when omitted. Never in the past, so the rate already applied
+    // to a recorded exchange cannot change afterwards.
+    @FutureOrPresent(message = "Effective from must not be in the past")
+    private LocalDateTime effectiveFrom;
+}
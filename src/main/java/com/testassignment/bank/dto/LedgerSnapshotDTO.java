@@ -0,0 +1,14 @@
+package com.testassignment.bank.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class LedgerSnapshotDTO {
+
+    private LocalDateTime cutoff;
+
+    // Number of non-zero account balances in the snapshot.
+    private int balances;
+}
@@ -0,0 +1,15 @@
+package com.testassignment.bank.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class LedgerVerificationDTO {
+
+    // Cutoff of the snapshot the ledger balances were computed from, null if there was none.
+    private LocalDateTime snapshotCutoff;
+    private int partitions;
+    private List<BalanceMismatchDTO> mismatches;
+}
@@ -0,0 +1,15 @@
+package com.testassignment.bank.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class RateImportRequestDTO {
+
+    @NotEmpty(message = "Rates are mandatory")
+    @Valid
+    private List<ConversionRateRequestDTO> rates;
+}
@@ -0,0 +1,12 @@
+package com.testassignment.bank.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class RateImportResponseDTO {
+
+    private int imported;
+    private LocalDateTime importedAt;
+}
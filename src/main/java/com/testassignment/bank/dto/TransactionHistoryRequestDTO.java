@@ -0,0 +1,36 @@
+package com.testassignment.bank.dto;
+
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.enums.TransactionType;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Query parameters of the transaction history endpoint. All filters are optional.
+ */
+@Data
+public class TransactionHistoryRequestDTO {
+
+    private CurrencyEnum currency;
+
+    private TransactionType type;
+
+    // Inclusive lower bound of the transaction timestamp.
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    // Exclusive upper bound of the transaction timestamp.
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    // Value of the X-Next-Cursor header of the previous page.
+    private String cursor;
+
+    @Min(value = 1, message = "Limit must be at least 1")
+    @Max(value = 1000, message = "Limit must be at most 1000")
+    private int limit = 100;
+}
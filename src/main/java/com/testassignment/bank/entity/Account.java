@@ -12,17 +12,17 @@ import java.util.Map;
 @Data
 public class Account {
 
+    // Ids come from a pooled sequence, one round trip per {@link IdSequences#ALLOCATION_SIZE} rows, which
+    // unlike IDENTITY lets Hibernate batch the inserts.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_seq")
+    @SequenceGenerator(name = "account_seq", sequenceName = "account_seq", allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
     private String accountNumber;
 
-    @ElementCollection
-    @CollectionTable(name = "account_balance", joinColumns = @JoinColumn(name = "account_id"))
-    @MapKeyEnumerated(EnumType.STRING)
-    @MapKeyColumn(name = "currency")
-    @Column(name = "balance")
+    // Stored one row per currency as AccountBalance; filled in and written by AccountDAO.
+    @Transient
     private Map<CurrencyEnum, BigDecimal> balances = new HashMap<>();
 }
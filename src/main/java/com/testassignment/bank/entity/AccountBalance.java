@@ -0,0 +1,66 @@
+package com.testassignment.bank.entity;
+
+import com.testassignment.bank.enums.CurrencyEnum;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+
+/**
+ * Balance of one account in one currency, stored as its own row so that a money movement touches only
+ * the row of the affected currency.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@IdClass(AccountBalanceId.class)
+@Table(name = "account_balance")
+public class AccountBalance implements Persistable<AccountBalanceId> {
+
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "currency")
+    private CurrencyEnum currency;
+
+    @Column(name = "balance")
+    private BigDecimal balance;
+
+    // The default fills rows created before the column existed.
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    // Rows are only ever created for new accounts, so save() can persist without a select first.
+    @Transient
+    private boolean isNew = true;
+
+    public AccountBalance(Long accountId, CurrencyEnum currency, BigDecimal balance) {
+        this.accountId = accountId;
+        this.currency = currency;
+        this.balance = balance;
+    }
+
+    @Override
+    public AccountBalanceId getId() {
+        return new AccountBalanceId(accountId, currency);
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+}
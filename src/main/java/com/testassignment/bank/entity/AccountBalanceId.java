@@ -0,0 +1,17 @@
+package com.testassignment.bank.entity;
+
+import com.testassignment.bank.enums.CurrencyEnum;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBalanceId implements Serializable {
+
+    private Long accountId;
+    private CurrencyEnum currency;
+}
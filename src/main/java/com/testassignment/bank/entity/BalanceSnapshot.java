@@ -0,0 +1,40 @@
+package com.testassignment.bank.entity;
+
+import com.testassignment.bank.enums.CurrencyEnum;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Balance of one account in one currency as of a snapshot cutoff, i.e. the sum of all its transactions
+ * with a timestamp up to the cutoff. Balances that sum to zero are left out.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@IdClass(BalanceSnapshotId.class)
+@Table(name = "balance_snapshot", indexes = {
+        @Index(name = "idx_balance_snapshot_cutoff", columnList = "cutoff"),
+        @Index(name = "idx_balance_snapshot_account_cutoff", columnList = "account_id, cutoff")
+})
+public class BalanceSnapshot {
+
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "currency")
+    private CurrencyEnum currency;
+
+    @Id
+    @Column(name = "cutoff")
+    private LocalDateTime cutoff;
+
+    @Column(name = "balance")
+    private BigDecimal balance;
+}
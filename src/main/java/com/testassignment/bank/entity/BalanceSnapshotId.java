@@ -0,0 +1,19 @@
+package com.testassignment.bank.entity;
+
+import com.testassignment.bank.enums.CurrencyEnum;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceSnapshotId implements Serializable {
+
+    private Long accountId;
+    private CurrencyEnum currency;
+    private LocalDateTime cutoff;
+}
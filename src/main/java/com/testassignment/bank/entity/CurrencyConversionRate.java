@@ -3,11 +3,20 @@ package com.testassignment.bank.entity;
 import com.testassignment.bank.enums.CurrencyEnum;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Immutable;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 
+/**
+ * One version of the rate for a currency pair. Versions are append-only: a new rate is stored as a new row
+ * whose effectiveFrom marks when it replaces the previous version.
+ */
 @Entity
 @Data
+@Immutable
+@EntityListeners(CurrencyConversionRateListener.class)
 public class CurrencyConversionRate {
 
     @Id
@@ -21,4 +30,11 @@ public class CurrencyConversionRate {
     private CurrencyEnum toCurrency;
 
     private BigDecimal rate;
+
+    // Rows written before versioning have no effectiveFrom and are treated as effective since forever.
+    private LocalDateTime effectiveFrom;
+
+    // Only set on derived cross rates, which aren't stored: the ids of the versions multiplied into the rate, in path order.
+    @Transient
+    private List<Long> legIds;
 }
@@ -0,0 +1,22 @@
+package com.testassignment.bank.entity;
+
+import com.testassignment.bank.cache.ConversionRateCache;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import org.springframework.context.annotation.Lazy;
+
+// Instantiated by Hibernate through Spring's bean container; the cache is lazy to avoid a cycle with the repository.
+public class CurrencyConversionRateListener {
+
+    private final ConversionRateCache conversionRateCache;
+
+    public CurrencyConversionRateListener(@Lazy ConversionRateCache conversionRateCache) {
+        this.conversionRateCache = conversionRateCache;
+    }
+
+    @PostPersist
+    @PostRemove
+    public void onRateChanged(CurrencyConversionRate conversionRate) {
+        conversionRateCache.invalidate();
+    }
+}
@@ -0,0 +1,19 @@
+package com.testassignment.bank.entity;
+
+import java.util.Map;
+
+/**
+ * Sequences that generate entity ids, keyed by the table they fill.
+ */
+public final class IdSequences {
+
+    public static final int ALLOCATION_SIZE = 50;
+
+    public static final Map<String, String> BY_TABLE = Map.of(
+            "account", "account_seq",
+            "transaction", "transaction_seq"
+    );
+
+    private IdSequences() {
+    }
+}
@@ -0,0 +1,60 @@
+package com.testassignment.bank.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response of a request made with an Idempotency-Key, stored in the same transaction as the change the
+ * request made, so a key is only ever recorded for a request that took effect.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "idempotency_key", indexes = @Index(name = "idx_idempotency_key_created_at", columnList = "createdAt"))
+public class IdempotencyRecord implements Persistable<String> {
+
+    @Id
+    @Column(name = "idempotency_key")
+    private String key;
+
+    // SHA-256 of the request, to reject a key reused for a different request.
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(nullable = false, length = 4000)
+    private String responseBody;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Keys are only ever inserted, so save() can persist without a select first.
+    @Transient
+    private boolean isNew = true;
+
+    public IdempotencyRecord(String key, String requestHash, String responseBody, LocalDateTime createdAt) {
+        this.key = key;
+        this.requestHash = requestHash;
+        this.responseBody = responseBody;
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String getId() {
+        return key;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+}
@@ -9,10 +9,18 @@ import java.time.LocalDateTime;
 
 @Entity
 @Data
+@Table(indexes = {
+        @Index(name = "idx_transaction_account_timestamp_id", columnList = "accountId, timestamp, id"),
+        // Lets a ledger snapshot read only the transactions since the previous one.
+        @Index(name = "idx_transaction_timestamp", columnList = "timestamp")
+})
 public class Transaction {
 
+    // Ids come from a pooled sequence, one round trip per {@link IdSequences#ALLOCATION_SIZE} rows, which
+    // unlike IDENTITY lets Hibernate batch the inserts.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @SequenceGenerator(name = "transaction_seq", sequenceName = "transaction_seq", allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     private Long accountId;
@@ -22,4 +30,14 @@ public class Transaction {
 
     @Enumerated(EnumType.STRING)
     private TransactionType transactionType;
+
+    // Version of CurrencyConversionRate applied, only set for EXCHANGE and cross-currency TRANSFER transactions.
+    private Long conversionRateId;
+
+    // Instead of conversionRateId when the rate was derived: the versions multiplied into it, in path order,
+    // separated by semicolons, e.g. "3;7".
+    private String conversionRateLegIds;
+
+    // The other account of a TRANSFER; both legs point at each other.
+    private Long counterpartyAccountId;
 }
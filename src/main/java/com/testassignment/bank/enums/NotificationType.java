@@ -0,0 +1,9 @@
+package com.testassignment.bank.enums;
+
+public enum NotificationType {
+    ACCOUNT_CREATED,
+    BALANCE_UPDATED,
+    BALANCE_QUERIED,
+    CURRENCY_EXCHANGED,
+    TRANSACTION_HISTORY_QUERIED
+}
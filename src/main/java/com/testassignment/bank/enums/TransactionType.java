@@ -3,5 +3,6 @@ package com.testassignment.bank.enums;
 public enum TransactionType {
     DEPOSIT,
     DEBIT,
-    EXCHANGE
+    EXCHANGE,
+    TRANSFER
 }
@@ -0,0 +1,11 @@
+package com.testassignment.bank.exception;
+
+/**
+ * Thrown when no conversion rate is known for a currency pair. Answered like any other invalid argument.
+ */
+public class ConversionRateNotFoundException extends IllegalArgumentException {
+
+    public ConversionRateNotFoundException() {
+        super("Conversion rate not found");
+    }
+}
@@ -1,6 +1,7 @@
 package com.testassignment.bank.exception;
 
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -103,6 +104,26 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<ValidationErrorResponse> handleConcurrencyFailureException(ConcurrencyFailureException ex) {
+        ValidationErrorResponse errorResponse = new ValidationErrorResponse(
+                "Concurrent modification",
+                Collections.singletonList("The account was changed by another request, please try again"),
+                HttpStatus.CONFLICT.value()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(IdempotencyKeyInUseException.class)
+    public ResponseEntity<ValidationErrorResponse> handleIdempotencyKeyInUseException(IdempotencyKeyInUseException ex) {
+        ValidationErrorResponse errorResponse = new ValidationErrorResponse(
+                "Request in progress",
+                Collections.singletonList(ex.getMessage()),
+                HttpStatus.CONFLICT.value()
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ValidationErrorResponse> handleIllegalArgumentException(IllegalArgumentException ex) {
         ValidationErrorResponse errorResponse = new ValidationErrorResponse(
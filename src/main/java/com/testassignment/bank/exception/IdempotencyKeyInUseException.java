@@ -0,0 +1,11 @@
+package com.testassignment.bank.exception;
+
+/**
+ * Thrown when a request arrives while another request with the same Idempotency-Key is still running.
+ */
+public class IdempotencyKeyInUseException extends RuntimeException {
+
+    public IdempotencyKeyInUseException(String key) {
+        super("A request with Idempotency-Key " + key + " is still in progress");
+    }
+}
@@ -0,0 +1,11 @@
+package com.testassignment.bank.exception;
+
+/**
+ * Thrown when a debit would take a balance below zero. Answered like any other invalid argument.
+ */
+public class InsufficientFundsException extends IllegalArgumentException {
+
+    public InsufficientFundsException() {
+        super("Insufficient funds");
+    }
+}
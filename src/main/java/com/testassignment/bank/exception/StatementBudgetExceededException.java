@@ -0,0 +1,11 @@
+package com.testassignment.bank.exception;
+
+/**
+ * Thrown in statement budget fail mode when a request ran more SQL statements than its endpoint allows.
+ */
+public class StatementBudgetExceededException extends RuntimeException {
+
+    public StatementBudgetExceededException(String message) {
+        super(message);
+    }
+}
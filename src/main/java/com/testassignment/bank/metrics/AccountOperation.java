@@ -0,0 +1,26 @@
+package com.testassignment.bank.metrics;
+
+/**
+ * The account operations timed by {@link OperationMetrics}, with the value of their operation tag.
+ */
+public enum AccountOperation {
+
+    CREATE("create"),
+    DEPOSIT("deposit"),
+    DEBIT("debit"),
+    EXCHANGE("exchange"),
+    TRANSFER("transfer"),
+    BALANCE("balance"),
+    BALANCE_AS_OF("balance_as_of"),
+    HISTORY("history");
+
+    private final String tag;
+
+    AccountOperation(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+}
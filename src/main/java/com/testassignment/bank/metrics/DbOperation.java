@@ -0,0 +1,23 @@
+package com.testassignment.bank.metrics;
+
+/**
+ * The DAO calls timed by {@link OperationMetrics}, with the value of their operation tag. Only calls that
+ * reach the database when they are made are timed; inserts are deferred to the flush and show in the commit.
+ */
+public enum DbOperation {
+
+    ACCOUNT_FIND("account_find"),
+    ACCOUNT_LOCK("account_lock"),
+    BALANCE_UPDATE("balance_update"),
+    TRANSACTION_PAGE("transaction_page");
+
+    private final String tag;
+
+    DbOperation(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+}
@@ -0,0 +1,75 @@
+package com.testassignment.bank.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Times account operations and the DAO calls they make, by operation and outcome. Every timer is registered
+ * up front, so recording is an array lookup and needs neither a registry lookup nor tag objects on the
+ * request path.
+ */
+@Component
+public class OperationMetrics {
+
+    private final Timer[][] accountTimers;
+    private final Timer[][] dbTimers;
+
+    public OperationMetrics(MeterRegistry meterRegistry) {
+        this.accountTimers = register(meterRegistry, "bank.account.operations", "Time spent in account operations, excluding the commit",
+                AccountOperation.values(), AccountOperation::getTag);
+        this.dbTimers = register(meterRegistry, "bank.db.operations", "Time spent in DAO calls that query or update the database",
+                DbOperation.values(), DbOperation::getTag);
+    }
+
+    /**
+     * Runs the operation and records its time under the outcome it ended with.
+     */
+    public <T> T time(AccountOperation operation, Supplier<T> action) {
+        return time(accountTimers[operation.ordinal()], action);
+    }
+
+    public <T> T time(DbOperation operation, Supplier<T> action) {
+        return time(dbTimers[operation.ordinal()], action);
+    }
+
+    public Timer timer(AccountOperation operation, Outcome outcome) {
+        return accountTimers[operation.ordinal()][outcome.ordinal()];
+    }
+
+    public Timer timer(DbOperation operation, Outcome outcome) {
+        return dbTimers[operation.ordinal()][outcome.ordinal()];
+    }
+
+    private static <T> T time(Timer[] byOutcome, Supplier<T> action) {
+        long start = System.nanoTime();
+        RuntimeException error = null;
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            error = e;
+            throw e;
+        } finally {
+            byOutcome[Outcome.of(error).ordinal()].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static <E extends Enum<E>> Timer[][] register(MeterRegistry meterRegistry, String name, String description,
+                                                          E[] operations, Function<E, String> tagOf) {
+        Timer[][] timers = new Timer[operations.length][Outcome.values().length];
+        for (E operation : operations) {
+            for (Outcome outcome : Outcome.values()) {
+                timers[operation.ordinal()][outcome.ordinal()] = Timer.builder(name)
+                        .description(description)
+                        .tag("operation", tagOf.apply(operation))
+                        .tag("outcome", outcome.getTag())
+                        .register(meterRegistry);
+            }
+        }
+        return timers;
+    }
+}
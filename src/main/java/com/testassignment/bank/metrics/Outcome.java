@@ -0,0 +1,53 @@
+package com.testassignment.bank.metrics;
+
+import com.testassignment.bank.exception.ConversionRateNotFoundException;
+import com.testassignment.bank.exception.InsufficientFundsException;
+import org.springframework.dao.ConcurrencyFailureException;
+
+import java.util.NoSuchElementException;
+
+/**
+ * How an account operation ended, with the value of its outcome tag.
+ */
+public enum Outcome {
+
+    SUCCESS("success"),
+    INSUFFICIENT_FUNDS("insufficient_funds"),
+    NOT_FOUND("not_found"),
+    RATE_MISSING("rate_missing"),
+    CONFLICT("conflict"),
+    INVALID("invalid"),
+    ERROR("error");
+
+    private final String tag;
+
+    Outcome(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public static Outcome of(Throwable error) {
+        if (error == null) {
+            return SUCCESS;
+        }
+        if (error instanceof InsufficientFundsException) {
+            return INSUFFICIENT_FUNDS;
+        }
+        if (error instanceof ConversionRateNotFoundException) {
+            return RATE_MISSING;
+        }
+        if (error instanceof NoSuchElementException) {
+            return NOT_FOUND;
+        }
+        if (error instanceof ConcurrencyFailureException) {
+            return CONFLICT;
+        }
+        if (error instanceof IllegalArgumentException) {
+            return INVALID;
+        }
+        return ERROR;
+    }
+}
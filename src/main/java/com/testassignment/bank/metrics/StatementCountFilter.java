@@ -0,0 +1,111 @@
+package com.testassignment.bank.metrics;
+
+import com.testassignment.bank.config.StatementBudgetProperties;
+import com.testassignment.bank.exception.StatementBudgetExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records how many SQL statements each request ran, per URI pattern, and checks the count against the
+ * endpoint's budget. Only statements on the request thread are counted, so work handed to another thread,
+ * like a streamed export, is not. The meters are cached by pattern, so after the first request to an
+ * endpoint recording needs no registry lookup.
+ */
+@Slf4j
+@Component
+public class StatementCountFilter extends OncePerRequestFilter {
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final StatementBudgetProperties budgetProperties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+    private final Map<String, Counter> overBudget = new ConcurrentHashMap<>();
+
+    public StatementCountFilter(StatementBudgetProperties budgetProperties, MeterRegistry meterRegistry) {
+        this.budgetProperties = budgetProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        StatementBudgetProperties.Mode mode = budgetProperties.getMode();
+        StatementCounter.reset(mode != StatementBudgetProperties.Mode.OFF);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            String uri = uri(request);
+            int count = StatementCounter.count();
+            summary(uri).record(count);
+            // A failed request is reported as it is, not as being over budget.
+            if (completed && mode != StatementBudgetProperties.Mode.OFF) {
+                check(request.getMethod(), uri, count, StatementCounter.statements(), mode);
+            }
+        }
+    }
+
+    private void check(String method, String uri, int count, List<String> statements, StatementBudgetProperties.Mode mode) {
+        Map<String, Integer> repetitions = new HashMap<>();
+        for (String sql : statements) {
+            repetitions.merge(sql, 1, Integer::sum);
+        }
+        repetitions.forEach((sql, times) -> {
+            if (times >= budgetProperties.getRepeatedStatementThreshold()) {
+                log.warn("{} {} ran the same statement {} times, possibly an N+1 query: {}", method, uri, times, sql);
+            }
+        });
+
+        Integer budget = budgetProperties.budgetFor(uri);
+        if (budget == null || count <= budget) {
+            return;
+        }
+        overBudget(uri).increment();
+        String message = method + " " + uri + " ran " + count + " SQL statements, its budget is " + budget + ": " + statements;
+        if (mode == StatementBudgetProperties.Mode.FAIL) {
+            throw new StatementBudgetExceededException(message);
+        }
+        log.warn(message);
+    }
+
+    private static String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : UNKNOWN_URI;
+    }
+
+    private DistributionSummary summary(String uri) {
+        DistributionSummary summary = summaries.get(uri);
+        if (summary == null) {
+            summary = summaries.computeIfAbsent(uri, key -> DistributionSummary.builder("bank.db.statements")
+                    .description("SQL statements run per request")
+                    .baseUnit("statements")
+                    .tag("uri", key)
+                    .register(meterRegistry));
+        }
+        return summary;
+    }
+
+    private Counter overBudget(String uri) {
+        return overBudget.computeIfAbsent(uri, key -> Counter.builder("bank.db.statements.over-budget")
+                .description("Requests that ran more SQL statements than their endpoint's budget")
+                .tag("uri", key)
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,60 @@
+package com.testassignment.bank.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, so {@link StatementCountFilter} can
+ * tell how many statements a request cost, and keeps their text when asked to. Statements sent through
+ * JdbcTemplate are not seen. Hands every statement on to the inspector that was configured before, if any.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<Statements> CURRENT = ThreadLocal.withInitial(Statements::new);
+
+    private final StatementInspector delegate;
+
+    public StatementCounter(StatementInspector delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Statements statements = CURRENT.get();
+        statements.count++;
+        if (statements.recording) {
+            statements.sql.add(sql);
+        }
+        return delegate != null ? delegate.inspect(sql) : sql;
+    }
+
+    /**
+     * Starts counting from zero on the current thread.
+     * @param record Whether to keep the text of the statements as well.
+     */
+    public static void reset(boolean record) {
+        Statements statements = CURRENT.get();
+        statements.count = 0;
+        statements.recording = record;
+        statements.sql.clear();
+    }
+
+    public static int count() {
+        return CURRENT.get().count;
+    }
+
+    /**
+     * @return The statements since the last reset, if it asked for them to be recorded.
+     */
+    public static List<String> statements() {
+        return CURRENT.get().sql;
+    }
+
+    private static class Statements {
+        private int count;
+        private boolean recording;
+        private final List<String> sql = new ArrayList<>();
+    }
+}
@@ -0,0 +1,67 @@
+package com.testassignment.bank.notification;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testassignment.bank.config.NotificationProperties;
+import org.springframework.core.env.Environment;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Posts batches with the JDK HttpClient. Requests are sent asynchronously over pooled keep-alive
+ * connections, so an in-flight batch does not occupy a thread while waiting for the response.
+ */
+public class HttpClientNotificationSink implements NotificationSink {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+    private final NotificationProperties properties;
+    private final NotificationProperties.Sink sinkProperties;
+
+    public HttpClientNotificationSink(HttpClient httpClient, ObjectMapper objectMapper, Environment environment,
+                                      NotificationProperties properties, NotificationProperties.Sink sinkProperties) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.environment = environment;
+        this.properties = properties;
+        this.sinkProperties = sinkProperties;
+    }
+
+    @Override
+    public CompletableFuture<Void> send(List<NotificationEvent> batch) {
+        HttpRequest request;
+        try {
+            request = buildRequest(batch);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .thenAccept(HttpClientNotificationSink::checkStatus);
+    }
+
+    @Override
+    public int getMaxConcurrency() {
+        return sinkProperties.getMaxConcurrency();
+    }
+
+    HttpRequest buildRequest(List<NotificationEvent> batch) throws JsonProcessingException {
+        return HttpRequest.newBuilder(URI.create(environment.resolvePlaceholders(properties.getUrl())))
+                .timeout(sinkProperties.getRequestTimeout())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(batch)))
+                .build();
+    }
+
+    static void checkStatus(HttpResponse<?> response) {
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Notification endpoint responded with status " + response.statusCode());
+        }
+    }
+}
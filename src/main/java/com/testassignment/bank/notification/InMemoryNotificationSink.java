@@ -0,0 +1,38 @@
+package com.testassignment.bank.notification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps delivered events in memory. Intended for tests and for running without a notification receiver.
+ */
+public class InMemoryNotificationSink implements NotificationSink {
+
+    private final List<NotificationEvent> events = new CopyOnWriteArrayList<>();
+    private final int maxConcurrency;
+
+    public InMemoryNotificationSink(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    @Override
+    public CompletableFuture<Void> send(List<NotificationEvent> batch) {
+        events.addAll(batch);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public List<NotificationEvent> getEvents() {
+        return new ArrayList<>(events);
+    }
+
+    public void clear() {
+        events.clear();
+    }
+}
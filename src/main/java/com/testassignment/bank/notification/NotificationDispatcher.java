@@ -0,0 +1,193 @@
+package com.testassignment.bank.notification;
+
+import com.testassignment.bank.config.NotificationProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers notification events from a bounded in-memory queue. A single worker drains the queue into
+ * batches and hands them to the configured {@link NotificationSink}; up to the sink's concurrency limit
+ * batches are in flight at once. Failed batches are retried with exponential backoff and events are
+ * dropped (and counted) when the queue stays full, so request threads never wait on the remote side.
+ */
+@Slf4j
+@Component
+public class NotificationDispatcher {
+
+    // While the queue stays full, drops are logged at most this often; the dropped counter has the exact count.
+    private static final long DROP_WARNING_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final NotificationProperties properties;
+    private final NotificationSink sink;
+    private final BlockingQueue<NotificationEvent> queue;
+    private final Semaphore inFlight;
+
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong nextDropWarning = new AtomicLong(System.nanoTime());
+    private final AtomicLong droppedAtLastWarning = new AtomicLong();
+    private final Timer deliverySucceeded;
+    private final Timer deliveryFailed;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public NotificationDispatcher(NotificationProperties properties, NotificationSink sink, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.sink = sink;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.inFlight = new Semaphore(sink.getMaxConcurrency());
+
+        this.deliverySucceeded = Timer.builder("bank.notification.delivery")
+                .description("Time from handing a batch to the sink until it was accepted or failed, per attempt")
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        this.deliveryFailed = Timer.builder("bank.notification.delivery")
+                .description("Time from handing a batch to the sink until it was accepted or failed, per attempt")
+                .tag("outcome", "failure")
+                .register(meterRegistry);
+        Gauge.builder("bank.notification.queue", this, NotificationDispatcher::getQueueSize)
+                .description("Events waiting to be delivered")
+                .register(meterRegistry);
+        Gauge.builder("bank.notification.in-flight", this, NotificationDispatcher::getInFlightCount)
+                .description("Batches sent and not yet answered")
+                .register(meterRegistry);
+        FunctionCounter.builder("bank.notification.events", delivered, AtomicLong::get)
+                .tag("result", "delivered")
+                .register(meterRegistry);
+        FunctionCounter.builder("bank.notification.events", failed, AtomicLong::get)
+                .tag("result", "failed")
+                .register(meterRegistry);
+        FunctionCounter.builder("bank.notification.events", dropped, AtomicLong::get)
+                .tag("result", "dropped")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "notification-dispatcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.join(properties.getRetryBackoff().toMillis() + 1000);
+
+        // Give batches that are still in flight a chance to finish before the sink is closed.
+        long timeout = properties.getRetryBackoff().toMillis() << properties.getMaxRetries();
+        if (inFlight.tryAcquire(sink.getMaxConcurrency(), timeout, TimeUnit.MILLISECONDS)) {
+            inFlight.release(sink.getMaxConcurrency());
+        }
+    }
+
+    /**
+     * Adds an event to the delivery queue without waiting for space.
+     * @param event Event to deliver.
+     * @return true if the event was queued, false if the queue was full and it was dropped.
+     */
+    public boolean enqueue(NotificationEvent event) {
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        if (queue.offer(event)) {
+            return true;
+        }
+
+        long total = dropped.incrementAndGet();
+        long now = System.nanoTime();
+        long next = nextDropWarning.get();
+        if (now - next >= 0 && nextDropWarning.compareAndSet(next, now + DROP_WARNING_INTERVAL_NANOS)) {
+            long sinceLastWarning = total - droppedAtLastWarning.getAndSet(total);
+            log.warn("Notification queue is full, dropped {} events since the last warning ({} in total)", sinceLastWarning, total);
+        }
+        return false;
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public int getInFlightCount() {
+        return sink.getMaxConcurrency() - inFlight.availablePermits();
+    }
+
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            try {
+                NotificationEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                // Waiting for a permit here is the backpressure: the queue fills up while the sink is saturated.
+                inFlight.acquire();
+
+                List<NotificationEvent> batch = new ArrayList<>(properties.getBatchSize());
+                batch.add(first);
+                queue.drainTo(batch, properties.getBatchSize() - 1);
+                deliver(batch, 0);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void deliver(List<NotificationEvent> batch, int attempt) {
+        long start = System.nanoTime();
+        CompletableFuture<Void> result;
+        try {
+            result = sink.send(batch);
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+
+        result.whenComplete((ignored, error) -> {
+            (error == null ? deliverySucceeded : deliveryFailed).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (error == null) {
+                delivered.addAndGet(batch.size());
+                inFlight.release();
+            } else if (attempt < properties.getMaxRetries()) {
+                log.debug("Notification delivery attempt {} failed: {}", attempt + 1, error.getMessage());
+                long backoff = properties.getRetryBackoff().toMillis() << attempt;
+                CompletableFuture.delayedExecutor(backoff, TimeUnit.MILLISECONDS)
+                        .execute(() -> deliver(batch, attempt + 1));
+            } else {
+                failed.addAndGet(batch.size());
+                inFlight.release();
+                log.warn("Giving up on delivering {} notification events: {}", batch.size(), error.getMessage());
+            }
+        });
+    }
+}
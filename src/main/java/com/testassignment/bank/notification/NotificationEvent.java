@@ -0,0 +1,14 @@
+package com.testassignment.bank.notification;
+
+import com.testassignment.bank.enums.NotificationType;
+import lombok.Value;
+
+import java.time.Instant;
+
+@Value
+public class NotificationEvent {
+
+    NotificationType type;
+    Long accountId;
+    Instant occurredAt;
+}
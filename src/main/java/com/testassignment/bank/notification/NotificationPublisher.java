@@ -0,0 +1,40 @@
+package com.testassignment.bank.notification;
+
+import com.testassignment.bank.enums.NotificationType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+
+@Component
+public class NotificationPublisher {
+
+    private final NotificationDispatcher dispatcher;
+
+    public NotificationPublisher(NotificationDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Publishes an event for the given account. Inside a transaction the event is only handed to the
+     * dispatcher after a successful commit, so rolled back operations never notify anyone.
+     * @param type Type of the event.
+     * @param accountId ID of the account the event relates to.
+     */
+    public void publish(NotificationType type, Long accountId) {
+        NotificationEvent event = new NotificationEvent(type, accountId, Instant.now());
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatcher.enqueue(event);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatcher.enqueue(event);
+            }
+        });
+    }
+}
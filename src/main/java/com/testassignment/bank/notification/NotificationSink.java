@@ -0,0 +1,18 @@
+package com.testassignment.bank.notification;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Destination for batches of notification events. Implementations must not block the calling thread;
+ * the returned future completes once the batch was accepted or failed.
+ */
+public interface NotificationSink {
+
+    CompletableFuture<Void> send(List<NotificationEvent> batch);
+
+    /**
+     * @return Maximum number of batches the dispatcher may have in flight on this sink at once.
+     */
+    int getMaxConcurrency();
+}
@@ -0,0 +1,68 @@
+package com.testassignment.bank.notification;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Sends each batch with a blocking HttpClient call on its own virtual thread. The build targets Java 17,
+ * so the virtual thread executor is looked up reflectively; on older runtimes it falls back to a
+ * platform thread pool sized to the concurrency limit.
+ */
+@Slf4j
+public class VirtualThreadNotificationSink implements NotificationSink, AutoCloseable {
+
+    private final HttpClientNotificationSink requestFactory;
+    private final HttpClient httpClient;
+    private final int maxConcurrency;
+    private final ExecutorService executor;
+
+    public VirtualThreadNotificationSink(HttpClientNotificationSink requestFactory, HttpClient httpClient, int maxConcurrency) {
+        this.requestFactory = requestFactory;
+        this.httpClient = httpClient;
+        this.maxConcurrency = maxConcurrency;
+        this.executor = newExecutor(maxConcurrency);
+    }
+
+    @Override
+    public CompletableFuture<Void> send(List<NotificationEvent> batch) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                HttpClientNotificationSink.checkStatus(httpClient.send(requestFactory.buildRequest(batch), HttpResponse.BodyHandlers.discarding()));
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    @Override
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    static ExecutorService newExecutor(int fallbackPoolSize) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.info("Virtual threads are not available on this runtime, using a pool of {} platform threads", fallbackPoolSize);
+            return Executors.newFixedThreadPool(fallbackPoolSize);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.testassignment.bank.repository;
+
+import com.testassignment.bank.entity.AccountBalance;
+import com.testassignment.bank.entity.AccountBalanceId;
+import com.testassignment.bank.enums.CurrencyEnum;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+public interface AccountBalanceRepository extends JpaRepository<AccountBalance, AccountBalanceId> {
+
+    // Projection rather than entities, so balances are always read from the database and never from a
+    // persistence context that a bulk update has made stale.
+    @Query("select b.currency as currency, b.balance as balance from AccountBalance b where b.accountId = :accountId")
+    List<BalanceView> findBalancesByAccountId(@Param("accountId") Long accountId);
+
+    // The account number repeated on every balance row, so the account and its balances take one query.
+    @Query("select a.accountNumber as accountNumber, b.currency as currency, b.balance as balance "
+            + "from Account a join AccountBalance b on b.accountId = a.id where a.id = :accountId")
+    List<AccountBalanceView> findAccountBalancesByAccountId(@Param("accountId") Long accountId);
+
+    /**
+     * Adds delta to the balance in the database and returns the new balance in the same round trip
+     * (H2's FINAL TABLE). The update only matches while the result stays non-negative, so concurrent
+     * debits can't overdraw the account; an empty result means insufficient funds or no balance row.
+     */
+    @Query(value = "SELECT balance FROM FINAL TABLE (UPDATE account_balance SET balance = balance + :delta, version = version + 1 "
+            + "WHERE account_id = :accountId AND currency = :currency AND balance + :delta >= 0)", nativeQuery = true)
+    Optional<BigDecimal> addToBalance(@Param("accountId") Long accountId, @Param("currency") String currency, @Param("delta") BigDecimal delta);
+
+    interface BalanceView {
+        CurrencyEnum getCurrency();
+        BigDecimal getBalance();
+    }
+
+    interface AccountBalanceView extends BalanceView {
+        String getAccountNumber();
+    }
+}
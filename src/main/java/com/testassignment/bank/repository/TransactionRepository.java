@@ -1,10 +1,55 @@
 package com.testassignment.bank.repository;
 
 import com.testassignment.bank.entity.Transaction;
+import com.testassignment.bank.enums.TransactionType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    List<Transaction> findByAccountId(Long accountId);
+
+    /**
+     * One page of an account's transactions in (timestamp, id) order, starting after the given position.
+     * The timestamp range is always bound, so the (account_id, timestamp, id) index can seek to the start
+     * of the page instead of scanning the history before it.
+     */
+    @Query("select t from Transaction t where t.accountId = :accountId"
+            + " and t.timestamp >= :lower and t.timestamp < :upper"
+            + " and (t.timestamp > :afterTimestamp or t.id > :afterId)"
+            + " and (:currency is null or t.currency = :currency)"
+            + " and (:type is null or t.transactionType = :type)"
+            + " order by t.timestamp, t.id")
+    List<Transaction> findPage(@Param("accountId") Long accountId,
+                               @Param("lower") LocalDateTime lower,
+                               @Param("upper") LocalDateTime upper,
+                               @Param("afterTimestamp") LocalDateTime afterTimestamp,
+                               @Param("afterId") Long afterId,
+                               @Param("currency") String currency,
+                               @Param("type") TransactionType type,
+                               Limit limit);
+
+    /**
+     * All matching transactions of an account in (timestamp, id) order, read from a JDBC cursor in
+     * batches of the fetch size instead of being loaded at once. Must be consumed inside a transaction
+     * and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select t from Transaction t where t.accountId = :accountId"
+            + " and t.timestamp >= :lower and t.timestamp < :upper"
+            + " and (:currency is null or t.currency = :currency)"
+            + " and (:type is null or t.transactionType = :type)"
+            + " order by t.timestamp, t.id")
+    Stream<Transaction> streamAll(@Param("accountId") Long accountId,
+                                  @Param("lower") LocalDateTime lower,
+                                  @Param("upper") LocalDateTime upper,
+                                  @Param("currency") String currency,
+                                  @Param("type") TransactionType type);
 }
@@ -0,0 +1,50 @@
+package com.testassignment.bank.service;
+
+import com.testassignment.bank.config.AccountProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed table of locks that accounts are hashed onto. Two accounts may share a stripe, which only
+ * costs some parallelism; the same account always maps to the same stripe.
+ */
+@Component
+public class AccountLocks {
+
+    private final ReentrantLock[] stripes;
+
+    public AccountLocks(AccountProperties accountProperties) {
+        stripes = new ReentrantLock[accountProperties.getLock().getStripes()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public ReentrantLock lockFor(Long accountId) {
+        return stripes[stripeOf(accountId)];
+    }
+
+    /**
+     * Index of the stripe an account maps to; locks of several accounts are taken in this order.
+     */
+    public int stripeOf(Long accountId) {
+        long hash = accountId * 0x9E3779B97F4A7C15L;
+        return (int) Math.floorMod(hash ^ (hash >>> 32), (long) stripes.length);
+    }
+
+    public ReentrantLock stripe(int index) {
+        return stripes[index];
+    }
+
+    /**
+     * Number of threads currently waiting for any of the locks.
+     */
+    public int getQueueLength() {
+        int waiting = 0;
+        for (ReentrantLock stripe : stripes) {
+            waiting += stripe.getQueueLength();
+        }
+        return waiting;
+    }
+}
@@ -0,0 +1,215 @@
+package com.testassignment.bank.service;
+
+import com.testassignment.bank.config.AccountProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Runs account mutations, each in its own transaction. In optimistic mode a mutation that lost a
+ * version conflict is run again in a new transaction, after a randomised exponential backoff so that
+ * the conflicting requests don't collide again. In striped mode the account's lock is held around the
+ * whole transaction, so mutations of one account reach the database one at a time.
+ */
+@Component
+public class AccountMutationExecutor {
+
+    private final AccountProperties accountProperties;
+    private final AccountLocks accountLocks;
+    private final Counter mutations;
+    private final Counter conflicts;
+    private final Counter retries;
+    private final Counter exhausted;
+    private final Counter lockContended;
+    private final Counter lockTimeouts;
+    private final Timer lockWait;
+
+    public AccountMutationExecutor(AccountProperties accountProperties, AccountLocks accountLocks, MeterRegistry meterRegistry) {
+        this.accountProperties = accountProperties;
+        this.accountLocks = accountLocks;
+        this.mutations = Counter.builder("bank.account.mutations")
+                .description("Account mutation attempts, including retries")
+                .register(meterRegistry);
+        this.conflicts = Counter.builder("bank.account.optimistic.conflicts")
+                .description("Attempts that failed on a version conflict")
+                .register(meterRegistry);
+        this.retries = Counter.builder("bank.account.optimistic.retries")
+                .description("Attempts repeated after a version conflict")
+                .register(meterRegistry);
+        this.exhausted = Counter.builder("bank.account.optimistic.exhausted")
+                .description("Mutations that still conflicted after the last attempt")
+                .register(meterRegistry);
+        this.lockContended = Counter.builder("bank.account.lock.contended")
+                .description("Mutations that had to wait for their account's lock")
+                .register(meterRegistry);
+        this.lockTimeouts = Counter.builder("bank.account.lock.timeouts")
+                .description("Mutations rejected after waiting bank.account.lock.timeout")
+                .register(meterRegistry);
+        this.lockWait = Timer.builder("bank.account.lock.wait")
+                .description("Time contended mutations waited for their account's lock")
+                .register(meterRegistry);
+        Gauge.builder("bank.account.lock.waiting", accountLocks, AccountLocks::getQueueLength)
+                .description("Threads currently queued for an account lock")
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(Long accountId, Supplier<T> mutation) {
+        return switch (accountProperties.getConcurrencyMode()) {
+            case OPTIMISTIC -> executeWithRetry(mutation);
+            case STRIPED -> executeLocked(accountId, mutation);
+            case ATOMIC -> {
+                mutations.increment();
+                yield mutation.get();
+            }
+        };
+    }
+
+    /**
+     * Runs a mutation of two accounts. In striped mode both locks are held, taken in stripe order so that
+     * mutations of the same two accounts in opposite directions can't deadlock each other.
+     */
+    public <T> T execute(Long firstAccountId, Long secondAccountId, Supplier<T> mutation) {
+        return switch (accountProperties.getConcurrencyMode()) {
+            case OPTIMISTIC -> executeWithRetry(mutation);
+            case STRIPED -> executeLocked(firstAccountId, secondAccountId, mutation);
+            case ATOMIC -> {
+                mutations.increment();
+                yield mutation.get();
+            }
+        };
+    }
+
+    /**
+     * Runs a mutation of any number of accounts. In striped mode the locks of all of them are held, taken
+     * in stripe order like those of two accounts.
+     */
+    public <T> T execute(Collection<Long> accountIds, Supplier<T> mutation) {
+        return switch (accountProperties.getConcurrencyMode()) {
+            case OPTIMISTIC -> executeWithRetry(mutation);
+            case STRIPED -> executeLocked(accountIds, mutation);
+            case ATOMIC -> {
+                mutations.increment();
+                yield mutation.get();
+            }
+        };
+    }
+
+    private <T> T executeLocked(Long accountId, Supplier<T> mutation) {
+        ReentrantLock lock = accountLocks.lockFor(accountId);
+        acquire(lock, accountId);
+        try {
+            mutations.increment();
+            return mutation.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T> T executeLocked(Long firstAccountId, Long secondAccountId, Supplier<T> mutation) {
+        int firstStripe = accountLocks.stripeOf(firstAccountId);
+        int secondStripe = accountLocks.stripeOf(secondAccountId);
+        if (firstStripe == secondStripe) {
+            return executeLocked(firstAccountId, mutation);
+        }
+
+        boolean firstIsLower = firstStripe < secondStripe;
+        ReentrantLock lower = accountLocks.stripe(firstIsLower ? firstStripe : secondStripe);
+        ReentrantLock upper = accountLocks.stripe(firstIsLower ? secondStripe : firstStripe);
+        acquire(lower, firstIsLower ? firstAccountId : secondAccountId);
+        try {
+            acquire(upper, firstIsLower ? secondAccountId : firstAccountId);
+            try {
+                mutations.increment();
+                return mutation.get();
+            } finally {
+                upper.unlock();
+            }
+        } finally {
+            lower.unlock();
+        }
+    }
+
+    private <T> T executeLocked(Collection<Long> accountIds, Supplier<T> mutation) {
+        // One account per stripe, to name in the error if its lock times out.
+        SortedMap<Integer, Long> stripes = new TreeMap<>();
+        for (Long accountId : accountIds) {
+            stripes.putIfAbsent(accountLocks.stripeOf(accountId), accountId);
+        }
+
+        List<ReentrantLock> held = new ArrayList<>(stripes.size());
+        try {
+            for (Map.Entry<Integer, Long> stripe : stripes.entrySet()) {
+                ReentrantLock lock = accountLocks.stripe(stripe.getKey());
+                acquire(lock, stripe.getValue());
+                held.add(lock);
+            }
+            mutations.increment();
+            return mutation.get();
+        } finally {
+            for (int i = held.size() - 1; i >= 0; i--) {
+                held.get(i).unlock();
+            }
+        }
+    }
+
+    private void acquire(ReentrantLock lock, Long accountId) {
+        if (!lock.tryLock()) {
+            lockContended.increment();
+            long start = System.nanoTime();
+            try {
+                if (!lock.tryLock(accountProperties.getLock().getTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                    lockTimeouts.increment();
+                    throw new CannotAcquireLockException("Timed out waiting for the lock of account " + accountId);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the lock of account " + accountId, e);
+            }
+            lockWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private <T> T executeWithRetry(Supplier<T> mutation) {
+        AccountProperties.Retry retry = accountProperties.getRetry();
+        long backoff = retry.getInitialBackoff().toMillis();
+        for (int attempt = 1; ; attempt++) {
+            mutations.increment();
+            try {
+                return mutation.get();
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.increment();
+                if (attempt >= retry.getMaxAttempts()) {
+                    exhausted.increment();
+                    throw e;
+                }
+            }
+            retries.increment();
+            sleep(ThreadLocalRandom.current().nextLong(backoff + 1));
+            backoff = Math.min(backoff * 2, retry.getMaxBackoff().toMillis());
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", e);
+        }
+    }
+}
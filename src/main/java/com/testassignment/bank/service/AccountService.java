@@ -1,19 +1,24 @@
 package com.testassignment.bank.service;
 
+import com.testassignment.bank.cache.AccountBalanceCache;
 import com.testassignment.bank.dao.AccountDAO;
 import com.testassignment.bank.dto.AccountDTO;
 import com.testassignment.bank.entity.Account;
-import com.testassignment.bank.entity.Transaction;
 import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.enums.NotificationType;
 import com.testassignment.bank.enums.TransactionType;
+import com.testassignment.bank.exception.InsufficientFundsException;
+import com.testassignment.bank.metrics.AccountOperation;
+import com.testassignment.bank.metrics.OperationMetrics;
+import com.testassignment.bank.notification.NotificationPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDateTime;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 
@@ -24,36 +29,47 @@ public class AccountService {
     private final AccountDAO accountDAO;
     private final TransactionService transactionService;
     private final CurrencyConversionService currencyConversionService;
-    private final RestTemplate restTemplate = new RestTemplate();
-
-    public AccountService(AccountDAO accountDAO, TransactionService transactionService, CurrencyConversionService currencyConversionService) {
+    private final NotificationPublisher notificationPublisher;
+    private final AccountBalanceCache accountBalanceCache;
+    private final LedgerService ledgerService;
+    private final OperationMetrics operationMetrics;
+
+    public AccountService(AccountDAO accountDAO, TransactionService transactionService, CurrencyConversionService currencyConversionService,
+                          NotificationPublisher notificationPublisher, AccountBalanceCache accountBalanceCache, LedgerService ledgerService,
+                          OperationMetrics operationMetrics) {
         this.accountDAO = accountDAO;
         this.transactionService = transactionService;
         this.currencyConversionService = currencyConversionService;
+        this.notificationPublisher = notificationPublisher;
+        this.accountBalanceCache = accountBalanceCache;
+        this.ledgerService = ledgerService;
+        this.operationMetrics = operationMetrics;
     }
 
     public AccountDTO createAccount(String accountNumber) {
-        Account account = new Account();
-        account.setAccountNumber(accountNumber);
-
-        // Initialize account balances with 0.0 for no advantage and disadvantage :)
-        Map<CurrencyEnum, BigDecimal> balances = new HashMap<>();
-        for (CurrencyEnum currency : CurrencyEnum.values()) {
-            balances.put(currency, BigDecimal.ZERO);
-        }
-        account.setBalances(balances);
-
-        Account savedAccount = accountDAO.save(account);
-        restTemplate.postForObject("https://httpstat.us/200", null, String.class);
-        return AccountDTO.fromEntity(savedAccount);
+        return operationMetrics.time(AccountOperation.CREATE, () -> {
+            Account account = new Account();
+            account.setAccountNumber(accountNumber);
+
+            // Initialize account balances with 0.0 for no advantage and disadvantage :)
+            Map<CurrencyEnum, BigDecimal> balances = new HashMap<>();
+            for (CurrencyEnum currency : CurrencyEnum.values()) {
+                balances.put(currency, BigDecimal.ZERO);
+            }
+            account.setBalances(balances);
+
+            Account savedAccount = accountDAO.save(account);
+            notificationPublisher.publish(NotificationType.ACCOUNT_CREATED, savedAccount.getId());
+            return AccountDTO.fromEntity(savedAccount);
+        });
     }
 
     public AccountDTO depositMoney(Long accountId, CurrencyEnum currency, BigDecimal amount) {
-        return updateBalance(accountId, currency, amount, TransactionType.DEPOSIT);
+        return operationMetrics.time(AccountOperation.DEPOSIT, () -> updateBalance(accountId, currency, amount, TransactionType.DEPOSIT));
     }
 
     public AccountDTO debitMoney(Long accountId, CurrencyEnum currency, BigDecimal amount) {
-        return updateBalance(accountId, currency, amount, TransactionType.DEBIT);
+        return operationMetrics.time(AccountOperation.DEBIT, () -> updateBalance(accountId, currency, amount, TransactionType.DEBIT));
     }
 
     private AccountDTO updateBalance(Long accountId, CurrencyEnum currency, BigDecimal amount, TransactionType transactionType) {
@@ -61,56 +77,115 @@ public class AccountService {
             throw new IllegalArgumentException("Amount must be positive");
         }
 
-        Account account = accountDAO.findById(accountId).orElseThrow();
         BigDecimal roundedAmount = roundToTwoDecimalPlaces(amount);
-        BigDecimal currentBalance = account.getBalances().getOrDefault(currency, BigDecimal.ZERO);
-
-        if (transactionType == TransactionType.DEBIT && currentBalance.compareTo(roundedAmount) < 0) {
-            throw new IllegalArgumentException("Insufficient funds");
-        }
-
-        if (transactionType == TransactionType.DEBIT) {
-            account.getBalances().computeIfPresent(currency, (k, v) -> v.subtract(roundedAmount));
-        } else {
-            account.getBalances().merge(currency, roundedAmount, BigDecimal::add);
-        }
+        BigDecimal delta = transactionType == TransactionType.DEBIT ? roundedAmount.negate() : roundedAmount;
 
-        accountDAO.save(account);
-        transactionService.saveTransaction(accountId, currency.name(), transactionType == TransactionType.DEBIT ? roundedAmount.negate() : roundedAmount, transactionType);
+        // The balance check and the update happen in one statement in the database, so concurrent
+        // requests can neither lose updates nor overdraw the account. The account is read for the
+        // response only after the update, in one query, so the read can't be the basis of the new balance.
+        accountDAO.addToBalance(accountId, currency, delta).orElseThrow(InsufficientFundsException::new);
+        Account account = accountDAO.findWithBalances(accountId).orElseThrow();
 
-        restTemplate.postForObject("https://httpstat.us/200", null, String.class);
+        transactionService.saveTransaction(accountId, currency.name(), delta, transactionType);
+        notificationPublisher.publish(NotificationType.BALANCE_UPDATED, accountId);
 
         return AccountDTO.fromEntity(account);
     }
 
+    // No transaction of its own, so a cache hit doesn't take a connection from the pool.
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Map<CurrencyEnum, BigDecimal> getAccountBalance(Long accountId) {
-        Account account = accountDAO.findById(accountId).orElseThrow();
-        restTemplate.postForObject("https://httpstat.us/200", null, String.class);
-        return account.getBalances();
+        return operationMetrics.time(AccountOperation.BALANCE, () -> {
+            Map<CurrencyEnum, BigDecimal> balances = accountBalanceCache.get(accountId, id -> accountDAO.findById(id).orElseThrow().getBalances());
+            notificationPublisher.publish(NotificationType.BALANCE_QUERIED, accountId);
+            return balances;
+        });
     }
 
-    public AccountDTO exchangeCurrency(Long accountId, CurrencyEnum fromCurrency, CurrencyEnum toCurrency, BigDecimal amount) {
-        if (amount.compareTo(BigDecimal.ZERO) < 0) {
-            throw new IllegalArgumentException("Amount must be positive");
-        }
-
-        Account account = accountDAO.findById(accountId).orElseThrow();
-
-        BigDecimal convertedAmount = currencyConversionService.convert(account, fromCurrency, toCurrency, amount);
-
-        accountDAO.save(account);
+    /**
+     * @return The balances of the account at the given time according to the transaction log.
+     */
+    @Transactional(readOnly = true)
+    public Map<CurrencyEnum, BigDecimal> getAccountBalanceAt(Long accountId, LocalDateTime time) {
+        return operationMetrics.time(AccountOperation.BALANCE_AS_OF, () -> {
+            if (time.isAfter(LocalDateTime.now())) {
+                throw new IllegalArgumentException("asOf must not be in the future");
+            }
+
+            accountDAO.findById(accountId).orElseThrow();
+            Map<CurrencyEnum, BigDecimal> balances = ledgerService.getBalancesAt(accountId, time);
+            notificationPublisher.publish(NotificationType.BALANCE_QUERIED, accountId);
+            return balances;
+        });
+    }
 
-        transactionService.saveTransaction(account.getId(), fromCurrency.name(), amount.negate(), TransactionType.EXCHANGE);
-        transactionService.saveTransaction(account.getId(), toCurrency.name(), convertedAmount, TransactionType.EXCHANGE);
+    public AccountDTO exchangeCurrency(Long accountId, CurrencyEnum fromCurrency, CurrencyEnum toCurrency, BigDecimal amount) {
+        return operationMetrics.time(AccountOperation.EXCHANGE, () -> {
+            if (amount.compareTo(BigDecimal.ZERO) < 0) {
+                throw new IllegalArgumentException("Amount must be positive");
+            }
+
+            Account account = accountDAO.findById(accountId).orElseThrow();
+
+            ConversionResult conversion = currencyConversionService.convert(fromCurrency, toCurrency, amount);
+
+            // Both balance rows are updated in currency order, so opposite exchanges on the same account
+            // lock them in the same order and can't deadlock each other.
+            Map<CurrencyEnum, BigDecimal> balances = accountDAO.exchangeBalances(accountId, fromCurrency, amount, toCurrency, conversion.getConvertedAmount())
+                    .orElseThrow(InsufficientFundsException::new);
+            account.getBalances().putAll(balances);
+
+            transactionService.saveExchangeTransactions(account.getId(), fromCurrency.name(), amount.negate(),
+                    toCurrency.name(), conversion.getConvertedAmount(), conversion);
+            notificationPublisher.publish(NotificationType.CURRENCY_EXCHANGED, account.getId());
+            return AccountDTO.fromEntity(account);
+        });
+    }
 
-        restTemplate.postForObject("https://httpstat.us/200", null, String.class);
-        return AccountDTO.fromEntity(account);
+    /**
+     * Moves money between two accounts in one transaction, converting it if toCurrency differs from
+     * fromCurrency. Both account rows are locked in id order first, so concurrent transfers between the
+     * same accounts queue up instead of deadlocking.
+     */
+    public AccountDTO transferMoney(Long fromAccountId, Long toAccountId, CurrencyEnum fromCurrency, CurrencyEnum toCurrency, BigDecimal amount) {
+        return operationMetrics.time(AccountOperation.TRANSFER, () -> {
+            if (amount.compareTo(BigDecimal.ZERO) < 0) {
+                throw new IllegalArgumentException("Amount must be positive");
+            }
+            if (fromAccountId.equals(toAccountId)) {
+                throw new IllegalArgumentException("Cannot transfer to the same account");
+            }
+
+            accountDAO.lockForUpdate(fromAccountId, toAccountId);
+            Account account = accountDAO.findById(fromAccountId).orElseThrow();
+
+            BigDecimal debitedAmount = roundToTwoDecimalPlaces(amount);
+            BigDecimal creditedAmount = debitedAmount;
+            ConversionResult conversion = null;
+            if (fromCurrency != toCurrency) {
+                conversion = currencyConversionService.convert(fromCurrency, toCurrency, debitedAmount);
+                creditedAmount = conversion.getConvertedAmount();
+            }
+
+            BigDecimal fromBalance = accountDAO.addToBalance(fromAccountId, fromCurrency, debitedAmount.negate())
+                    .orElseThrow(InsufficientFundsException::new);
+            accountDAO.addToBalance(toAccountId, toCurrency, creditedAmount).orElseThrow();
+            account.getBalances().put(fromCurrency, fromBalance);
+
+            transactionService.saveTransferTransactions(fromAccountId, fromCurrency.name(), debitedAmount.negate(),
+                    toAccountId, toCurrency.name(), creditedAmount, conversion);
+            notificationPublisher.publish(NotificationType.BALANCE_UPDATED, fromAccountId);
+            notificationPublisher.publish(NotificationType.BALANCE_UPDATED, toAccountId);
+            return AccountDTO.fromEntity(account);
+        });
     }
 
-    public List<Transaction> getAccountTransactionHistory(Long accountId) {
-        accountDAO.findById(accountId).orElseThrow(() -> new NoSuchElementException("No value present"));
-        restTemplate.postForObject("https://httpstat.us/200", null, String.class);
-        return transactionService.getTransactionHistory(accountId);
+    public TransactionPage getAccountTransactionHistory(Long accountId, TransactionFilter filter, String cursor, int limit) {
+        return operationMetrics.time(AccountOperation.HISTORY, () -> {
+            accountDAO.findById(accountId).orElseThrow(() -> new NoSuchElementException("No value present"));
+            notificationPublisher.publish(NotificationType.TRANSACTION_HISTORY_QUERIED, accountId);
+            return transactionService.getTransactionHistory(accountId, filter, cursor, limit);
+        });
     }
 
     private BigDecimal roundToTwoDecimalPlaces(BigDecimal value) {
@@ -0,0 +1,196 @@
+package com.testassignment.bank.service;
+
+import com.testassignment.bank.config.AccountProperties;
+import com.testassignment.bank.dao.AccountDAO;
+import com.testassignment.bank.dto.BatchItemResultDTO;
+import com.testassignment.bank.dto.BatchOperationDTO;
+import com.testassignment.bank.dto.BatchResponseDTO;
+import com.testassignment.bank.entity.Account;
+import com.testassignment.bank.entity.Transaction;
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.enums.NotificationType;
+import com.testassignment.bank.enums.TransactionType;
+import com.testassignment.bank.exception.InsufficientFundsException;
+import com.testassignment.bank.notification.NotificationPublisher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Applies many deposits, debits and exchanges in one call. Operations are grouped by account, and the
+ * operations of up to bank.account.batch.accounts-per-transaction accounts run in one transaction: the
+ * account rows are locked in ascending id order and read once, every operation is a single conditional
+ * balance update and the ledger entries are inserted as one batch. A rejected operation (insufficient
+ * funds, missing rate, ...) changes nothing and doesn't affect the others, so the transaction is never
+ * marked for rollback by business errors; only an unexpected error fails all operations of its transaction.
+ */
+@Slf4j
+@Service
+public class BatchOperationService {
+
+    private static final String INTERNAL_ERROR = "Internal error";
+
+    private final AccountDAO accountDAO;
+    private final TransactionService transactionService;
+    private final CurrencyConversionService currencyConversionService;
+    private final NotificationPublisher notificationPublisher;
+    private final AccountMutationExecutor accountMutationExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final int accountsPerTransaction;
+
+    public BatchOperationService(AccountDAO accountDAO, TransactionService transactionService, CurrencyConversionService currencyConversionService,
+                                 NotificationPublisher notificationPublisher, AccountMutationExecutor accountMutationExecutor,
+                                 PlatformTransactionManager transactionManager, AccountProperties accountProperties) {
+        this.accountDAO = accountDAO;
+        this.transactionService = transactionService;
+        this.currencyConversionService = currencyConversionService;
+        this.notificationPublisher = notificationPublisher;
+        this.accountMutationExecutor = accountMutationExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.accountsPerTransaction = Math.max(1, accountProperties.getBatch().getAccountsPerTransaction());
+    }
+
+    public BatchResponseDTO apply(List<BatchOperationDTO> operations) {
+        // Accounts in ascending id order, the order their rows are locked in, each with its operations in request order.
+        SortedMap<Long, List<Integer>> indexesByAccount = new TreeMap<>();
+        for (int i = 0; i < operations.size(); i++) {
+            indexesByAccount.computeIfAbsent(operations.get(i).getAccountId(), id -> new ArrayList<>()).add(i);
+        }
+
+        BatchItemResultDTO[] results = new BatchItemResultDTO[operations.size()];
+        List<Long> accountIds = new ArrayList<>(indexesByAccount.keySet());
+        for (int start = 0; start < accountIds.size(); start += accountsPerTransaction) {
+            List<Long> chunk = accountIds.subList(start, Math.min(start + accountsPerTransaction, accountIds.size()));
+            try {
+                accountMutationExecutor.execute(chunk, () -> transactionTemplate.execute(status -> {
+                    applyToAccounts(chunk, indexesByAccount, operations, results);
+                    return null;
+                }));
+            } catch (RuntimeException e) {
+                String message = failureMessage(e);
+                if (message.equals(INTERNAL_ERROR)) {
+                    log.warn("Batch operations for accounts {} to {} failed", chunk.get(0), chunk.get(chunk.size() - 1), e);
+                }
+                for (Long accountId : chunk) {
+                    for (int index : indexesByAccount.get(accountId)) {
+                        results[index] = BatchItemResultDTO.failed(index, accountId, message);
+                    }
+                }
+            }
+        }
+
+        BatchResponseDTO response = new BatchResponseDTO();
+        response.setResults(Arrays.asList(results));
+        response.setSucceeded((int) response.getResults().stream().filter(BatchItemResultDTO::isSuccess).count());
+        response.setFailed(results.length - response.getSucceeded());
+        return response;
+    }
+
+    private void applyToAccounts(List<Long> accountIds, Map<Long, List<Integer>> indexesByAccount, List<BatchOperationDTO> operations,
+                                 BatchItemResultDTO[] results) {
+        Map<Long, Account> accounts = accountDAO.lockForUpdate(accountIds);
+
+        List<Transaction> ledger = new ArrayList<>();
+        List<Long> changedAccountIds = new ArrayList<>();
+        for (Long accountId : accountIds) {
+            Account account = accounts.get(accountId);
+            int ledgerSize = ledger.size();
+            for (int index : indexesByAccount.get(accountId)) {
+                if (account == null) {
+                    results[index] = BatchItemResultDTO.failed(index, accountId, "No value present");
+                    continue;
+                }
+                try {
+                    apply(account, operations.get(index), ledger);
+                    results[index] = BatchItemResultDTO.succeeded(index, accountId, new EnumMap<>(account.getBalances()));
+                } catch (IllegalArgumentException e) {
+                    results[index] = BatchItemResultDTO.failed(index, accountId, failureMessage(e));
+                }
+            }
+            if (ledger.size() > ledgerSize) {
+                changedAccountIds.add(accountId);
+            }
+        }
+
+        if (!ledger.isEmpty()) {
+            transactionService.saveTransactions(ledger);
+            for (Long accountId : changedAccountIds) {
+                notificationPublisher.publish(NotificationType.BALANCE_UPDATED, accountId);
+            }
+        }
+    }
+
+    // Each operation checks everything that can reject it before its first write, and a debit that is
+    // rejected takes back whatever the operation already wrote, so a rejected operation leaves no trace.
+    private void apply(Account account, BatchOperationDTO operation, List<Transaction> ledger) {
+        BigDecimal amount = BigDecimal.valueOf(operation.getAmount());
+        if (amount.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+
+        switch (operation.getType()) {
+            case DEPOSIT -> {
+                CurrencyEnum currency = required(operation.getCurrency(), "Currency");
+                BigDecimal rounded = amount.setScale(2, RoundingMode.HALF_UP);
+                addToBalance(account, currency, rounded);
+                ledger.add(transactionService.newTransaction(account.getId(), currency.name(), rounded, TransactionType.DEPOSIT));
+            }
+            case DEBIT -> {
+                CurrencyEnum currency = required(operation.getCurrency(), "Currency");
+                BigDecimal rounded = amount.setScale(2, RoundingMode.HALF_UP).negate();
+                addToBalance(account, currency, rounded);
+                ledger.add(transactionService.newTransaction(account.getId(), currency.name(), rounded, TransactionType.DEBIT));
+            }
+            case EXCHANGE -> {
+                CurrencyEnum fromCurrency = required(operation.getFromCurrency(), "From currency");
+                CurrencyEnum toCurrency = required(operation.getToCurrency(), "To currency");
+                ConversionResult conversion = currencyConversionService.convert(fromCurrency, toCurrency, amount);
+                // In currency order like a single exchange, so the two can't deadlock each other.
+                Map<CurrencyEnum, BigDecimal> balances = accountDAO.exchangeBalances(account.getId(), fromCurrency, amount, toCurrency,
+                        conversion.getConvertedAmount()).orElseThrow(() -> new InsufficientFundsException());
+                account.getBalances().putAll(balances);
+                ledger.addAll(transactionService.newExchangeTransactions(account.getId(), fromCurrency.name(), amount.negate(),
+                        toCurrency.name(), conversion.getConvertedAmount(), conversion));
+            }
+            default -> throw new IllegalArgumentException("Unsupported operation type: " + operation.getType());
+        }
+    }
+
+    private void addToBalance(Account account, CurrencyEnum currency, BigDecimal delta) {
+        BigDecimal newBalance = accountDAO.addToBalance(account.getId(), currency, delta)
+                .orElseThrow(() -> new InsufficientFundsException());
+        account.getBalances().put(currency, newBalance);
+    }
+
+    // Only errors the API answers with their own message are passed through, as GlobalExceptionHandler would
+    // answer them; anything else is reported without its details.
+    private static String failureMessage(RuntimeException e) {
+        if (e instanceof IllegalArgumentException || e instanceof NoSuchElementException) {
+            return e.getMessage();
+        }
+        if (e instanceof ConcurrencyFailureException) {
+            return "The account was changed by another request, please try again";
+        }
+        return INTERNAL_ERROR;
+    }
+
+    private static CurrencyEnum required(CurrencyEnum currency, String name) {
+        if (currency == null) {
+            throw new IllegalArgumentException(name + " is mandatory");
+        }
+        return currency;
+    }
+}
@@ -0,0 +1,24 @@
+package com.testassignment.bank.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Value
+@AllArgsConstructor
+public class ConversionResult {
+
+    BigDecimal convertedAmount;
+
+    // ID of the CurrencyConversionRate version that was applied, null if the rate was derived.
+    Long conversionRateId;
+
+    // IDs of the versions a derived cross rate was multiplied from, in path order; null for a direct rate.
+    List<Long> conversionRateLegIds;
+
+    public ConversionResult(BigDecimal convertedAmount, Long conversionRateId) {
+        this(convertedAmount, conversionRateId, null);
+    }
+}
@@ -1,36 +1,88 @@
 package com.testassignment.bank.service;
 
-import com.testassignment.bank.entity.Account;
+import com.testassignment.bank.cache.ConversionRateCache;
+import com.testassignment.bank.entity.CurrencyConversionRate;
 import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.exception.ConversionRateNotFoundException;
 import com.testassignment.bank.repository.CurrencyConversionRateRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.NoSuchElementException;
 
 @Service
 public class CurrencyConversionService {
 
+    private final ConversionRateCache conversionRateCache;
     private final CurrencyConversionRateRepository conversionRateRepository;
+    private final Counter conversions;
+    private final Counter missingRates;
 
-    public CurrencyConversionService(CurrencyConversionRateRepository conversionRateRepository) {
+    public CurrencyConversionService(ConversionRateCache conversionRateCache, CurrencyConversionRateRepository conversionRateRepository,
+                                     MeterRegistry meterRegistry) {
+        this.conversionRateCache = conversionRateCache;
         this.conversionRateRepository = conversionRateRepository;
+        this.conversions = Counter.builder("bank.conversions")
+                .description("Amounts converted between currencies")
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        this.missingRates = Counter.builder("bank.conversions")
+                .description("Amounts converted between currencies")
+                .tag("outcome", "rate_missing")
+                .register(meterRegistry);
     }
 
-    public BigDecimal convert(Account account, CurrencyEnum fromCurrency, CurrencyEnum toCurrency, BigDecimal amount) {
-        BigDecimal currentBalance = account.getBalances().getOrDefault(fromCurrency, BigDecimal.ZERO);
+    public ConversionResult convert(CurrencyEnum fromCurrency, CurrencyEnum toCurrency, BigDecimal amount) {
+        if (amount.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
 
-        if (currentBalance.compareTo(amount) < 0) {
-            throw new IllegalArgumentException("Insufficient funds");
+        CurrencyConversionRate rate = conversionRateCache.getRate(fromCurrency, toCurrency);
+        if (rate == null) {
+            missingRates.increment();
+            throw new ConversionRateNotFoundException();
         }
+        BigDecimal convertedAmount = amount.multiply(rate.getRate()).setScale(2, RoundingMode.HALF_UP);
+        conversions.increment();
+
+        return new ConversionResult(convertedAmount, rate.getId(), rate.getLegIds());
+    }
 
-        BigDecimal convertedAmount = conversionRateRepository.findByFromCurrencyAndToCurrency(fromCurrency, toCurrency)
-                .map(rate -> amount.multiply(rate.getRate()).setScale(2, RoundingMode.HALF_UP))
-                .orElseThrow(() -> new IllegalArgumentException("Conversion rate not found"));
+    public CurrencyConversionRate getRateAt(CurrencyEnum fromCurrency, CurrencyEnum toCurrency, LocalDateTime time) {
+        CurrencyConversionRate rate = conversionRateCache.getRate(fromCurrency, toCurrency, time);
+        if (rate == null) {
+            throw new NoSuchElementException("Conversion rate not found");
+        }
+        return rate;
+    }
 
-        account.getBalances().computeIfPresent(fromCurrency, (k, v) -> v.subtract(amount));
-        account.getBalances().compute(toCurrency, (k, v) -> v == null ? convertedAmount : v.add(convertedAmount));
+    /**
+     * Appends a new rate version. Existing versions are never modified and a new one can't take effect
+     * in the past, so past exchanges can still be traced to the rate they used.
+     */
+    @Transactional
+    public CurrencyConversionRate addRate(CurrencyEnum fromCurrency, CurrencyEnum toCurrency, BigDecimal rate, LocalDateTime effectiveFrom) {
+        if (fromCurrency == toCurrency) {
+            throw new IllegalArgumentException("Currencies must differ");
+        }
+        if (rate.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Rate must be positive");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (effectiveFrom != null && effectiveFrom.isBefore(now)) {
+            throw new IllegalArgumentException("Effective from must not be in the past");
+        }
 
-        return convertedAmount;
+        CurrencyConversionRate conversionRate = new CurrencyConversionRate();
+        conversionRate.setFromCurrency(fromCurrency);
+        conversionRate.setToCurrency(toCurrency);
+        conversionRate.setRate(rate);
+        conversionRate.setEffectiveFrom(effectiveFrom != null ? effectiveFrom : now);
+        return conversionRateRepository.save(conversionRate);
     }
 }
@@ -0,0 +1,249 @@
+package com.testassignment.bank.service;
+
+import com.testassignment.bank.config.AccountProperties;
+import com.testassignment.bank.dto.AccountDTO;
+import com.testassignment.bank.enums.CurrencyEnum;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Group commit for deposits. Deposits arriving within bank.account.group-commit.max-wait of each other
+ * are applied by a single worker in one transaction, so a burst of small deposits pays for one commit
+ * instead of one each. Every caller still waits for and gets its own result. If anything in a batch
+ * fails, the batch is rolled back and its deposits are applied one by one, so a failing deposit only
+ * fails its own caller. Group commit can't be combined with the striped concurrency mode, because a batch
+ * spans many accounts and would have to hold all of their locks.
+ */
+@Slf4j
+@Component
+public class DepositGroupCommitter {
+
+    private final AccountProperties.GroupCommit properties;
+    private final AccountProperties.ConcurrencyMode concurrencyMode;
+    private final AccountService accountService;
+    private final AccountMutationExecutor accountMutationExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingDeposit> queue;
+
+    private final Counter batches;
+    private final Counter fallbacks;
+    private final DistributionSummary batchSize;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public DepositGroupCommitter(AccountProperties accountProperties, AccountService accountService, AccountMutationExecutor accountMutationExecutor,
+                                 PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.properties = accountProperties.getGroupCommit();
+        this.concurrencyMode = accountProperties.getConcurrencyMode();
+        this.accountService = accountService;
+        this.accountMutationExecutor = accountMutationExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+
+        this.batches = Counter.builder("bank.deposit.group-commit.batches")
+                .description("Transactions committed by the group committer")
+                .register(meterRegistry);
+        this.fallbacks = Counter.builder("bank.deposit.group-commit.fallbacks")
+                .description("Batches rolled back and applied deposit by deposit")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("bank.deposit.group-commit.batch-size")
+                .description("Deposits per group commit")
+                .register(meterRegistry);
+        Gauge.builder("bank.deposit.group-commit.queue", queue, BlockingQueue::size)
+                .description("Deposits waiting to be committed")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (concurrencyMode == AccountProperties.ConcurrencyMode.STRIPED) {
+            throw new IllegalStateException("bank.account.group-commit.enabled can't be used with bank.account.concurrency-mode=striped");
+        }
+        running = true;
+        worker = new Thread(this::run, "deposit-group-commit");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (worker == null) {
+            return;
+        }
+        running = false;
+        worker.join(5000);
+
+        // Whatever the worker didn't take before it stopped, including deposits offered while it was stopping.
+        List<PendingDeposit> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        for (PendingDeposit deposit : leftover) {
+            if (deposit.claim()) {
+                deposit.result.completeExceptionally(new IllegalStateException("Deposit group commit has stopped"));
+            }
+        }
+    }
+
+    /**
+     * Deposits money, through a group commit when enabled and otherwise in a transaction of its own.
+     * @return The account after the deposit.
+     */
+    public AccountDTO deposit(Long accountId, CurrencyEnum currency, BigDecimal amount) {
+        if (!properties.isEnabled()) {
+            return depositAlone(accountId, currency, amount);
+        }
+        // Rejected up front, so an invalid request can't make its batch fall back.
+        if (amount.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+
+        PendingDeposit deposit = new PendingDeposit(accountId, currency, amount);
+        if (!running || !queue.offer(deposit)) {
+            return depositAlone(accountId, currency, amount);
+        }
+
+        try {
+            return deposit.result.get(properties.getResultTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Not taken by the worker yet, so it can still be withdrawn and applied here instead.
+            if (deposit.claim()) {
+                queue.remove(deposit);
+                return depositAlone(accountId, currency, amount);
+            }
+            // Already taken by the worker, which commits it whether or not anyone waits. Failing here would
+            // invite a retry that deposits twice, so wait for the real outcome; the worker completes every
+            // deposit it takes.
+            try {
+                return deposit.result.join();
+            } catch (CompletionException error) {
+                if (error.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw error;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the deposit to commit", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private AccountDTO depositAlone(Long accountId, CurrencyEnum currency, BigDecimal amount) {
+        return accountMutationExecutor.execute(accountId, () -> accountService.depositMoney(accountId, currency, amount));
+    }
+
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            List<PendingDeposit> batch = new ArrayList<>(properties.getMaxBatchSize());
+            try {
+                PendingDeposit first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null || !first.claim()) {
+                    continue;
+                }
+
+                batch.add(first);
+                long deadline = System.nanoTime() + properties.getMaxWait().toNanos();
+                while (batch.size() < properties.getMaxBatchSize()) {
+                    PendingDeposit next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    if (next.claim()) {
+                        batch.add(next);
+                    }
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                // Callers of claimed deposits wait for them without a timeout, so they are committed regardless,
+                // and before the interrupt is restored: JDBC on an interrupted thread can close the H2 file store.
+                if (!batch.isEmpty()) {
+                    commit(batch);
+                }
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Deposit group commit worker failed", e);
+                for (PendingDeposit deposit : batch) {
+                    deposit.result.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    // Applied in ascending account id order, the order transfers and batch operations lock accounts in, so a
+    // group commit can't deadlock against them. Deposits to the same account keep their arrival order.
+    private void commit(List<PendingDeposit> claimed) {
+        List<PendingDeposit> batch = claimed.stream().sorted(Comparator.comparing(deposit -> deposit.accountId)).toList();
+        List<AccountDTO> results;
+        try {
+            results = transactionTemplate.execute(status -> batch.stream()
+                    .map(deposit -> accountService.depositMoney(deposit.accountId, deposit.currency, deposit.amount))
+                    .toList());
+        } catch (RuntimeException e) {
+            log.debug("Group commit of {} deposits failed, applying them one by one: {}", batch.size(), e.getMessage());
+            fallbacks.increment();
+            for (PendingDeposit deposit : batch) {
+                try {
+                    deposit.result.complete(depositAlone(deposit.accountId, deposit.currency, deposit.amount));
+                } catch (RuntimeException error) {
+                    deposit.result.completeExceptionally(error);
+                }
+            }
+            return;
+        }
+
+        batches.increment();
+        batchSize.record(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result.complete(results.get(i));
+        }
+    }
+
+    private static class PendingDeposit {
+
+        private final Long accountId;
+        private final CurrencyEnum currency;
+        private final BigDecimal amount;
+        private final CompletableFuture<AccountDTO> result = new CompletableFuture<>();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private PendingDeposit(Long accountId, CurrencyEnum currency, BigDecimal amount) {
+            this.accountId = accountId;
+            this.currency = currency;
+            this.amount = amount;
+        }
+
+        // Taken either by the worker, to commit it, or by whoever gives up on it before that; never by both.
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.testassignment.bank.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.testassignment.bank.config.IdempotencyProperties;
+import com.testassignment.bank.entity.IdempotencyRecord;
+import com.testassignment.bank.exception.IdempotencyKeyInUseException;
+import com.testassignment.bank.repository.IdempotencyRecordRepository;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Makes requests that carry an Idempotency-Key safe to retry. The response of the first successful
+ * request is stored with its key in the same transaction as the change it made, and a repeated request
+ * gets that response back without running again. Recent keys are answered from a bounded in-memory
+ * cache; older ones are read from the idempotency_key table by primary key, without locking it. A key
+ * older than bank.idempotency.ttl is treated as unused, even while its row waits to be purged.
+ * Failed requests are not recorded, so they can be retried with the same key.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final IdempotencyProperties idempotencyProperties;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, StoredResponse> responses;
+
+    // Keys of requests that are running right now, so a concurrent duplicate is turned away.
+    private final Map<String, Boolean> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository, IdempotencyProperties idempotencyProperties,
+                              ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.idempotencyProperties = idempotencyProperties;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(idempotencyProperties.getMaxCachedKeys())
+                .expireAfterWrite(idempotencyProperties.getTtl())
+                .build();
+    }
+
+    /**
+     * Runs the operation once per key.
+     * @param key Value of the Idempotency-Key header; without one the operation simply runs.
+     * @param request Description of the request, compared on replay to reject a key reused for another request.
+     * @param responseType Type the stored response is read back as.
+     * @param runner Runs the operation the way it would run without a key, e.g. through {@link AccountMutationExecutor}.
+     *               Every attempt it makes stores the key in the same transaction as the operation.
+     * @param operation The request's work.
+     * @return The response of this request, or the stored response of the first one with the same key.
+     */
+    public <T> T execute(String key, String request, Class<T> responseType, Function<Supplier<T>, T> runner, Supplier<T> operation) {
+        if (key == null) {
+            return runner.apply(operation);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must have 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String requestHash = hash(request);
+        StoredResponse stored = find(key, responseType);
+        if (stored != null) {
+            return replay(stored, requestHash, responseType);
+        }
+
+        if (inFlight.putIfAbsent(key, Boolean.TRUE) != null) {
+            throw new IdempotencyKeyInUseException(key);
+        }
+        try {
+            return record(key, requestHash, runner, operation);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance recorded the key first; our changes were rolled back with the insert.
+            stored = find(key, responseType);
+            if (stored != null) {
+                return replay(stored, requestHash, responseType);
+            }
+            // Or the key expired and its row hasn't been purged yet, in which case the request runs again.
+            Integer deleted = transactionTemplate.execute(status -> idempotencyRecordRepository.deleteExpired(key, expiryCutoff()));
+            if (deleted == null || deleted == 0) {
+                throw e;
+            }
+            return record(key, requestHash, runner, operation);
+        } finally {
+            inFlight.remove(key);
+        }
+    }
+
+    private <T> T record(String key, String requestHash, Function<Supplier<T>, T> runner, Supplier<T> operation) {
+        T response = runner.apply(() -> transactionTemplate.execute(status -> {
+            T result = operation.get();
+            idempotencyRecordRepository.saveAndFlush(new IdempotencyRecord(key, requestHash, write(result), LocalDateTime.now()));
+            return result;
+        }));
+        responses.put(key, new StoredResponse(requestHash, response));
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${bank.idempotency.purge-interval:1h}", initialDelayString = "${bank.idempotency.purge-interval:1h}")
+    public void purgeExpiredKeys() {
+        Integer purged = transactionTemplate.execute(status ->
+                idempotencyRecordRepository.deleteCreatedBefore(expiryCutoff()));
+        log.debug("Purged {} expired idempotency keys", purged);
+    }
+
+    private StoredResponse find(String key, Class<?> responseType) {
+        StoredResponse stored = responses.getIfPresent(key);
+        if (stored != null) {
+            return stored;
+        }
+
+        stored = idempotencyRecordRepository.findByKeyAndCreatedAtAfter(key, expiryCutoff())
+                .map(row -> new StoredResponse(row.getRequestHash(), read(row.getResponseBody(), responseType)))
+                .orElse(null);
+        if (stored != null) {
+            responses.put(key, stored);
+        }
+        return stored;
+    }
+
+    private LocalDateTime expiryCutoff() {
+        return LocalDateTime.now().minus(idempotencyProperties.getTtl());
+    }
+
+    private static <T> T replay(StoredResponse stored, String requestHash, Class<T> responseType) {
+        if (!stored.getRequestHash().equals(requestHash)) {
+            throw new IllegalArgumentException("Idempotency-Key was already used for a different request");
+        }
+        return responseType.cast(stored.getResponse());
+    }
+
+    private String write(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response can't be stored", e);
+        }
+    }
+
+    private Object read(String responseBody, Class<?> responseType) {
+        try {
+            return objectMapper.readValue(responseBody, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response can't be read", e);
+        }
+    }
+
+    private static String hash(String request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(request.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Value
+    private static class StoredResponse {
+        String requestHash;
+        Object response;
+    }
+}
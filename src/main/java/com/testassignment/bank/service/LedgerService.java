@@ -0,0 +1,193 @@
+package com.testassignment.bank.service;
+
+import com.testassignment.bank.cache.AccountBalanceCache;
+import com.testassignment.bank.config.LedgerProperties;
+import com.testassignment.bank.dao.LedgerDAO;
+import com.testassignment.bank.dto.BalanceMismatchDTO;
+import com.testassignment.bank.dto.LedgerSnapshotDTO;
+import com.testassignment.bank.dto.LedgerVerificationDTO;
+import com.testassignment.bank.enums.CurrencyEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Treats the transaction log as the source of truth for balances. Snapshots fold the log into per-account
+ * balances as of a cutoff, each one built from the previous snapshot and the transactions since, so
+ * rebuilding account_balance or checking it against the log only has to read the transactions after the
+ * latest snapshot.
+ */
+@Slf4j
+@Service
+public class LedgerService {
+
+    private final LedgerDAO ledgerDAO;
+    private final LedgerProperties ledgerProperties;
+    private final AccountBalanceCache accountBalanceCache;
+    private final TransactionTemplate transactionTemplate;
+
+    // Snapshots are built from the previous one, so they are taken and purged one at a time.
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+
+    public LedgerService(LedgerDAO ledgerDAO, LedgerProperties ledgerProperties, AccountBalanceCache accountBalanceCache,
+                         PlatformTransactionManager transactionManager) {
+        this.ledgerDAO = ledgerDAO;
+        this.ledgerProperties = ledgerProperties;
+        this.accountBalanceCache = accountBalanceCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${bank.ledger.snapshot-interval:1h}", initialDelayString = "${bank.ledger.snapshot-interval:1h}")
+    public void takeScheduledSnapshot() {
+        takeSnapshot();
+        purgeIntervalSnapshots();
+    }
+
+    @Scheduled(cron = "${bank.ledger.end-of-day-snapshot-cron:0 5 0 * * *}")
+    public void takeEndOfDaySnapshot() {
+        takeSnapshot(LocalDate.now().atStartOfDay());
+    }
+
+    /**
+     * Snapshots the ledger balances as of settle-time ago; transactions that recent may still be uncommitted.
+     */
+    public LedgerSnapshotDTO takeSnapshot() {
+        return takeSnapshot(LocalDateTime.now().minus(ledgerProperties.getSettleTime()));
+    }
+
+    /**
+     * Snapshots the ledger balances as of the given time, starting from the nearest snapshot before it.
+     * @param at Cutoff of the snapshot, at least settle-time in the past.
+     * @return The new snapshot, or the existing one with that cutoff.
+     */
+    public LedgerSnapshotDTO takeSnapshot(LocalDateTime at) {
+        if (at.isAfter(LocalDateTime.now().minus(ledgerProperties.getSettleTime()))) {
+            throw new IllegalArgumentException("Snapshot cutoff must be at least " + ledgerProperties.getSettleTime() + " in the past");
+        }
+
+        // Truncated to the precision the cutoff is stored with, so the next snapshot continues exactly where this one ends.
+        LocalDateTime cutoff = at.truncatedTo(ChronoUnit.MICROS);
+        snapshotLock.lock();
+        try {
+            return transactionTemplate.execute(status -> {
+                LedgerSnapshotDTO snapshot = new LedgerSnapshotDTO();
+                snapshot.setCutoff(cutoff);
+                Optional<LocalDateTime> previousCutoff = ledgerDAO.findSnapshotCutoffAtOrBefore(cutoff);
+                if (previousCutoff.isPresent() && previousCutoff.get().equals(cutoff)) {
+                    snapshot.setBalances(ledgerDAO.countSnapshotBalances(cutoff));
+                    return snapshot;
+                }
+
+                snapshot.setBalances(ledgerDAO.insertSnapshot(cutoff, previousCutoff.orElse(null)));
+                log.info("Took ledger snapshot of {} balances as of {}", snapshot.getBalances(), cutoff);
+                return snapshot;
+            });
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes interval snapshots beyond the newest retained-interval-snapshots; end-of-day snapshots are kept.
+     * @return Number of balances deleted.
+     */
+    public int purgeIntervalSnapshots() {
+        snapshotLock.lock();
+        try {
+            Integer purged = transactionTemplate.execute(status ->
+                    ledgerDAO.purgeIntervalSnapshots(ledgerProperties.getRetainedIntervalSnapshots()));
+            log.debug("Purged {} balances of old ledger snapshots", purged);
+            return purged;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Computes an account's balances at a point in time from the nearest snapshot, before or after it, and
+     * the account's transactions in between, so the cost depends on the snapshot interval rather than on
+     * the length of the history.
+     * @return Balance in every currency, zero where the account had none.
+     */
+    public Map<CurrencyEnum, BigDecimal> getBalancesAt(Long accountId, LocalDateTime time) {
+        LocalDateTime snapshotCutoff = ledgerDAO.findSnapshotCutoffAtOrBefore(time).orElse(null);
+        Optional<LocalDateTime> nextCutoff = ledgerDAO.findSnapshotCutoffAfter(time);
+        if (nextCutoff.isPresent() && (snapshotCutoff == null
+                || Duration.between(time, nextCutoff.get()).compareTo(Duration.between(snapshotCutoff, time)) < 0)) {
+            snapshotCutoff = nextCutoff.get();
+        }
+
+        Map<CurrencyEnum, BigDecimal> balances = new EnumMap<>(CurrencyEnum.class);
+        for (CurrencyEnum currency : CurrencyEnum.values()) {
+            balances.put(currency, BigDecimal.ZERO);
+        }
+        balances.putAll(ledgerDAO.findAccountBalancesAt(accountId, snapshotCutoff, time));
+        return balances;
+    }
+
+    /**
+     * Brings account_balance back in line with the transaction log, replaying it from the latest snapshot.
+     * Only safe while no money is moving, so it runs on startup.
+     * @return Number of balances that had to be corrected.
+     */
+    public int rebuildBalances() {
+        Integer corrected = transactionTemplate.execute(status ->
+                ledgerDAO.replayLedger(ledgerDAO.findLatestSnapshotCutoff().orElse(null)));
+        accountBalanceCache.clear();
+        log.info("Rebuilt account balances from the ledger, {} corrected", corrected);
+        return corrected;
+    }
+
+    /**
+     * Compares every account balance with its ledger balance. Accounts are split into id ranges that are
+     * checked in parallel, one query each.
+     */
+    public LedgerVerificationDTO verifyBalances() {
+        LedgerVerificationDTO verification = new LedgerVerificationDTO();
+        LocalDateTime snapshotCutoff = ledgerDAO.findLatestSnapshotCutoff().orElse(null);
+        verification.setSnapshotCutoff(snapshotCutoff);
+        verification.setMismatches(new ArrayList<>());
+
+        Optional<long[]> idRange = ledgerDAO.findAccountIdRange();
+        if (idRange.isEmpty()) {
+            return verification;
+        }
+
+        long partitionSize = ledgerProperties.getVerifyPartitionSize();
+        List<CompletableFuture<List<BalanceMismatchDTO>>> partitions = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(ledgerProperties.getVerifyParallelism());
+        try {
+            for (long fromId = idRange.get()[0]; fromId <= idRange.get()[1]; fromId += partitionSize) {
+                long from = fromId;
+                long to = fromId + partitionSize - 1;
+                partitions.add(CompletableFuture.supplyAsync(() -> ledgerDAO.findMismatches(snapshotCutoff, from, to), executor));
+            }
+            partitions.forEach(partition -> verification.getMismatches().addAll(partition.join()));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verification.setPartitions(partitions.size());
+        if (!verification.getMismatches().isEmpty()) {
+            log.warn("{} account balances differ from the ledger", verification.getMismatches().size());
+        }
+        return verification;
+    }
+}
@@ -0,0 +1,84 @@
+package com.testassignment.bank.service;
+
+import com.testassignment.bank.cache.ConversionRateCache;
+import com.testassignment.bank.dto.ConversionRateRequestDTO;
+import com.testassignment.bank.dto.RateImportResponseDTO;
+import com.testassignment.bank.enums.CurrencyEnum;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Imports a whole set of rate versions at once. The set is validated up front, written with a single JDBC
+ * batch in one transaction and published to the rate cache as one new snapshot after commit.
+ */
+@Service
+public class RateImportService {
+
+    private static final String INSERT_RATE_SQL =
+            "INSERT INTO currency_conversion_rate (from_currency, to_currency, rate, effective_from) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConversionRateCache conversionRateCache;
+
+    public RateImportService(JdbcTemplate jdbcTemplate, ConversionRateCache conversionRateCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.conversionRateCache = conversionRateCache;
+    }
+
+    @Transactional
+    public RateImportResponseDTO importRates(List<ConversionRateRequestDTO> rates) {
+        // Rates without their own effectiveFrom all take effect at the same instant.
+        LocalDateTime importedAt = LocalDateTime.now();
+        validate(rates, importedAt);
+
+        jdbcTemplate.batchUpdate(INSERT_RATE_SQL, rates, rates.size(), (statement, rate) -> {
+            statement.setString(1, rate.getFromCurrency().name());
+            statement.setString(2, rate.getToCurrency().name());
+            statement.setBigDecimal(3, rate.getRate());
+            statement.setTimestamp(4, Timestamp.valueOf(rate.getEffectiveFrom() != null ? rate.getEffectiveFrom() : importedAt));
+        });
+
+        conversionRateCache.refreshAfterCommit();
+
+        RateImportResponseDTO response = new RateImportResponseDTO();
+        response.setImported(rates.size());
+        response.setImportedAt(importedAt);
+        return response;
+    }
+
+    private void validate(List<ConversionRateRequestDTO> rates, LocalDateTime importedAt) {
+        if (rates == null || rates.isEmpty()) {
+            throw new IllegalArgumentException("Rates are mandatory");
+        }
+
+        Set<String> versions = new HashSet<>();
+        for (ConversionRateRequestDTO rate : rates) {
+            CurrencyEnum fromCurrency = rate.getFromCurrency();
+            CurrencyEnum toCurrency = rate.getToCurrency();
+            if (fromCurrency == null || toCurrency == null || rate.getRate() == null) {
+                throw new IllegalArgumentException("Currencies and rate are mandatory");
+            }
+            if (fromCurrency == toCurrency) {
+                throw new IllegalArgumentException("Currencies must differ: " + fromCurrency);
+            }
+            if (rate.getRate().compareTo(BigDecimal.ZERO) <= 0) {
+                throw new IllegalArgumentException("Rate must be positive: " + fromCurrency + "->" + toCurrency);
+            }
+            // A version taking effect in the past would change the rate of exchanges already recorded.
+            if (rate.getEffectiveFrom() != null && rate.getEffectiveFrom().isBefore(importedAt)) {
+                throw new IllegalArgumentException("Effective from must not be in the past: " + fromCurrency + "->" + toCurrency);
+            }
+            if (!versions.add(fromCurrency + "->" + toCurrency + "@" + rate.getEffectiveFrom())) {
+                throw new IllegalArgumentException("Duplicate rate: " + fromCurrency + "->" + toCurrency);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.testassignment.bank.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testassignment.bank.dao.AccountDAO;
+import com.testassignment.bank.dao.TransactionDAO;
+import com.testassignment.bank.entity.Transaction;
+import com.testassignment.bank.enums.ExportFormat;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+/**
+ * Writes the full transaction history of an account row by row, so memory use doesn't depend on the
+ * length of the history.
+ */
+@Service
+public class TransactionExportService {
+
+    private static final String CSV_HEADER = "id,accountId,currency,amount,timestamp,transactionType,conversionRateId,conversionRateLegIds,counterpartyAccountId";
+
+    private final AccountDAO accountDAO;
+    private final TransactionDAO transactionDAO;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public TransactionExportService(AccountDAO accountDAO, TransactionDAO transactionDAO, ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.accountDAO = accountDAO;
+        this.transactionDAO = transactionDAO;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Checked before the response is committed, so a missing account can still be answered with 404.
+     */
+    public void verifyAccountExists(Long accountId) {
+        accountDAO.findById(accountId).orElseThrow(() -> new NoSuchElementException("No value present"));
+    }
+
+    /**
+     * Streams the matching transactions in (timestamp, id) order. The result set is read through a
+     * JDBC cursor and each row is detached once written.
+     */
+    public void export(Long accountId, TransactionFilter filter, ExportFormat format, OutputStream outputStream) {
+        // The stream's cursor is only open while the transaction is.
+        transactionTemplate.executeWithoutResult(status -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            try (Stream<Transaction> transactions = transactionDAO.streamAll(accountId, filter.lowerBound(), filter.upperBound(),
+                    filter.currencyName(), filter.getType())) {
+                if (format == ExportFormat.CSV) {
+                    writer.write(CSV_HEADER);
+                    writer.write('\n');
+                }
+                Iterator<Transaction> iterator = transactions.iterator();
+                while (iterator.hasNext()) {
+                    Transaction transaction = iterator.next();
+                    writer.write(format == ExportFormat.CSV ? toCsv(transaction) : objectMapper.writeValueAsString(transaction));
+                    writer.write('\n');
+                    transactionDAO.detach(transaction);
+                }
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // None of the columns can contain a comma, quote or line break, so no quoting is needed.
+    private static String toCsv(Transaction transaction) {
+        return transaction.getId() + ","
+                + transaction.getAccountId() + ","
+                + transaction.getCurrency() + ","
+                + transaction.getAmount().toPlainString() + ","
+                + transaction.getTimestamp() + ","
+                + transaction.getTransactionType() + ","
+                + (transaction.getConversionRateId() != null ? transaction.getConversionRateId() : "") + ","
+                + (transaction.getConversionRateLegIds() != null ? transaction.getConversionRateLegIds() : "") + ","
+                + (transaction.getCounterpartyAccountId() != null ? transaction.getCounterpartyAccountId() : "");
+    }
+}
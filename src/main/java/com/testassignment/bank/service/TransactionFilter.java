@@ -0,0 +1,41 @@
+package com.testassignment.bank.service;
+
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.enums.TransactionType;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional restrictions of a transaction history query; null fields don't filter.
+ */
+@Value
+public class TransactionFilter {
+
+    public static final TransactionFilter NONE = new TransactionFilter(null, null, null, null);
+
+    private static final LocalDateTime MIN_TIMESTAMP = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_TIMESTAMP = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    CurrencyEnum currency;
+    TransactionType type;
+
+    // Inclusive.
+    LocalDateTime from;
+
+    // Exclusive.
+    LocalDateTime to;
+
+    // Queries always bind both bounds, so the (account_id, timestamp, id) index can be used for a range scan.
+    public LocalDateTime lowerBound() {
+        return from != null ? from : MIN_TIMESTAMP;
+    }
+
+    public LocalDateTime upperBound() {
+        return to != null ? to : MAX_TIMESTAMP;
+    }
+
+    public String currencyName() {
+        return currency != null ? currency.name() : null;
+    }
+}
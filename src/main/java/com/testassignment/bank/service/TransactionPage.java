@@ -0,0 +1,15 @@
+package com.testassignment.bank.service;
+
+import com.testassignment.bank.entity.Transaction;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class TransactionPage {
+
+    List<Transaction> transactions;
+
+    // Cursor of the following page, null on the last page.
+    String nextCursor;
+}
@@ -8,6 +8,7 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 public class TransactionService {
@@ -19,16 +20,97 @@ public class TransactionService {
     }
 
     public void saveTransaction(Long accountId, String currency, BigDecimal amount, TransactionType transactionType) {
+        transactionDAO.save(newTransaction(accountId, currency, amount, transactionType));
+    }
+
+    /**
+     * Saves both legs of an exchange. They are written as one JDBC batch when the transaction flushes.
+     */
+    public void saveExchangeTransactions(Long accountId, String fromCurrency, BigDecimal debitedAmount,
+                                         String toCurrency, BigDecimal creditedAmount, ConversionResult conversion) {
+        transactionDAO.saveAll(newExchangeTransactions(accountId, fromCurrency, debitedAmount, toCurrency, creditedAmount, conversion));
+    }
+
+    public List<Transaction> newExchangeTransactions(Long accountId, String fromCurrency, BigDecimal debitedAmount,
+                                                     String toCurrency, BigDecimal creditedAmount, ConversionResult conversion) {
+        Transaction debit = newTransaction(accountId, fromCurrency, debitedAmount, TransactionType.EXCHANGE);
+        setConversion(debit, conversion);
+        Transaction credit = newTransaction(accountId, toCurrency, creditedAmount, TransactionType.EXCHANGE);
+        setConversion(credit, conversion);
+        return List.of(debit, credit);
+    }
+
+    /**
+     * Saves both legs of a transfer as one JDBC batch. Each leg names the other account as its counterparty.
+     * @param conversion The conversion applied, or null if both legs are in the same currency.
+     */
+    public void saveTransferTransactions(Long fromAccountId, String fromCurrency, BigDecimal debitedAmount,
+                                         Long toAccountId, String toCurrency, BigDecimal creditedAmount, ConversionResult conversion) {
+        Transaction debit = newTransaction(fromAccountId, fromCurrency, debitedAmount, TransactionType.TRANSFER);
+        debit.setCounterpartyAccountId(toAccountId);
+        setConversion(debit, conversion);
+        Transaction credit = newTransaction(toAccountId, toCurrency, creditedAmount, TransactionType.TRANSFER);
+        credit.setCounterpartyAccountId(fromAccountId);
+        setConversion(credit, conversion);
+        transactionDAO.saveAll(List.of(debit, credit));
+    }
+
+    // A derived rate has no id of its own, so the versions it was derived from are recorded instead.
+    private static void setConversion(Transaction transaction, ConversionResult conversion) {
+        if (conversion == null) {
+            return;
+        }
+        transaction.setConversionRateId(conversion.getConversionRateId());
+        if (conversion.getConversionRateLegIds() != null) {
+            transaction.setConversionRateLegIds(conversion.getConversionRateLegIds().stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(";")));
+        }
+    }
+
+    /**
+     * Saves the entries of a business operation together; they are written as one JDBC batch when the transaction flushes.
+     */
+    public void saveTransactions(List<Transaction> transactions) {
+        transactionDAO.saveAll(transactions);
+    }
+
+    /**
+     * Returns at most limit transactions in (timestamp, id) order, starting after the given cursor.
+     * One extra row is fetched to tell whether another page follows.
+     */
+    public TransactionPage getTransactionHistory(Long accountId, TransactionFilter filter, String cursor, int limit) {
+        LocalDateTime lower = filter.lowerBound();
+
+        // Without a cursor every row from the lower bound on qualifies, as ids are positive.
+        LocalDateTime afterTimestamp = lower;
+        Long afterId = 0L;
+        if (cursor != null) {
+            TransactionCursor after = TransactionCursor.decode(cursor);
+            afterTimestamp = after.getTimestamp();
+            afterId = after.getId();
+            if (afterTimestamp.isAfter(lower)) {
+                lower = afterTimestamp;
+            }
+        }
+
+        List<Transaction> rows = transactionDAO.findPage(accountId, lower, filter.upperBound(), afterTimestamp, afterId,
+                filter.currencyName(), filter.getType(), limit + 1);
+        if (rows.size() <= limit) {
+            return new TransactionPage(rows, null);
+        }
+
+        List<Transaction> page = rows.subList(0, limit);
+        return new TransactionPage(page, TransactionCursor.after(page.get(limit - 1)).encode());
+    }
+
+    public Transaction newTransaction(Long accountId, String currency, BigDecimal amount, TransactionType transactionType) {
         Transaction transaction = new Transaction();
         transaction.setAccountId(accountId);
         transaction.setCurrency(currency);
         transaction.setAmount(amount);
         transaction.setTimestamp(LocalDateTime.now());
         transaction.setTransactionType(transactionType);
-        transactionDAO.save(transaction);
-    }
-
-    public List<Transaction> getTransactionHistory(Long accountId) {
-        return transactionDAO.findByAccountId(accountId);
+        return transaction;
     }
 }
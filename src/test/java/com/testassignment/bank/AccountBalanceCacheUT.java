@@ -0,0 +1,144 @@
+package com.testassignment.bank;
+
+import com.testassignment.bank.cache.AccountBalanceCache;
+import com.testassignment.bank.config.AccountProperties;
+import com.testassignment.bank.enums.CurrencyEnum;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AccountBalanceCacheUT {
+
+    private MeterRegistry meterRegistry;
+    private AccountBalanceCache accountBalanceCache;
+
+    // Balance the simulated database holds; every load counts as a query.
+    private BigDecimal stored = BigDecimal.ONE;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        accountBalanceCache = new AccountBalanceCache(new AccountProperties(), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private BigDecimal get(Long accountId) {
+        return accountBalanceCache.get(accountId, id -> {
+            loads.incrementAndGet();
+            return Map.of(CurrencyEnum.USD, stored);
+        }).get(CurrencyEnum.USD);
+    }
+
+    @Test
+    void testBalancesAreLoadedOnce() {
+        assertEquals(BigDecimal.ONE, get(1L));
+        assertEquals(BigDecimal.ONE, get(1L));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "account.balances").tag("result", "hit").functionCounter().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "account.balances").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void testCachedBalancesCannotBeModified() {
+        Map<CurrencyEnum, BigDecimal> balances = accountBalanceCache.get(1L, id -> Map.of(CurrencyEnum.USD, BigDecimal.ONE));
+
+        assertThrows(UnsupportedOperationException.class, () -> balances.put(CurrencyEnum.USD, BigDecimal.TEN));
+    }
+
+    @Test
+    void testEvictionOutsideTransactionIsImmediate() {
+        get(1L);
+        stored = BigDecimal.TEN;
+
+        accountBalanceCache.evictAfterCompletion(1L);
+
+        assertEquals(BigDecimal.TEN, get(1L));
+    }
+
+    @Test
+    void testEvictionWaitsForTransactionToComplete() {
+        get(1L);
+        get(2L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        accountBalanceCache.evictAfterCompletion(1L);
+        accountBalanceCache.evictAfterCompletion(1L);
+        stored = BigDecimal.TEN;
+
+        // The changing transaction sees its own balances; everyone else the committed ones still cached.
+        assertEquals(BigDecimal.TEN, get(1L));
+        assertEquals(BigDecimal.ONE, get(2L));
+        assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertNull(TransactionSynchronizationManager.getResource(accountBalanceCache));
+        assertEquals(BigDecimal.TEN, get(1L));
+        assertEquals(BigDecimal.ONE, get(2L));
+    }
+
+    @Test
+    void testRolledBackChangeIsNeverCached() {
+        TransactionSynchronizationManager.initSynchronization();
+        accountBalanceCache.evictAfterCompletion(1L);
+        stored = BigDecimal.TEN;
+        get(1L);
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        stored = BigDecimal.ONE;
+
+        assertEquals(BigDecimal.ONE, get(1L));
+    }
+
+    @Test
+    void testLoadRacingWithEvictionIsNotCached() {
+        // A commit lands and evicts after the load read the old balance.
+        accountBalanceCache.get(1L, id -> {
+            Map<CurrencyEnum, BigDecimal> read = Map.of(CurrencyEnum.USD, stored);
+            stored = BigDecimal.TEN;
+            accountBalanceCache.evictAfterCompletion(1L);
+            return read;
+        });
+
+        assertEquals(BigDecimal.TEN, get(1L));
+    }
+
+    @Test
+    void testDisabledCacheAlwaysLoads() {
+        AccountProperties accountProperties = new AccountProperties();
+        accountProperties.getBalanceCache().setEnabled(false);
+        accountBalanceCache = new AccountBalanceCache(accountProperties, meterRegistry);
+
+        get(1L);
+        get(1L);
+
+        assertEquals(2, loads.get());
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
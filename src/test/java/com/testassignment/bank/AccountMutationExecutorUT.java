@@ -0,0 +1,160 @@
+package com.testassignment.bank;
+
+import com.testassignment.bank.config.AccountProperties;
+import com.testassignment.bank.service.AccountLocks;
+import com.testassignment.bank.service.AccountMutationExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AccountMutationExecutorUT {
+
+    private AccountProperties accountProperties;
+    private MeterRegistry meterRegistry;
+    private AccountLocks accountLocks;
+    private AccountMutationExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        accountProperties = new AccountProperties();
+        accountProperties.setConcurrencyMode(AccountProperties.ConcurrencyMode.OPTIMISTIC);
+        accountProperties.getRetry().setMaxAttempts(3);
+        accountProperties.getRetry().setInitialBackoff(Duration.ofMillis(1));
+        accountProperties.getRetry().setMaxBackoff(Duration.ofMillis(2));
+        meterRegistry = new SimpleMeterRegistry();
+        accountLocks = new AccountLocks(accountProperties);
+        executor = new AccountMutationExecutor(accountProperties, accountLocks, meterRegistry);
+    }
+
+    @Test
+    void testRetriesUntilNoConflict() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = executor.execute(1L, () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("conflict");
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(3, calls.get());
+        assertEquals(3, count("bank.account.mutations"));
+        assertEquals(2, count("bank.account.optimistic.conflicts"));
+        assertEquals(2, count("bank.account.optimistic.retries"));
+        assertEquals(0, count("bank.account.optimistic.exhausted"));
+    }
+
+    @Test
+    void testGivesUpAfterMaxAttempts() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(OptimisticLockingFailureException.class, () -> executor.execute(1L, () -> {
+            calls.incrementAndGet();
+            throw new OptimisticLockingFailureException("conflict");
+        }));
+
+        assertEquals(3, calls.get());
+        assertEquals(3, count("bank.account.optimistic.conflicts"));
+        assertEquals(2, count("bank.account.optimistic.retries"));
+        assertEquals(1, count("bank.account.optimistic.exhausted"));
+    }
+
+    @Test
+    void testOtherExceptionsAreNotRetried() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(IllegalArgumentException.class, () -> executor.execute(1L, () -> {
+            calls.incrementAndGet();
+            throw new IllegalArgumentException("Insufficient funds");
+        }));
+
+        assertEquals(1, calls.get());
+        assertEquals(0, count("bank.account.optimistic.conflicts"));
+    }
+
+    @Test
+    void testAtomicModeDoesNotRetry() {
+        accountProperties.setConcurrencyMode(AccountProperties.ConcurrencyMode.ATOMIC);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(OptimisticLockingFailureException.class, () -> executor.execute(1L, () -> {
+            calls.incrementAndGet();
+            throw new OptimisticLockingFailureException("conflict");
+        }));
+
+        assertEquals(1, calls.get());
+        assertEquals(0, count("bank.account.optimistic.retries"));
+    }
+
+    @Test
+    void testStripedModeSerializesSameAccountOnly() throws Exception {
+        accountProperties.setConcurrencyMode(AccountProperties.ConcurrencyMode.STRIPED);
+        accountProperties.getLock().setTimeout(Duration.ofMillis(50));
+        assertNotSame(accountLocks.lockFor(1L), accountLocks.lockFor(2L));
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> holder = CompletableFuture.supplyAsync(() -> executor.execute(1L, () -> {
+            locked.countDown();
+            await(release);
+            return "first";
+        }));
+        locked.await();
+
+        assertThrows(CannotAcquireLockException.class, () -> executor.execute(1L, () -> "second"));
+        assertEquals("other", executor.execute(2L, () -> "other"));
+
+        release.countDown();
+        assertEquals("first", holder.get());
+        assertEquals("third", executor.execute(1L, () -> "third"));
+        assertEquals(1, count("bank.account.lock.contended"));
+        assertEquals(1, count("bank.account.lock.timeouts"));
+    }
+
+    @Test
+    void testStripedModeHoldsBothLocksOfATwoAccountMutation() throws Exception {
+        accountProperties.setConcurrencyMode(AccountProperties.ConcurrencyMode.STRIPED);
+        accountProperties.getLock().setTimeout(Duration.ofMillis(50));
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> holder = CompletableFuture.supplyAsync(() -> executor.execute(2L, 1L, () -> {
+            locked.countDown();
+            await(release);
+            return "transfer";
+        }));
+        locked.await();
+
+        assertThrows(CannotAcquireLockException.class, () -> executor.execute(1L, () -> "first"));
+        assertThrows(CannotAcquireLockException.class, () -> executor.execute(2L, () -> "second"));
+
+        release.countDown();
+        assertEquals("transfer", holder.get());
+        assertEquals("reverse", executor.execute(1L, 2L, () -> "reverse"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private double count(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+}
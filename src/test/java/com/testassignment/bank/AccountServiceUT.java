@@ -1,23 +1,37 @@
 package com.testassignment.bank;
 
+import com.testassignment.bank.cache.AccountBalanceCache;
+import com.testassignment.bank.config.AccountProperties;
 import com.testassignment.bank.dao.AccountDAO;
 import com.testassignment.bank.dto.AccountDTO;
 import com.testassignment.bank.entity.Account;
 import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.enums.NotificationType;
 import com.testassignment.bank.enums.TransactionType;
+import com.testassignment.bank.exception.InsufficientFundsException;
+import com.testassignment.bank.metrics.AccountOperation;
+import com.testassignment.bank.metrics.OperationMetrics;
+import com.testassignment.bank.metrics.Outcome;
+import com.testassignment.bank.notification.NotificationPublisher;
 import com.testassignment.bank.service.AccountService;
+import com.testassignment.bank.service.ConversionResult;
 import com.testassignment.bank.service.CurrencyConversionService;
+import com.testassignment.bank.service.LedgerService;
 import com.testassignment.bank.service.TransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.web.client.RestTemplate;
+import org.mockito.Spy;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -38,7 +52,16 @@ public class AccountServiceUT {
     private CurrencyConversionService currencyConversionService;
 
     @Mock
-    private RestTemplate restTemplate;
+    private NotificationPublisher notificationPublisher;
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Spy
+    private AccountBalanceCache accountBalanceCache = new AccountBalanceCache(new AccountProperties(), new SimpleMeterRegistry());
+
+    @Spy
+    private OperationMetrics operationMetrics = new OperationMetrics(new SimpleMeterRegistry());
 
     @InjectMocks
     private AccountService accountService;
@@ -78,8 +101,7 @@ public class AccountServiceUT {
         account.setBalances(new HashMap<>());
 
         when(accountDAO.findById(1L)).thenReturn(Optional.of(account));
-        when(accountDAO.save(any(Account.class))).thenReturn(account);
-        when(restTemplate.getForObject(anyString(), eq(String.class))).thenReturn("OK");
+        stubBalanceUpdates(account);
 
         // Initial balance
         BigDecimal initialBalance = account.getBalances().getOrDefault(currency, BigDecimal.ZERO);
@@ -90,9 +112,13 @@ public class AccountServiceUT {
         BigDecimal finalBalance = account.getBalances().get(CurrencyEnum.valueOf(currency));
 
         assertNotNull(accountDTO);
+        assertEquals(1L, accountDTO.getId());
+        assertEquals("12345", accountDTO.getAccountNumber());
         assertEquals(amount, accountDTO.getBalances().get(CurrencyEnum.valueOf(currency)));
         assertEquals(initialBalance.add(amount), finalBalance);
-        verify(accountDAO, times(1)).save(any(Account.class));
+        verify(accountDAO, times(1)).addToBalance(eq(1L), eq(CurrencyEnum.valueOf(currency)), any(BigDecimal.class));
+        verify(accountDAO, times(1)).findWithBalances(1L);
+        verify(accountDAO, never()).findById(anyLong());
         verify(transactionService, times(1)).saveTransaction(eq(1L), eq(currency), eq(amount), eq(TransactionType.DEPOSIT));
     }
 
@@ -110,21 +136,20 @@ public class AccountServiceUT {
         account.setBalances(new HashMap<>());
 
         when(accountDAO.findById(1L)).thenReturn(Optional.of(account));
-        when(accountDAO.save(any(Account.class))).thenReturn(account);
-        when(restTemplate.getForObject(anyString(), eq(String.class))).thenReturn("OK");
+        stubBalanceUpdates(account);
 
         // First time adding money (100)
         AccountDTO accountDTO = accountService.depositMoney(1L, CurrencyEnum.valueOf(currency), firstAmount);
         assertNotNull(accountDTO);
         assertEquals(firstAmount, accountDTO.getBalances().get(CurrencyEnum.valueOf(currency)));
-        verify(accountDAO, times(1)).save(any(Account.class));
+        verify(accountDAO, times(1)).addToBalance(eq(1L), eq(CurrencyEnum.valueOf(currency)), any(BigDecimal.class));
         verify(transactionService, times(1)).saveTransaction(eq(1L), eq(currency), eq(firstAmount), eq(TransactionType.DEPOSIT));
 
         // Second time adding money (50, 150 in total)
         accountDTO = accountService.depositMoney(1L, CurrencyEnum.valueOf(currency), secondAmount);
         assertNotNull(accountDTO);
         assertEquals(firstAmount.add(secondAmount), accountDTO.getBalances().get(CurrencyEnum.valueOf(currency)));
-        verify(accountDAO, times(2)).save(any(Account.class));
+        verify(accountDAO, times(2)).addToBalance(eq(1L), eq(CurrencyEnum.valueOf(currency)), any(BigDecimal.class));
         verify(transactionService, times(1)).saveTransaction(eq(1L), eq(currency), eq(secondAmount), eq(TransactionType.DEPOSIT));
     }
 
@@ -144,6 +169,7 @@ public class AccountServiceUT {
         account.setBalances(balances);
 
         when(accountDAO.findById(1L)).thenReturn(Optional.of(account));
+        stubBalanceUpdates(account);
 
         BigDecimal initialBalance = account.getBalances().get(CurrencyEnum.valueOf(currency));
 
@@ -154,7 +180,7 @@ public class AccountServiceUT {
         BigDecimal finalBalance = account.getBalances().get(CurrencyEnum.valueOf(currency));
 
         assertEquals(initialBalance, finalBalance);
-        verify(accountDAO, never()).save(any(Account.class));
+        verify(accountDAO, never()).addToBalance(anyLong(), any(CurrencyEnum.class), any(BigDecimal.class));
         verify(transactionService, never()).saveTransaction(anyLong(), anyString(), any(BigDecimal.class), any(TransactionType.class));
     }
 
@@ -174,15 +200,14 @@ public class AccountServiceUT {
         account.setBalances(balances);
 
         when(accountDAO.findById(1L)).thenReturn(Optional.of(account));
-        when(accountDAO.save(any(Account.class))).thenReturn(account);
-        when(restTemplate.getForObject(anyString(), eq(String.class))).thenReturn("OK");
+        stubBalanceUpdates(account);
 
         AccountDTO accountDTO = accountService.debitMoney(1L, CurrencyEnum.valueOf(currency), amount);
 
         assertNotNull(accountDTO);
         assertTrue(BigDecimal.valueOf(100.0).compareTo(accountDTO.getBalances().get(CurrencyEnum.valueOf(currency))) == 0);
 
-        verify(accountDAO, times(1)).save(any(Account.class));
+        verify(accountDAO, times(1)).addToBalance(eq(1L), eq(CurrencyEnum.valueOf(currency)), any(BigDecimal.class));
         verify(transactionService, times(1)).saveTransaction(
                 eq(1L),
                 eq(currency),
@@ -207,6 +232,7 @@ public class AccountServiceUT {
         account.setBalances(balances);
 
         when(accountDAO.findById(1L)).thenReturn(Optional.of(account));
+        stubBalanceUpdates(account);
 
         BigDecimal initialBalance = account.getBalances().get(CurrencyEnum.valueOf(currency));
 
@@ -217,7 +243,7 @@ public class AccountServiceUT {
         BigDecimal finalBalance = account.getBalances().get(CurrencyEnum.valueOf(currency));
 
         assertEquals(initialBalance, finalBalance);
-        verify(accountDAO, never()).save(any(Account.class));
+        verify(accountDAO, never()).addToBalance(anyLong(), any(CurrencyEnum.class), any(BigDecimal.class));
         verify(transactionService, never()).saveTransaction(anyLong(), anyString(), any(BigDecimal.class), any(TransactionType.class));
     }
 
@@ -237,6 +263,7 @@ public class AccountServiceUT {
         account.setBalances(balances);
 
         when(accountDAO.findById(1L)).thenReturn(Optional.of(account));
+        stubBalanceUpdates(account);
 
         BigDecimal initialBalance = account.getBalances().get(CurrencyEnum.valueOf(currency));
 
@@ -247,7 +274,7 @@ public class AccountServiceUT {
         BigDecimal finalBalance = account.getBalances().get(CurrencyEnum.valueOf(currency));
 
         assertEquals(initialBalance, finalBalance);
-        verify(accountDAO, never()).save(any(Account.class));
+        verify(accountDAO, times(1)).addToBalance(eq(1L), eq(CurrencyEnum.valueOf(currency)), any(BigDecimal.class));
         verify(transactionService, never()).saveTransaction(anyLong(), anyString(), any(BigDecimal.class), any(TransactionType.class));
     }
 
@@ -275,6 +302,25 @@ public class AccountServiceUT {
         verify(accountDAO, times(1)).findById(1L);
     }
 
+    @Test
+    void testGetAccountBalanceAt() {
+        LocalDateTime endOfDay = LocalDate.now().atStartOfDay();
+        Map<CurrencyEnum, BigDecimal> balances = Map.of(CurrencyEnum.USD, new BigDecimal("25.00"));
+        newAccount(1L, "0.00");
+        when(ledgerService.getBalancesAt(1L, endOfDay)).thenReturn(balances);
+
+        assertEquals(balances, accountService.getAccountBalanceAt(1L, endOfDay));
+        verify(notificationPublisher).publish(NotificationType.BALANCE_QUERIED, 1L);
+    }
+
+    @Test
+    void testGetAccountBalanceInTheFuture() {
+        LocalDateTime tomorrow = LocalDateTime.now().plusDays(1);
+
+        assertThrows(IllegalArgumentException.class, () -> accountService.getAccountBalanceAt(1L, tomorrow));
+        verifyNoInteractions(ledgerService);
+    }
+
     @ParameterizedTest
     @CsvSource({
             "USD, EUR, 50.00, 42.50",
@@ -294,26 +340,23 @@ public class AccountServiceUT {
         account.setBalances(balances);
 
         when(accountDAO.findById(1L)).thenReturn(Optional.of(account));
-        when(currencyConversionService.convert(any(Account.class), eq(CurrencyEnum.valueOf(fromCurrency)), eq(CurrencyEnum.valueOf(toCurrency)), eq(amount)))
-                .thenReturn(expectedConvertedAmount);
-        when(accountDAO.save(any(Account.class))).thenReturn(account);
+        stubBalanceUpdates(account);
+        when(currencyConversionService.convert(eq(CurrencyEnum.valueOf(fromCurrency)), eq(CurrencyEnum.valueOf(toCurrency)), eq(amount)))
+                .thenReturn(new ConversionResult(expectedConvertedAmount, 7L));
 
         AccountDTO accountDTO = accountService.exchangeCurrency(1L, CurrencyEnum.valueOf(fromCurrency), CurrencyEnum.valueOf(toCurrency), amount);
 
         assertNotNull(accountDTO);
         assertEquals(accountDTO.getBalances().get(CurrencyEnum.valueOf(fromCurrency)), balances.get(CurrencyEnum.valueOf(fromCurrency)));
-        verify(accountDAO, times(1)).save(any(Account.class));
-        verify(transactionService, times(1)).saveTransaction(
+        verify(accountDAO, times(1)).addToBalance(eq(1L), eq(CurrencyEnum.valueOf(fromCurrency)), any(BigDecimal.class));
+        verify(accountDAO, times(1)).addToBalance(eq(1L), eq(CurrencyEnum.valueOf(toCurrency)), any(BigDecimal.class));
+        verify(transactionService, times(1)).saveExchangeTransactions(
                 eq(1L),
                 eq(fromCurrency),
                 argThat(argument -> argument.compareTo(amount.negate()) == 0),
-                eq(TransactionType.EXCHANGE)
-        );
-        verify(transactionService, times(1)).saveTransaction(
-                eq(1L),
                 eq(toCurrency),
                 argThat(argument -> argument.compareTo(expectedConvertedAmount) == 0),
-                eq(TransactionType.EXCHANGE)
+                argThat(argument -> argument.getConversionRateId() == 7L)
         );
 
         // Update the initial balances to reflect the new state after the exchange
@@ -326,6 +369,26 @@ public class AccountServiceUT {
         assertEquals(balances.get(CurrencyEnum.valueOf(toCurrency)), finalBalances.get(CurrencyEnum.valueOf(toCurrency)));
     }
 
+    @ParameterizedTest
+    @CsvSource({
+            "EUR, USD",
+            "USD, EUR"
+    })
+    void testExchangeUpdatesBalancesInCurrencyOrder(String fromCurrency, String toCurrency) {
+        Account account = newAccount(1L, "100.00");
+        account.getBalances().put(CurrencyEnum.EUR, new BigDecimal("100.00"));
+        stubBalanceUpdates(account);
+        when(currencyConversionService.convert(any(CurrencyEnum.class), any(CurrencyEnum.class), any(BigDecimal.class)))
+                .thenReturn(new ConversionResult(new BigDecimal("10.00"), 7L));
+
+        accountService.exchangeCurrency(1L, CurrencyEnum.valueOf(fromCurrency), CurrencyEnum.valueOf(toCurrency), new BigDecimal("10.00"));
+
+        // Opposite exchanges lock the EUR row before the USD row alike.
+        InOrder inOrder = inOrder(accountDAO);
+        inOrder.verify(accountDAO).addToBalance(eq(1L), eq(CurrencyEnum.EUR), any(BigDecimal.class));
+        inOrder.verify(accountDAO).addToBalance(eq(1L), eq(CurrencyEnum.USD), any(BigDecimal.class));
+    }
+
     @ParameterizedTest
     @CsvSource({
             "USD, EUR, -50.00",
@@ -345,6 +408,7 @@ public class AccountServiceUT {
         account.setBalances(balances);
 
         when(accountDAO.findById(1L)).thenReturn(Optional.of(account));
+        stubBalanceUpdates(account);
 
         BigDecimal initialFromBalance = account.getBalances().get(CurrencyEnum.valueOf(fromCurrency));
         BigDecimal initialToBalance = account.getBalances().get(CurrencyEnum.valueOf(toCurrency));
@@ -358,7 +422,97 @@ public class AccountServiceUT {
 
         assertEquals(initialFromBalance, finalFromBalance);
         assertEquals(initialToBalance, finalToBalance);
-        verify(accountDAO, never()).save(any(Account.class));
+        verify(accountDAO, never()).addToBalance(anyLong(), any(CurrencyEnum.class), any(BigDecimal.class));
         verify(transactionService, never()).saveTransaction(anyLong(), anyString(), any(BigDecimal.class), any(TransactionType.class));
     }
+
+    @Test
+    void testTransferMoney() {
+        Account from = newAccount(1L, "100.00");
+        Account to = newAccount(2L, "0.00");
+        stubBalanceUpdates(from, to);
+
+        AccountDTO accountDTO = accountService.transferMoney(1L, 2L, CurrencyEnum.USD, CurrencyEnum.USD, new BigDecimal("30.005"));
+
+        assertEquals(new BigDecimal("69.99"), accountDTO.getBalances().get(CurrencyEnum.USD));
+        verify(accountDAO, times(1)).lockForUpdate(1L, 2L);
+        verify(accountDAO, times(1)).addToBalance(2L, CurrencyEnum.USD, new BigDecimal("30.01"));
+        verify(transactionService, times(1)).saveTransferTransactions(1L, "USD", new BigDecimal("-30.01"),
+                2L, "USD", new BigDecimal("30.01"), null);
+        verify(currencyConversionService, never()).convert(any(), any(), any());
+        verify(notificationPublisher, times(1)).publish(NotificationType.BALANCE_UPDATED, 1L);
+        verify(notificationPublisher, times(1)).publish(NotificationType.BALANCE_UPDATED, 2L);
+        assertEquals(1, operationMetrics.timer(AccountOperation.TRANSFER, Outcome.SUCCESS).count());
+    }
+
+    @Test
+    void testTransferMoneyConvertsCurrency() {
+        Account from = newAccount(1L, "100.00");
+        Account to = newAccount(2L, "0.00");
+        stubBalanceUpdates(from, to);
+        ConversionResult conversion = new ConversionResult(new BigDecimal("42.50"), 7L);
+        when(currencyConversionService.convert(CurrencyEnum.USD, CurrencyEnum.EUR, new BigDecimal("50.00")))
+                .thenReturn(conversion);
+
+        accountService.transferMoney(1L, 2L, CurrencyEnum.USD, CurrencyEnum.EUR, new BigDecimal("50.00"));
+
+        verify(accountDAO, times(1)).addToBalance(2L, CurrencyEnum.EUR, new BigDecimal("42.50"));
+        verify(transactionService, times(1)).saveTransferTransactions(1L, "USD", new BigDecimal("-50.00"),
+                2L, "EUR", new BigDecimal("42.50"), conversion);
+    }
+
+    @Test
+    void testTransferMoreThanBalance() {
+        Account from = newAccount(1L, "10.00");
+        Account to = newAccount(2L, "0.00");
+        stubBalanceUpdates(from, to);
+
+        assertThrows(InsufficientFundsException.class,
+                () -> accountService.transferMoney(1L, 2L, CurrencyEnum.USD, CurrencyEnum.USD, new BigDecimal("10.01")));
+
+        verify(accountDAO, never()).addToBalance(eq(2L), any(CurrencyEnum.class), any(BigDecimal.class));
+        verify(transactionService, never()).saveTransferTransactions(anyLong(), anyString(), any(), anyLong(), anyString(), any(), any());
+        assertEquals(1, operationMetrics.timer(AccountOperation.TRANSFER, Outcome.INSUFFICIENT_FUNDS).count());
+        assertEquals(0, operationMetrics.timer(AccountOperation.TRANSFER, Outcome.SUCCESS).count());
+    }
+
+    @Test
+    void testTransferToSameAccount() {
+        assertThrows(IllegalArgumentException.class,
+                () -> accountService.transferMoney(1L, 1L, CurrencyEnum.USD, CurrencyEnum.USD, BigDecimal.ONE));
+
+        verify(accountDAO, never()).lockForUpdate(anyLong(), anyLong());
+    }
+
+    private Account newAccount(Long id, String usdBalance) {
+        Account account = new Account();
+        account.setId(id);
+        account.setAccountNumber("12345");
+        Map<CurrencyEnum, BigDecimal> balances = new HashMap<>();
+        balances.put(CurrencyEnum.USD, new BigDecimal(usdBalance));
+        account.setBalances(balances);
+        when(accountDAO.findById(id)).thenReturn(Optional.of(account));
+        return account;
+    }
+
+    // Simulates the conditional UPDATE: applies the delta unless the balance would go negative. The account
+    // read back after the update sees the new balances.
+    private void stubBalanceUpdates(Account... accounts) {
+        for (Account account : accounts) {
+            Map<CurrencyEnum, BigDecimal> stored = new HashMap<>(account.getBalances());
+            when(accountDAO.addToBalance(eq(account.getId()), any(CurrencyEnum.class), any(BigDecimal.class))).thenAnswer(invocation -> {
+                CurrencyEnum currency = invocation.getArgument(1);
+                BigDecimal newBalance = stored.getOrDefault(currency, BigDecimal.ZERO).add(invocation.getArgument(2));
+                if (newBalance.signum() < 0) {
+                    return Optional.empty();
+                }
+                stored.put(currency, newBalance);
+                account.getBalances().put(currency, newBalance);
+                return Optional.of(newBalance);
+            });
+            when(accountDAO.findWithBalances(account.getId())).thenReturn(Optional.of(account));
+            when(accountDAO.exchangeBalances(eq(account.getId()), any(CurrencyEnum.class), any(BigDecimal.class), any(CurrencyEnum.class),
+                    any(BigDecimal.class))).thenCallRealMethod();
+        }
+    }
 }
@@ -0,0 +1,286 @@
+package com.testassignment.bank;
+
+import com.testassignment.bank.config.AccountProperties;
+import com.testassignment.bank.dao.AccountDAO;
+import com.testassignment.bank.dto.BatchOperationDTO;
+import com.testassignment.bank.dto.BatchResponseDTO;
+import com.testassignment.bank.entity.Account;
+import com.testassignment.bank.entity.Transaction;
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.enums.NotificationType;
+import com.testassignment.bank.enums.TransactionType;
+import com.testassignment.bank.notification.NotificationPublisher;
+import com.testassignment.bank.service.AccountMutationExecutor;
+import com.testassignment.bank.service.BatchOperationService;
+import com.testassignment.bank.service.ConversionResult;
+import com.testassignment.bank.service.CurrencyConversionService;
+import com.testassignment.bank.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BatchOperationServiceUT {
+
+    @Mock
+    private AccountDAO accountDAO;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private CurrencyConversionService currencyConversionService;
+
+    @Mock
+    private NotificationPublisher notificationPublisher;
+
+    @Mock
+    private AccountMutationExecutor accountMutationExecutor;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AccountProperties accountProperties;
+    private BatchOperationService batchOperationService;
+
+    // Balances as the simulated database holds them, per account.
+    private final Map<Long, Map<CurrencyEnum, BigDecimal>> stored = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        accountProperties = new AccountProperties();
+        createService();
+
+        when(accountMutationExecutor.execute(anyCollection(), any()))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get());
+        when(transactionService.newTransaction(anyLong(), anyString(), any(BigDecimal.class), any(TransactionType.class)))
+                .thenAnswer(invocation -> new Transaction());
+        when(transactionService.newExchangeTransactions(anyLong(), anyString(), any(BigDecimal.class), anyString(), any(BigDecimal.class), any()))
+                .thenAnswer(invocation -> List.of(new Transaction(), new Transaction()));
+        when(accountDAO.lockForUpdate(anyCollection())).thenAnswer(invocation -> {
+            Map<Long, Account> accounts = new TreeMap<>();
+            for (Long id : invocation.<Collection<Long>>getArgument(0)) {
+                if (stored.containsKey(id)) {
+                    Account account = new Account();
+                    account.setId(id);
+                    account.setBalances(new EnumMap<>(stored.get(id)));
+                    accounts.put(id, account);
+                }
+            }
+            return accounts;
+        });
+        when(accountDAO.addToBalance(anyLong(), any(CurrencyEnum.class), any(BigDecimal.class))).thenAnswer(invocation -> {
+            Map<CurrencyEnum, BigDecimal> balances = stored.get(invocation.<Long>getArgument(0));
+            CurrencyEnum currency = invocation.getArgument(1);
+            BigDecimal newBalance = balances.getOrDefault(currency, BigDecimal.ZERO).add(invocation.getArgument(2));
+            if (newBalance.signum() < 0) {
+                return Optional.empty();
+            }
+            balances.put(currency, newBalance);
+            return Optional.of(newBalance);
+        });
+        when(accountDAO.exchangeBalances(anyLong(), any(CurrencyEnum.class), any(BigDecimal.class), any(CurrencyEnum.class), any(BigDecimal.class)))
+                .thenCallRealMethod();
+    }
+
+    private void createService() {
+        batchOperationService = new BatchOperationService(accountDAO, transactionService, currencyConversionService,
+                notificationPublisher, accountMutationExecutor, transactionManager, accountProperties);
+    }
+
+    private void createAccount(Long id, String usdBalance) {
+        Map<CurrencyEnum, BigDecimal> balances = new EnumMap<>(CurrencyEnum.class);
+        balances.put(CurrencyEnum.USD, new BigDecimal(usdBalance));
+        stored.put(id, balances);
+    }
+
+    private static BatchOperationDTO operation(TransactionType type, Long accountId, CurrencyEnum currency, double amount) {
+        BatchOperationDTO operation = new BatchOperationDTO();
+        operation.setType(type);
+        operation.setAccountId(accountId);
+        operation.setCurrency(currency);
+        operation.setAmount(amount);
+        return operation;
+    }
+
+    private static BatchOperationDTO exchange(CurrencyEnum fromCurrency, CurrencyEnum toCurrency, double amount) {
+        BatchOperationDTO operation = operation(TransactionType.EXCHANGE, 1L, null, amount);
+        operation.setFromCurrency(fromCurrency);
+        operation.setToCurrency(toCurrency);
+        return operation;
+    }
+
+    @Test
+    void testRejectedOperationDoesNotAffectOthers() {
+        createAccount(1L, "100.00");
+        createAccount(2L, "0.00");
+
+        BatchResponseDTO response = batchOperationService.apply(List.of(
+                operation(TransactionType.DEPOSIT, 1L, CurrencyEnum.USD, 50),
+                operation(TransactionType.DEBIT, 2L, CurrencyEnum.USD, 10),
+                operation(TransactionType.DEBIT, 1L, CurrencyEnum.USD, 120),
+                operation(TransactionType.DEPOSIT, 2L, CurrencyEnum.USD, 5)
+        ));
+
+        assertEquals(3, response.getSucceeded());
+        assertEquals(1, response.getFailed());
+        assertTrue(response.getResults().get(0).isSuccess());
+        assertFalse(response.getResults().get(1).isSuccess());
+        assertEquals("Insufficient funds", response.getResults().get(1).getError());
+        assertEquals(0, new BigDecimal("30.00").compareTo(response.getResults().get(2).getBalances().get(CurrencyEnum.USD)));
+        assertEquals(0, new BigDecimal("5.00").compareTo(stored.get(2L).get(CurrencyEnum.USD)));
+
+        // Both accounts locked in id order in one transaction, with one ledger batch and one notification per account.
+        verify(accountDAO, times(1)).lockForUpdate(List.of(1L, 2L));
+        verify(transactionManager, times(1)).commit(any());
+        verify(transactionService, times(1)).saveTransactions(argThat(ledger -> ledger.size() == 3));
+        verify(notificationPublisher, times(1)).publish(NotificationType.BALANCE_UPDATED, 1L);
+        verify(notificationPublisher, times(1)).publish(NotificationType.BALANCE_UPDATED, 2L);
+    }
+
+    @Test
+    void testAccountsAreSplitAcrossTransactions() {
+        accountProperties.getBatch().setAccountsPerTransaction(2);
+        createService();
+        createAccount(1L, "0.00");
+        createAccount(2L, "0.00");
+        createAccount(3L, "0.00");
+
+        BatchResponseDTO response = batchOperationService.apply(List.of(
+                operation(TransactionType.DEPOSIT, 3L, CurrencyEnum.USD, 1),
+                operation(TransactionType.DEPOSIT, 1L, CurrencyEnum.USD, 1),
+                operation(TransactionType.DEPOSIT, 2L, CurrencyEnum.USD, 1)
+        ));
+
+        assertEquals(3, response.getSucceeded());
+        verify(accountDAO, times(1)).lockForUpdate(List.of(1L, 2L));
+        verify(accountDAO, times(1)).lockForUpdate(List.of(3L));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void testExchangeWithMissingRateIsRejected() {
+        createAccount(1L, "100.00");
+        when(currencyConversionService.convert(CurrencyEnum.USD, CurrencyEnum.EUR, BigDecimal.valueOf(10.0)))
+                .thenReturn(new ConversionResult(new BigDecimal("9.00"), 3L));
+        when(currencyConversionService.convert(CurrencyEnum.USD, CurrencyEnum.SEK, BigDecimal.valueOf(10.0)))
+                .thenThrow(new IllegalArgumentException("Conversion rate not found"));
+
+        BatchOperationDTO toEur = operation(TransactionType.EXCHANGE, 1L, null, 10);
+        toEur.setFromCurrency(CurrencyEnum.USD);
+        toEur.setToCurrency(CurrencyEnum.EUR);
+        BatchOperationDTO toSek = operation(TransactionType.EXCHANGE, 1L, null, 10);
+        toSek.setFromCurrency(CurrencyEnum.USD);
+        toSek.setToCurrency(CurrencyEnum.SEK);
+
+        BatchResponseDTO response = batchOperationService.apply(List.of(toEur, toSek));
+
+        assertTrue(response.getResults().get(0).isSuccess());
+        assertEquals("Conversion rate not found", response.getResults().get(1).getError());
+        assertEquals(0, new BigDecimal("90.00").compareTo(stored.get(1L).get(CurrencyEnum.USD)));
+        assertEquals(0, new BigDecimal("9.00").compareTo(stored.get(1L).get(CurrencyEnum.EUR)));
+    }
+
+    @Test
+    void testExchangeUpdatesBalancesInCurrencyOrder() {
+        createAccount(1L, "100.00");
+        stored.get(1L).put(CurrencyEnum.EUR, new BigDecimal("5.00"));
+        when(currencyConversionService.convert(CurrencyEnum.USD, CurrencyEnum.EUR, BigDecimal.valueOf(10.0)))
+                .thenReturn(new ConversionResult(new BigDecimal("9.00"), 3L));
+        when(currencyConversionService.convert(CurrencyEnum.USD, CurrencyEnum.EUR, BigDecimal.valueOf(500.0)))
+                .thenReturn(new ConversionResult(new BigDecimal("450.00"), 3L));
+        when(currencyConversionService.convert(CurrencyEnum.EUR, CurrencyEnum.USD, BigDecimal.valueOf(4.0)))
+                .thenReturn(new ConversionResult(new BigDecimal("4.08"), 4L));
+
+        BatchResponseDTO response = batchOperationService.apply(List.of(
+                exchange(CurrencyEnum.USD, CurrencyEnum.EUR, 10),
+                exchange(CurrencyEnum.USD, CurrencyEnum.EUR, 500),
+                exchange(CurrencyEnum.EUR, CurrencyEnum.USD, 4)
+        ));
+
+        // Whichever way they go, exchanges change the EUR row before the USD row, like a single exchange.
+        // The rejected one takes back the credit it had already made.
+        InOrder inOrder = inOrder(accountDAO);
+        inOrder.verify(accountDAO).addToBalance(1L, CurrencyEnum.EUR, new BigDecimal("9.00"));
+        inOrder.verify(accountDAO).addToBalance(1L, CurrencyEnum.USD, BigDecimal.valueOf(10.0).negate());
+        inOrder.verify(accountDAO).addToBalance(1L, CurrencyEnum.EUR, new BigDecimal("450.00"));
+        inOrder.verify(accountDAO).addToBalance(1L, CurrencyEnum.USD, BigDecimal.valueOf(500.0).negate());
+        inOrder.verify(accountDAO).addToBalance(1L, CurrencyEnum.EUR, new BigDecimal("-450.00"));
+        inOrder.verify(accountDAO).addToBalance(1L, CurrencyEnum.EUR, BigDecimal.valueOf(4.0).negate());
+        inOrder.verify(accountDAO).addToBalance(1L, CurrencyEnum.USD, new BigDecimal("4.08"));
+        assertEquals(2, response.getSucceeded());
+        assertEquals("Insufficient funds", response.getResults().get(1).getError());
+        assertEquals(0, new BigDecimal("94.08").compareTo(stored.get(1L).get(CurrencyEnum.USD)));
+        assertEquals(0, new BigDecimal("10.00").compareTo(stored.get(1L).get(CurrencyEnum.EUR)));
+    }
+
+    @Test
+    void testMissingAccountFailsOnlyItsOperations() {
+        createAccount(1L, "0.00");
+
+        BatchResponseDTO response = batchOperationService.apply(List.of(
+                operation(TransactionType.DEPOSIT, 99L, CurrencyEnum.USD, 1),
+                operation(TransactionType.DEPOSIT, 1L, CurrencyEnum.USD, 1),
+                operation(TransactionType.DEPOSIT, 99L, CurrencyEnum.USD, 1)
+        ));
+
+        assertEquals(1, response.getSucceeded());
+        assertEquals("No value present", response.getResults().get(0).getError());
+        assertEquals("No value present", response.getResults().get(2).getError());
+        verify(transactionService, times(1)).saveTransactions(anyList());
+    }
+
+    @Test
+    void testOperationWithoutCurrencyIsRejected() {
+        createAccount(1L, "0.00");
+
+        BatchResponseDTO response = batchOperationService.apply(List.of(operation(TransactionType.DEPOSIT, 1L, null, 1)));
+
+        assertEquals("Currency is mandatory", response.getResults().get(0).getError());
+        verify(transactionService, never()).saveTransactions(anyList());
+        verify(notificationPublisher, never()).publish(any(), eq(1L));
+    }
+
+    @Test
+    void testUnexpectedErrorIsReportedWithoutDetails() {
+        createAccount(1L, "0.00");
+        doThrow(new DataIntegrityViolationException("Unique index or primary key violation: PUBLIC.TRANSACTION"))
+                .when(transactionService).saveTransactions(anyList());
+
+        BatchResponseDTO response = batchOperationService.apply(List.of(operation(TransactionType.DEPOSIT, 1L, CurrencyEnum.USD, 1)));
+
+        assertFalse(response.getResults().get(0).isSuccess());
+        assertEquals("Internal error", response.getResults().get(0).getError());
+    }
+}
@@ -0,0 +1,31 @@
+package com.testassignment.bank;
+
+import com.testassignment.bank.config.ConnectionLimitConfig;
+import com.testassignment.bank.config.ConnectionLimitingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+
+public class ConnectionLimitConfigUT {
+
+    private final BeanPostProcessor postProcessor = ConnectionLimitConfig.connectionLimitingDataSourcePostProcessor(
+            new MockEnvironment().withProperty("bank.jdbc.connection-limit.max-connections", "2"));
+
+    @Test
+    void testOnlyTheApplicationPoolIsLimited() {
+        HikariDataSource pool = mock(HikariDataSource.class);
+        HikariDataSource otherPool = mock(HikariDataSource.class);
+        DataSource otherDataSource = mock(DataSource.class);
+
+        assertInstanceOf(ConnectionLimitingDataSource.class, postProcessor.postProcessAfterInitialization(pool, "dataSource"));
+        assertSame(otherPool, postProcessor.postProcessAfterInitialization(otherPool, "reportingDataSource"));
+        assertSame(otherDataSource, postProcessor.postProcessAfterInitialization(otherDataSource, "dataSource"));
+    }
+}
@@ -0,0 +1,184 @@
+package com.testassignment.bank;
+
+import com.testassignment.bank.cache.ConversionRateCache;
+import com.testassignment.bank.cache.ConversionRateSnapshot;
+import com.testassignment.bank.config.RateProperties;
+import com.testassignment.bank.entity.CurrencyConversionRate;
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.repository.CurrencyConversionRateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+public class ConversionRateCacheUT {
+
+    @Mock
+    private CurrencyConversionRateRepository conversionRateRepository;
+
+    private RateProperties rateProperties;
+
+    private ConversionRateCache conversionRateCache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        rateProperties = new RateProperties();
+        rateProperties.setCrossRateMode(RateProperties.CrossRateMode.NONE);
+        conversionRateCache = new ConversionRateCache(conversionRateRepository, rateProperties);
+    }
+
+    @Test
+    void testRatesAreLoadedOnce() {
+        when(conversionRateRepository.findAll()).thenReturn(List.of(rate(CurrencyEnum.USD, CurrencyEnum.EUR, "0.98")));
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(new BigDecimal("0.98"), conversionRateCache.getRate(CurrencyEnum.USD, CurrencyEnum.EUR).getRate());
+        }
+        assertNull(conversionRateCache.getRate(CurrencyEnum.EUR, CurrencyEnum.USD));
+
+        verify(conversionRateRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testInvalidateReloadsRates() {
+        when(conversionRateRepository.findAll())
+                .thenReturn(List.of(rate(CurrencyEnum.USD, CurrencyEnum.EUR, "0.98")))
+                .thenReturn(List.of(rate(CurrencyEnum.USD, CurrencyEnum.EUR, "0.95")));
+
+        assertEquals(new BigDecimal("0.98"), conversionRateCache.getRate(CurrencyEnum.USD, CurrencyEnum.EUR).getRate());
+
+        conversionRateCache.invalidate();
+
+        assertEquals(new BigDecimal("0.95"), conversionRateCache.getRate(CurrencyEnum.USD, CurrencyEnum.EUR).getRate());
+        verify(conversionRateRepository, times(2)).findAll();
+    }
+
+    @Test
+    void testRateAtPointInTime() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<CurrencyConversionRate> versions = new ArrayList<>();
+        for (int day = 0; day < 100; day++) {
+            CurrencyConversionRate version = rate(CurrencyEnum.USD, CurrencyEnum.EUR, "0." + (10 + day));
+            version.setId((long) day);
+            version.setEffectiveFrom(start.plusDays(day));
+            versions.add(version);
+        }
+        Collections.shuffle(versions);
+        when(conversionRateRepository.findAll()).thenReturn(versions);
+
+        assertNull(conversionRateCache.getRate(CurrencyEnum.USD, CurrencyEnum.EUR, start.minusSeconds(1)));
+        assertEquals(0L, conversionRateCache.getRate(CurrencyEnum.USD, CurrencyEnum.EUR, start).getId());
+        assertEquals(41L, conversionRateCache.getRate(CurrencyEnum.USD, CurrencyEnum.EUR, start.plusDays(41).plusHours(12)).getId());
+        assertEquals(99L, conversionRateCache.getRate(CurrencyEnum.USD, CurrencyEnum.EUR, start.plusYears(1)).getId());
+    }
+
+    @Test
+    void testCrossRateThroughBaseCurrency() {
+        rateProperties.setCrossRateMode(RateProperties.CrossRateMode.BASE);
+        rateProperties.setBaseCurrency(CurrencyEnum.EUR);
+        when(conversionRateRepository.findAll()).thenReturn(List.of(
+                rate(CurrencyEnum.USD, CurrencyEnum.EUR, "0.98"),
+                rate(CurrencyEnum.EUR, CurrencyEnum.RUB, "105.80")));
+
+        CurrencyConversionRate crossRate = conversionRateCache.getRate(CurrencyEnum.USD, CurrencyEnum.RUB);
+
+        assertEquals(0, new BigDecimal("103.684").compareTo(crossRate.getRate()));
+        assertNull(crossRate.getId());
+        assertNull(conversionRateCache.getRate(CurrencyEnum.RUB, CurrencyEnum.USD));
+    }
+
+    @Test
+    void testCrossRateThroughShortestPath() {
+        rateProperties.setCrossRateMode(RateProperties.CrossRateMode.SHORTEST_PATH);
+        when(conversionRateRepository.findAll()).thenReturn(List.of(
+                rate(CurrencyEnum.USD, CurrencyEnum.SEK, "10"),
+                rate(CurrencyEnum.SEK, CurrencyEnum.RUB, "9"),
+                rate(CurrencyEnum.RUB, CurrencyEnum.EUR, "0.01")));
+
+        assertEquals(0, new BigDecimal("90").compareTo(conversionRateCache.getRate(CurrencyEnum.USD, CurrencyEnum.RUB).getRate()));
+        assertEquals(0, new BigDecimal("0.9").compareTo(conversionRateCache.getRate(CurrencyEnum.USD, CurrencyEnum.EUR).getRate()));
+        assertNull(conversionRateCache.getRate(CurrencyEnum.EUR, CurrencyEnum.USD));
+    }
+
+    @Test
+    void testShortestPathTakesBestRateAmongEquallyShortPaths() {
+        rateProperties.setCrossRateMode(RateProperties.CrossRateMode.SHORTEST_PATH);
+        when(conversionRateRepository.findAll()).thenReturn(List.of(
+                rate(CurrencyEnum.USD, CurrencyEnum.EUR, "0.9"),
+                rate(CurrencyEnum.EUR, CurrencyEnum.RUB, "100"),
+                rate(CurrencyEnum.USD, CurrencyEnum.SEK, "10"),
+                rate(CurrencyEnum.SEK, CurrencyEnum.RUB, "9.5")));
+
+        assertEquals(0, new BigDecimal("95").compareTo(conversionRateCache.getRate(CurrencyEnum.USD, CurrencyEnum.RUB).getRate()));
+    }
+
+    @Test
+    void testCrossRateUsesLegsInEffectAtTime() {
+        rateProperties.setCrossRateMode(RateProperties.CrossRateMode.BASE);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        CurrencyConversionRate oldLeg = rate(CurrencyEnum.USD, CurrencyEnum.EUR, "0.5");
+        oldLeg.setId(1L);
+        oldLeg.setEffectiveFrom(start);
+        CurrencyConversionRate newLeg = rate(CurrencyEnum.USD, CurrencyEnum.EUR, "0.8");
+        newLeg.setId(2L);
+        newLeg.setEffectiveFrom(start.plusDays(10));
+        CurrencyConversionRate otherLeg = rate(CurrencyEnum.EUR, CurrencyEnum.SEK, "10");
+        otherLeg.setId(3L);
+        otherLeg.setEffectiveFrom(start);
+        when(conversionRateRepository.findAll()).thenReturn(List.of(oldLeg, newLeg, otherLeg));
+
+        CurrencyConversionRate oldCrossRate = conversionRateCache.getRate(CurrencyEnum.USD, CurrencyEnum.SEK, start.plusDays(1));
+        CurrencyConversionRate newCrossRate = conversionRateCache.getRate(CurrencyEnum.USD, CurrencyEnum.SEK);
+
+        assertEquals(0, new BigDecimal("5").compareTo(oldCrossRate.getRate()));
+        assertEquals(List.of(1L, 3L), oldCrossRate.getLegIds());
+        assertEquals(0, new BigDecimal("8").compareTo(newCrossRate.getRate()));
+        assertEquals(List.of(2L, 3L), newCrossRate.getLegIds());
+    }
+
+    @Test
+    void testSnapshotExpiresWhenFutureVersionTakesEffect() {
+        rateProperties.setCrossRateMode(RateProperties.CrossRateMode.BASE);
+        LocalDateTime change = LocalDateTime.now().plusDays(1);
+        CurrencyConversionRate oldLeg = rate(CurrencyEnum.USD, CurrencyEnum.EUR, "0.5");
+        oldLeg.setId(1L);
+        CurrencyConversionRate newLeg = rate(CurrencyEnum.USD, CurrencyEnum.EUR, "0.8");
+        newLeg.setId(2L);
+        newLeg.setEffectiveFrom(change);
+        CurrencyConversionRate otherLeg = rate(CurrencyEnum.EUR, CurrencyEnum.SEK, "10");
+        otherLeg.setId(3L);
+
+        ConversionRateSnapshot snapshot = ConversionRateSnapshot.of(List.of(oldLeg, newLeg, otherLeg), rateProperties);
+
+        assertFalse(snapshot.isExpired(change.minusSeconds(1)));
+        assertTrue(snapshot.isExpired(change));
+
+        ConversionRateSnapshot rebuilt = snapshot.rebuiltAt(change);
+
+        assertFalse(rebuilt.isExpired(change.plusYears(1)));
+        assertEquals(2L, rebuilt.getRate(CurrencyEnum.USD, CurrencyEnum.EUR, change).getId());
+        assertEquals(List.of(2L, 3L), rebuilt.getRate(CurrencyEnum.USD, CurrencyEnum.SEK, change).getLegIds());
+        assertEquals(List.of(1L, 3L), rebuilt.getRate(CurrencyEnum.USD, CurrencyEnum.SEK, change.minusSeconds(1)).getLegIds());
+    }
+
+    private static CurrencyConversionRate rate(CurrencyEnum fromCurrency, CurrencyEnum toCurrency, String rate) {
+        CurrencyConversionRate conversionRate = new CurrencyConversionRate();
+        conversionRate.setFromCurrency(fromCurrency);
+        conversionRate.setToCurrency(toCurrency);
+        conversionRate.setRate(new BigDecimal(rate));
+        return conversionRate;
+    }
+}
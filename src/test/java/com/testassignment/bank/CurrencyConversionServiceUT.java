@@ -1,47 +1,51 @@
 package com.testassignment.bank;
 
-import com.testassignment.bank.entity.Account;
+import com.testassignment.bank.cache.ConversionRateCache;
 import com.testassignment.bank.entity.CurrencyConversionRate;
 import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.exception.ConversionRateNotFoundException;
 import com.testassignment.bank.repository.CurrencyConversionRateRepository;
+import com.testassignment.bank.service.ConversionResult;
 import com.testassignment.bank.service.CurrencyConversionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Optional;
+import java.time.LocalDateTime;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class CurrencyConversionServiceUT {
 
+    @Mock
+    private ConversionRateCache conversionRateCache;
+
     @Mock
     private CurrencyConversionRateRepository conversionRateRepository;
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private CurrencyConversionService currencyConversionService;
 
-    private Account account;
-
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        account = new Account();
-        Map<CurrencyEnum, BigDecimal> balances = new HashMap<>();
-        balances.put(CurrencyEnum.USD, BigDecimal.valueOf(100.00));
-        balances.put(CurrencyEnum.EUR, BigDecimal.valueOf(200.00));
-        balances.put(CurrencyEnum.SEK, BigDecimal.valueOf(300.00));
-        balances.put(CurrencyEnum.RUB, BigDecimal.valueOf(400.00));
-        account.setBalances(balances);
     }
 
     @ParameterizedTest
@@ -53,30 +57,18 @@ public class CurrencyConversionServiceUT {
     })
     void testConvertSuccess(String fromCurrency, String toCurrency, BigDecimal amount, BigDecimal rate, BigDecimal expectedConvertedAmount) {
         CurrencyConversionRate conversionRate = new CurrencyConversionRate();
+        conversionRate.setId(7L);
         conversionRate.setFromCurrency(CurrencyEnum.valueOf(fromCurrency));
         conversionRate.setToCurrency(CurrencyEnum.valueOf(toCurrency));
         conversionRate.setRate(rate);
 
-        when(conversionRateRepository.findByFromCurrencyAndToCurrency(CurrencyEnum.valueOf(fromCurrency), CurrencyEnum.valueOf(toCurrency)))
-                .thenReturn(Optional.of(conversionRate));
+        when(conversionRateCache.getRate(CurrencyEnum.valueOf(fromCurrency), CurrencyEnum.valueOf(toCurrency)))
+                .thenReturn(conversionRate);
 
-        BigDecimal convertedAmount = currencyConversionService.convert(account, CurrencyEnum.valueOf(fromCurrency), CurrencyEnum.valueOf(toCurrency), amount);
+        ConversionResult conversion = currencyConversionService.convert(CurrencyEnum.valueOf(fromCurrency), CurrencyEnum.valueOf(toCurrency), amount);
 
-        assertEquals(expectedConvertedAmount.setScale(2, RoundingMode.HALF_UP), convertedAmount);
-        assertEquals(account.getBalances().get(CurrencyEnum.valueOf(toCurrency)).setScale(2, RoundingMode.HALF_UP), account.getBalances().get(CurrencyEnum.valueOf(toCurrency)));
-    }
-
-    @ParameterizedTest
-    @CsvSource({
-            "USD, EUR, 150.00",
-            "EUR, SEK, 250.00",
-            "SEK, RUB, 350.00",
-            "RUB, USD, 450.00"
-    })
-    void testInsufficientFunds(String fromCurrency, String toCurrency, BigDecimal amount) {
-        assertThrows(IllegalArgumentException.class, () -> {
-            currencyConversionService.convert(account, CurrencyEnum.valueOf(fromCurrency), CurrencyEnum.valueOf(toCurrency), amount);
-        });
+        assertEquals(expectedConvertedAmount.setScale(2, RoundingMode.HALF_UP), conversion.getConvertedAmount());
+        assertEquals(7L, conversion.getConversionRateId());
     }
 
     @ParameterizedTest
@@ -87,12 +79,13 @@ public class CurrencyConversionServiceUT {
             "RUB, USD, 300.00"
     })
     void testConversionRateNotFound(String fromCurrency, String toCurrency, BigDecimal amount) {
-        when(conversionRateRepository.findByFromCurrencyAndToCurrency(CurrencyEnum.valueOf(fromCurrency), CurrencyEnum.valueOf(toCurrency)))
-                .thenReturn(Optional.empty());
+        when(conversionRateCache.getRate(CurrencyEnum.valueOf(fromCurrency), CurrencyEnum.valueOf(toCurrency)))
+                .thenReturn(null);
 
-        assertThrows(IllegalArgumentException.class, () -> {
-            currencyConversionService.convert(account, CurrencyEnum.valueOf(fromCurrency), CurrencyEnum.valueOf(toCurrency), amount);
+        assertThrows(ConversionRateNotFoundException.class, () -> {
+            currencyConversionService.convert(CurrencyEnum.valueOf(fromCurrency), CurrencyEnum.valueOf(toCurrency), amount);
         });
+        assertEquals(1, meterRegistry.get("bank.conversions").tag("outcome", "rate_missing").counter().count());
     }
 
     @ParameterizedTest
@@ -104,7 +97,14 @@ public class CurrencyConversionServiceUT {
     })
     void testConvertNegativeAmount(String fromCurrency, String toCurrency, BigDecimal amount) {
         assertThrows(IllegalArgumentException.class, () -> {
-            currencyConversionService.convert(account, CurrencyEnum.valueOf(fromCurrency), CurrencyEnum.valueOf(toCurrency), amount);
+            currencyConversionService.convert(CurrencyEnum.valueOf(fromCurrency), CurrencyEnum.valueOf(toCurrency), amount);
         });
     }
+
+    @Test
+    void testAddRateRejectsPastEffectiveFrom() {
+        assertThrows(IllegalArgumentException.class,
+                () -> currencyConversionService.addRate(CurrencyEnum.USD, CurrencyEnum.EUR, BigDecimal.ONE, LocalDateTime.now().minusDays(1)));
+        verify(conversionRateRepository, never()).save(any());
+    }
 }
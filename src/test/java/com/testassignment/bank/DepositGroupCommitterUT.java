@@ -0,0 +1,210 @@
+package com.testassignment.bank;
+
+import com.testassignment.bank.config.AccountProperties;
+import com.testassignment.bank.dto.AccountDTO;
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.service.AccountMutationExecutor;
+import com.testassignment.bank.service.AccountService;
+import com.testassignment.bank.service.DepositGroupCommitter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DepositGroupCommitterUT {
+
+    @Mock
+    private AccountService accountService;
+
+    @Mock
+    private AccountMutationExecutor accountMutationExecutor;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AccountProperties accountProperties;
+    private MeterRegistry meterRegistry;
+    private DepositGroupCommitter committer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        accountProperties = new AccountProperties();
+        accountProperties.getGroupCommit().setEnabled(true);
+        accountProperties.getGroupCommit().setMaxWait(Duration.ofMillis(300));
+        meterRegistry = new SimpleMeterRegistry();
+
+        when(accountService.depositMoney(anyLong(), any(CurrencyEnum.class), any(BigDecimal.class)))
+                .thenAnswer(invocation -> accountDTO(invocation.getArgument(0)));
+        when(accountMutationExecutor.execute(anyLong(), any()))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        committer.stop();
+    }
+
+    private void startCommitter() {
+        committer = new DepositGroupCommitter(accountProperties, accountService, accountMutationExecutor, transactionManager, meterRegistry);
+        committer.start();
+    }
+
+    @Test
+    void testConcurrentDepositsShareOneCommit() {
+        startCommitter();
+
+        CompletableFuture<AccountDTO> first = CompletableFuture.supplyAsync(() -> committer.deposit(1L, CurrencyEnum.USD, BigDecimal.ONE));
+        CompletableFuture<AccountDTO> second = CompletableFuture.supplyAsync(() -> committer.deposit(2L, CurrencyEnum.USD, BigDecimal.ONE));
+        CompletableFuture<AccountDTO> third = CompletableFuture.supplyAsync(() -> committer.deposit(3L, CurrencyEnum.EUR, BigDecimal.TEN));
+
+        assertEquals(1L, first.join().getId());
+        assertEquals(2L, second.join().getId());
+        assertEquals(3L, third.join().getId());
+        assertEquals(1, meterRegistry.get("bank.deposit.group-commit.batches").counter().count());
+        assertEquals(3, meterRegistry.get("bank.deposit.group-commit.batch-size").summary().totalAmount());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void testBatchIsAppliedInAccountIdOrder() {
+        startCommitter();
+
+        CompletableFuture<AccountDTO> third = CompletableFuture.supplyAsync(() -> committer.deposit(3L, CurrencyEnum.USD, BigDecimal.ONE));
+        CompletableFuture<AccountDTO> first = CompletableFuture.supplyAsync(() -> committer.deposit(1L, CurrencyEnum.USD, BigDecimal.ONE));
+        CompletableFuture<AccountDTO> second = CompletableFuture.supplyAsync(() -> committer.deposit(2L, CurrencyEnum.USD, BigDecimal.ONE));
+
+        assertEquals(3L, third.join().getId());
+        assertEquals(1L, first.join().getId());
+        assertEquals(2L, second.join().getId());
+        InOrder inOrder = inOrder(accountService);
+        inOrder.verify(accountService).depositMoney(eq(1L), any(CurrencyEnum.class), any(BigDecimal.class));
+        inOrder.verify(accountService).depositMoney(eq(2L), any(CurrencyEnum.class), any(BigDecimal.class));
+        inOrder.verify(accountService).depositMoney(eq(3L), any(CurrencyEnum.class), any(BigDecimal.class));
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void testInterruptedWorkerCommitsClaimedDepositsFirst() throws InterruptedException {
+        accountProperties.getGroupCommit().setMaxWait(Duration.ofSeconds(10));
+        AtomicBoolean interrupted = new AtomicBoolean(true);
+        when(accountService.depositMoney(eq(1L), any(CurrencyEnum.class), any(BigDecimal.class))).thenAnswer(invocation -> {
+            interrupted.set(Thread.currentThread().isInterrupted());
+            return accountDTO(1L);
+        });
+        startCommitter();
+
+        CompletableFuture<AccountDTO> deposit = CompletableFuture.supplyAsync(() -> committer.deposit(1L, CurrencyEnum.USD, BigDecimal.ONE));
+        // Long enough for the worker to take the deposit and start waiting for more.
+        Thread.sleep(200);
+        Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("deposit-group-commit"))
+                .forEach(Thread::interrupt);
+
+        assertEquals(1L, deposit.join().getId());
+        assertFalse(interrupted.get());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void testFailingDepositOnlyFailsItsOwnCaller() {
+        when(accountService.depositMoney(eq(2L), any(CurrencyEnum.class), any(BigDecimal.class)))
+                .thenThrow(new NoSuchElementException("No value present"));
+        startCommitter();
+
+        CompletableFuture<AccountDTO> first = CompletableFuture.supplyAsync(() -> committer.deposit(1L, CurrencyEnum.USD, BigDecimal.ONE));
+        CompletableFuture<AccountDTO> second = CompletableFuture.supplyAsync(() -> committer.deposit(2L, CurrencyEnum.USD, BigDecimal.ONE));
+
+        assertEquals(1L, first.join().getId());
+        CompletionException error = assertThrows(CompletionException.class, second::join);
+        assertInstanceOf(NoSuchElementException.class, error.getCause());
+        assertEquals(1, meterRegistry.get("bank.deposit.group-commit.fallbacks").counter().count());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    void testNegativeAmountIsRejectedBeforeQueueing() {
+        startCommitter();
+
+        assertThrows(IllegalArgumentException.class, () -> committer.deposit(1L, CurrencyEnum.USD, BigDecimal.valueOf(-1)));
+        verify(accountService, never()).depositMoney(anyLong(), any(CurrencyEnum.class), any(BigDecimal.class));
+    }
+
+    @Test
+    void testWaitForBatchIsBounded() throws InterruptedException {
+        accountProperties.getGroupCommit().setMaxWait(Duration.ofNanos(1));
+        accountProperties.getGroupCommit().setResultTimeout(Duration.ofMillis(200));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        when(accountService.depositMoney(eq(1L), any(CurrencyEnum.class), any(BigDecimal.class))).thenAnswer(invocation -> {
+            blocked.countDown();
+            release.await();
+            return accountDTO(1L);
+        });
+        startCommitter();
+
+        CompletableFuture<AccountDTO> first = CompletableFuture.supplyAsync(() -> committer.deposit(1L, CurrencyEnum.USD, BigDecimal.ONE));
+        blocked.await();
+
+        assertEquals(2L, committer.deposit(2L, CurrencyEnum.USD, BigDecimal.ONE).getId());
+        verify(accountMutationExecutor, times(1)).execute(eq(2L), any());
+
+        // The first deposit was already taken by the worker, so its caller keeps waiting for the commit past the timeout.
+        Thread.sleep(300);
+        assertFalse(first.isDone());
+        release.countDown();
+        assertEquals(1L, first.join().getId());
+        verify(accountService, times(1)).depositMoney(eq(1L), any(CurrencyEnum.class), any(BigDecimal.class));
+        verify(accountService, times(1)).depositMoney(eq(2L), any(CurrencyEnum.class), any(BigDecimal.class));
+    }
+
+    @Test
+    void testStripedModeIsRejected() {
+        accountProperties.setConcurrencyMode(AccountProperties.ConcurrencyMode.STRIPED);
+
+        assertThrows(IllegalStateException.class, this::startCommitter);
+    }
+
+    @Test
+    void testDisabledDepositsCommitAlone() {
+        accountProperties.getGroupCommit().setEnabled(false);
+        startCommitter();
+
+        assertEquals(1L, committer.deposit(1L, CurrencyEnum.USD, BigDecimal.ONE).getId());
+        verify(accountMutationExecutor, times(1)).execute(eq(1L), any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    private static AccountDTO accountDTO(Long id) {
+        AccountDTO dto = new AccountDTO();
+        dto.setId(id);
+        return dto;
+    }
+}
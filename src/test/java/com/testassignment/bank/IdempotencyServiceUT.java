@@ -0,0 +1,177 @@
+package com.testassignment.bank;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testassignment.bank.config.IdempotencyProperties;
+import com.testassignment.bank.dto.AccountDTO;
+import com.testassignment.bank.entity.IdempotencyRecord;
+import com.testassignment.bank.exception.IdempotencyKeyInUseException;
+import com.testassignment.bank.repository.IdempotencyRecordRepository;
+import com.testassignment.bank.service.IdempotencyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IdempotencyServiceUT {
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyService idempotencyService;
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        idempotencyService = new IdempotencyService(idempotencyRecordRepository, new IdempotencyProperties(), new ObjectMapper(),
+                transactionManager);
+        when(idempotencyRecordRepository.findByKeyAndCreatedAtAfter(anyString(), any(LocalDateTime.class))).thenReturn(Optional.empty());
+    }
+
+    private AccountDTO execute(String key, String request) {
+        return idempotencyService.execute(key, request, AccountDTO.class, Supplier::get, () -> {
+            AccountDTO account = new AccountDTO();
+            account.setId((long) calls.incrementAndGet());
+            return account;
+        });
+    }
+
+    @Test
+    void testRepeatedRequestIsAnsweredFromCache() {
+        AccountDTO first = execute("key-1", "debit 1");
+        AccountDTO second = execute("key-1", "debit 1");
+
+        assertSame(first, second);
+        assertEquals(1, calls.get());
+        verify(idempotencyRecordRepository, times(1)).saveAndFlush(any(IdempotencyRecord.class));
+        verify(idempotencyRecordRepository, times(1)).findByKeyAndCreatedAtAfter(eq("key-1"), any(LocalDateTime.class));
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void testStoredResponseIsReplayedFromTable() throws Exception {
+        AccountDTO stored = new AccountDTO();
+        stored.setId(42L);
+        String body = new ObjectMapper().writeValueAsString(stored);
+        // Records are matched by the SHA-256 of the request, so store one through the service first.
+        execute("key-1", "debit 1");
+        when(idempotencyRecordRepository.findByKeyAndCreatedAtAfter(eq("key-2"), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            IdempotencyRecord saved = capturedRecord();
+            return Optional.of(new IdempotencyRecord("key-2", saved.getRequestHash(), body, LocalDateTime.now()));
+        });
+
+        AccountDTO replayed = execute("key-2", "debit 1");
+
+        assertEquals(42L, replayed.getId());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testKeyReusedForDifferentRequestIsRejected() {
+        execute("key-1", "debit 1");
+
+        assertThrows(IllegalArgumentException.class, () -> execute("key-1", "debit 2"));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testFailedRequestIsNotRecorded() {
+        assertThrows(IllegalArgumentException.class, () -> idempotencyService.execute("key-1", "debit 1", AccountDTO.class,
+                Supplier::get, () -> {
+                    throw new IllegalArgumentException("Insufficient funds");
+                }));
+
+        execute("key-1", "debit 1");
+
+        assertEquals(1, calls.get());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    void testConcurrentDuplicateIsRejected() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<AccountDTO> first = CompletableFuture.supplyAsync(() -> idempotencyService.execute("key-1", "debit 1",
+                AccountDTO.class, Supplier::get, () -> {
+                    running.countDown();
+                    await(release);
+                    return new AccountDTO();
+                }));
+        running.await();
+
+        assertThrows(IdempotencyKeyInUseException.class, () -> execute("key-1", "debit 1"));
+
+        release.countDown();
+        first.get();
+        assertSame(first.get(), execute("key-1", "debit 1"));
+    }
+
+    @Test
+    void testExpiredKeyIsUsedAgain() {
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+                .thenThrow(new DataIntegrityViolationException("Unique index or primary key violation"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(idempotencyRecordRepository.deleteExpired(eq("key-1"), any(LocalDateTime.class))).thenReturn(1);
+
+        AccountDTO response = execute("key-1", "debit 1");
+
+        assertEquals(2L, response.getId());
+        verify(idempotencyRecordRepository, times(1)).deleteExpired(eq("key-1"), any(LocalDateTime.class));
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    void testWithoutKeyOperationAlwaysRuns() {
+        execute(null, "debit 1");
+        execute(null, "debit 1");
+
+        assertEquals(2, calls.get());
+        verify(idempotencyRecordRepository, never()).findByKeyAndCreatedAtAfter(anyString(), any(LocalDateTime.class));
+        verify(idempotencyRecordRepository, never()).saveAndFlush(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void testInvalidKeyIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> execute(" ", "debit 1"));
+        assertThrows(IllegalArgumentException.class, () -> execute("k".repeat(256), "debit 1"));
+    }
+
+    private IdempotencyRecord capturedRecord() {
+        ArgumentCaptor<IdempotencyRecord> captor = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRecordRepository).saveAndFlush(captor.capture());
+        return captor.getValue();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.testassignment.bank;
+
+import com.testassignment.bank.cache.AccountBalanceCache;
+import com.testassignment.bank.config.LedgerProperties;
+import com.testassignment.bank.dao.LedgerDAO;
+import com.testassignment.bank.dto.BalanceMismatchDTO;
+import com.testassignment.bank.dto.LedgerSnapshotDTO;
+import com.testassignment.bank.dto.LedgerVerificationDTO;
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.service.LedgerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class LedgerServiceUT {
+
+    @Mock
+    private LedgerDAO ledgerDAO;
+
+    @Mock
+    private AccountBalanceCache accountBalanceCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private LedgerProperties ledgerProperties;
+    private LedgerService ledgerService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ledgerProperties = new LedgerProperties();
+        ledgerProperties.setVerifyPartitionSize(10);
+        ledgerProperties.setVerifyParallelism(2);
+        ledgerService = new LedgerService(ledgerDAO, ledgerProperties, accountBalanceCache, transactionManager);
+    }
+
+    @Test
+    void testSnapshotContinuesFromPreviousCutoff() {
+        LocalDateTime previousCutoff = LocalDateTime.now().minusHours(1);
+        when(ledgerDAO.findSnapshotCutoffAtOrBefore(any())).thenReturn(Optional.of(previousCutoff));
+        when(ledgerDAO.insertSnapshot(any(), any())).thenReturn(3);
+
+        LedgerSnapshotDTO snapshot = ledgerService.takeSnapshot();
+
+        assertEquals(3, snapshot.getBalances());
+        assertTrue(snapshot.getCutoff().isBefore(LocalDateTime.now().minus(ledgerProperties.getSettleTime()).plusSeconds(1)));
+        verify(ledgerDAO).insertSnapshot(snapshot.getCutoff(), previousCutoff);
+    }
+
+    @Test
+    void testExistingSnapshotIsReturned() {
+        LocalDateTime cutoff = LocalDate.now().atStartOfDay().minusDays(1);
+        when(ledgerDAO.findSnapshotCutoffAtOrBefore(cutoff)).thenReturn(Optional.of(cutoff));
+        when(ledgerDAO.countSnapshotBalances(cutoff)).thenReturn(5);
+
+        LedgerSnapshotDTO snapshot = ledgerService.takeSnapshot(cutoff);
+
+        assertEquals(cutoff, snapshot.getCutoff());
+        assertEquals(5, snapshot.getBalances());
+        verify(ledgerDAO, never()).insertSnapshot(any(), any());
+    }
+
+    @Test
+    void testScheduledSnapshotPurgesOldIntervalSnapshots() {
+        when(ledgerDAO.findSnapshotCutoffAtOrBefore(any())).thenReturn(Optional.empty());
+
+        ledgerService.takeScheduledSnapshot();
+
+        InOrder inOrder = inOrder(ledgerDAO);
+        inOrder.verify(ledgerDAO).insertSnapshot(any(), isNull());
+        inOrder.verify(ledgerDAO).purgeIntervalSnapshots(ledgerProperties.getRetainedIntervalSnapshots());
+    }
+
+    @Test
+    void testSnapshotOfUnsettledTransactionsIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ledgerService.takeSnapshot(LocalDateTime.now()));
+        verifyNoInteractions(ledgerDAO);
+    }
+
+    @Test
+    void testBalancesAtStartFromNearestSnapshot() {
+        LocalDateTime time = LocalDate.now().atStartOfDay().minusDays(1);
+        LocalDateTime before = time.minusHours(5);
+        LocalDateTime after = time.plusHours(1);
+        when(ledgerDAO.findSnapshotCutoffAtOrBefore(time)).thenReturn(Optional.of(before));
+        when(ledgerDAO.findSnapshotCutoffAfter(time)).thenReturn(Optional.of(after));
+        when(ledgerDAO.findAccountBalancesAt(1L, after, time)).thenReturn(Map.of(CurrencyEnum.USD, BigDecimal.TEN));
+
+        Map<CurrencyEnum, BigDecimal> balances = ledgerService.getBalancesAt(1L, time);
+
+        assertEquals(BigDecimal.TEN, balances.get(CurrencyEnum.USD));
+        assertEquals(BigDecimal.ZERO, balances.get(CurrencyEnum.EUR));
+        assertEquals(CurrencyEnum.values().length, balances.size());
+    }
+
+    @Test
+    void testBalancesAtWithoutSnapshotSumWholeHistory() {
+        LocalDateTime time = LocalDateTime.now().minusDays(1);
+        when(ledgerDAO.findSnapshotCutoffAtOrBefore(time)).thenReturn(Optional.empty());
+        when(ledgerDAO.findSnapshotCutoffAfter(time)).thenReturn(Optional.empty());
+
+        ledgerService.getBalancesAt(1L, time);
+
+        verify(ledgerDAO).findAccountBalancesAt(1L, null, time);
+    }
+
+    @Test
+    void testVerifySplitsAccountsIntoIdRanges() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(1);
+        BalanceMismatchDTO mismatch = new BalanceMismatchDTO(25L, CurrencyEnum.USD, BigDecimal.ONE, BigDecimal.TEN);
+        when(ledgerDAO.findLatestSnapshotCutoff()).thenReturn(Optional.of(cutoff));
+        when(ledgerDAO.findAccountIdRange()).thenReturn(Optional.of(new long[]{1, 25}));
+        when(ledgerDAO.findMismatches(any(), anyLong(), anyLong())).thenReturn(List.of());
+        when(ledgerDAO.findMismatches(cutoff, 21, 30)).thenReturn(List.of(mismatch));
+
+        LedgerVerificationDTO verification = ledgerService.verifyBalances();
+
+        assertEquals(3, verification.getPartitions());
+        assertEquals(List.of(mismatch), verification.getMismatches());
+        verify(ledgerDAO).findMismatches(cutoff, 1, 10);
+        verify(ledgerDAO).findMismatches(cutoff, 11, 20);
+        verify(ledgerDAO).findMismatches(cutoff, 21, 30);
+    }
+
+    @Test
+    void testVerifyWithoutAccountsOrSnapshot() {
+        when(ledgerDAO.findLatestSnapshotCutoff()).thenReturn(Optional.empty());
+        when(ledgerDAO.findAccountIdRange()).thenReturn(Optional.empty());
+
+        LedgerVerificationDTO verification = ledgerService.verifyBalances();
+
+        assertNull(verification.getSnapshotCutoff());
+        assertEquals(0, verification.getPartitions());
+        assertTrue(verification.getMismatches().isEmpty());
+    }
+
+    @Test
+    void testRebuildReplaysFromLatestSnapshotAndClearsCache() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(1);
+        when(ledgerDAO.findLatestSnapshotCutoff()).thenReturn(Optional.of(cutoff));
+        when(ledgerDAO.replayLedger(cutoff)).thenReturn(2);
+
+        assertEquals(2, ledgerService.rebuildBalances());
+        verify(accountBalanceCache).clear();
+    }
+}
@@ -0,0 +1,110 @@
+package com.testassignment.bank;
+
+import com.testassignment.bank.config.NotificationProperties;
+import com.testassignment.bank.enums.NotificationType;
+import com.testassignment.bank.notification.InMemoryNotificationSink;
+import com.testassignment.bank.notification.NotificationDispatcher;
+import com.testassignment.bank.notification.NotificationEvent;
+import com.testassignment.bank.notification.NotificationSink;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NotificationDispatcherUT {
+
+    private NotificationDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    void testEventsAreDeliveredToSink() throws InterruptedException {
+        InMemoryNotificationSink sink = new InMemoryNotificationSink(4);
+        dispatcher = new NotificationDispatcher(properties(100), sink, new SimpleMeterRegistry());
+        dispatcher.start();
+
+        for (long i = 0; i < 50; i++) {
+            assertTrue(dispatcher.enqueue(event(i)));
+        }
+
+        awaitDelivered(50);
+        assertEquals(50, sink.getEvents().size());
+        assertEquals(0, dispatcher.getDroppedCount());
+    }
+
+    @Test
+    void testFailedBatchIsRetried() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        NotificationSink flakySink = new NotificationSink() {
+            @Override
+            public CompletableFuture<Void> send(List<NotificationEvent> batch) {
+                if (attempts.incrementAndGet() < 3) {
+                    return CompletableFuture.failedFuture(new IllegalStateException("unavailable"));
+                }
+                return CompletableFuture.completedFuture(null);
+            }
+
+            @Override
+            public int getMaxConcurrency() {
+                return 1;
+            }
+        };
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new NotificationDispatcher(properties(100), flakySink, meterRegistry);
+        dispatcher.start();
+
+        dispatcher.enqueue(event(1L));
+
+        awaitDelivered(1);
+        assertEquals(3, attempts.get());
+        assertEquals(0, dispatcher.getFailedCount());
+        assertEquals(2, meterRegistry.get("bank.notification.delivery").tag("outcome", "failure").timer().count());
+        assertEquals(1, meterRegistry.get("bank.notification.delivery").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void testEventsAreDroppedWhenQueueIsFull() {
+        // Not started, so nothing drains the queue.
+        dispatcher = new NotificationDispatcher(properties(2), new InMemoryNotificationSink(1), new SimpleMeterRegistry());
+
+        assertTrue(dispatcher.enqueue(event(1L)));
+        assertTrue(dispatcher.enqueue(event(2L)));
+        for (long accountId = 3; accountId < 1003; accountId++) {
+            assertFalse(dispatcher.enqueue(event(accountId)));
+        }
+        assertEquals(1000, dispatcher.getDroppedCount());
+        dispatcher = null;
+    }
+
+    private void awaitDelivered(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dispatcher.getDeliveredCount() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, dispatcher.getDeliveredCount());
+    }
+
+    private static NotificationProperties properties(int queueCapacity) {
+        NotificationProperties properties = new NotificationProperties();
+        properties.setQueueCapacity(queueCapacity);
+        properties.setBatchSize(10);
+        properties.setRetryBackoff(Duration.ofMillis(5));
+        return properties;
+    }
+
+    private static NotificationEvent event(Long accountId) {
+        return new NotificationEvent(NotificationType.BALANCE_UPDATED, accountId, Instant.now());
+    }
+}
@@ -0,0 +1,109 @@
+package com.testassignment.bank;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.testassignment.bank.cache.ConversionRateCache;
+import com.testassignment.bank.config.RateFileImporter;
+import com.testassignment.bank.dto.ConversionRateRequestDTO;
+import com.testassignment.bank.dto.RateImportResponseDTO;
+import com.testassignment.bank.enums.CurrencyEnum;
+import com.testassignment.bank.service.RateImportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class RateImportServiceUT {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ConversionRateCache conversionRateCache;
+
+    @InjectMocks
+    private RateImportService rateImportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportWritesOneBatchAndRefreshesCache() {
+        List<ConversionRateRequestDTO> rates = List.of(
+                rate(CurrencyEnum.USD, CurrencyEnum.EUR, "0.98"),
+                rate(CurrencyEnum.EUR, CurrencyEnum.USD, "1.02"),
+                rate(CurrencyEnum.SEK, CurrencyEnum.RUB, "9.08"));
+
+        RateImportResponseDTO response = rateImportService.importRates(rates);
+
+        assertEquals(3, response.getImported());
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), eq(rates), eq(3), any(ParameterizedPreparedStatementSetter.class));
+        verify(conversionRateCache, times(1)).refreshAfterCommit();
+    }
+
+    @Test
+    void testImportRejectsDuplicatePairs() {
+        List<ConversionRateRequestDTO> rates = List.of(
+                rate(CurrencyEnum.USD, CurrencyEnum.EUR, "0.98"),
+                rate(CurrencyEnum.USD, CurrencyEnum.EUR, "0.97"));
+
+        assertThrows(IllegalArgumentException.class, () -> rateImportService.importRates(rates));
+        verifyNoInteractions(jdbcTemplate, conversionRateCache);
+    }
+
+    @Test
+    void testImportRejectsSameCurrencyAndNonPositiveRate() {
+        assertThrows(IllegalArgumentException.class,
+                () -> rateImportService.importRates(List.of(rate(CurrencyEnum.USD, CurrencyEnum.USD, "1.00"))));
+        assertThrows(IllegalArgumentException.class,
+                () -> rateImportService.importRates(List.of(rate(CurrencyEnum.USD, CurrencyEnum.EUR, "0"))));
+        verifyNoInteractions(jdbcTemplate, conversionRateCache);
+    }
+
+    @Test
+    void testImportRejectsPastEffectiveFrom() {
+        ConversionRateRequestDTO rate = rate(CurrencyEnum.USD, CurrencyEnum.EUR, "0.98");
+        rate.setEffectiveFrom(LocalDateTime.now().minusDays(1));
+
+        assertThrows(IllegalArgumentException.class, () -> rateImportService.importRates(List.of(rate)));
+        verifyNoInteractions(jdbcTemplate, conversionRateCache);
+    }
+
+    @Test
+    void testFileImportRejectsPastEffectiveFrom(@TempDir Path directory) throws IOException {
+        Path file = Files.writeString(directory.resolve("rates.csv"),
+                "fromCurrency,toCurrency,rate,effectiveFrom\n"
+                        + "USD,EUR,0.98,2100-01-01T00:00:00\n"
+                        + "EUR,USD,1.02,2000-01-01T00:00:00\n");
+        RateFileImporter importer = new RateFileImporter(rateImportService, new ObjectMapper(), file);
+
+        assertThrows(IllegalArgumentException.class, () -> importer.run());
+        verifyNoInteractions(jdbcTemplate, conversionRateCache);
+    }
+
+    private static ConversionRateRequestDTO rate(CurrencyEnum fromCurrency, CurrencyEnum toCurrency, String rate) {
+        ConversionRateRequestDTO conversionRate = new ConversionRateRequestDTO();
+        conversionRate.setFromCurrency(fromCurrency);
+        conversionRate.setToCurrency(toCurrency);
+        conversionRate.setRate(new BigDecimal(rate));
+        return conversionRate;
+    }
+}
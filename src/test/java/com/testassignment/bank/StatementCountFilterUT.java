@@ -0,0 +1,84 @@
+package com.testassignment.bank;
+
+import com.testassignment.bank.config.StatementBudgetProperties;
+import com.testassignment.bank.exception.StatementBudgetExceededException;
+import com.testassignment.bank.metrics.StatementCountFilter;
+import com.testassignment.bank.metrics.StatementCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StatementCountFilterUT {
+
+    private static final String BALANCE_URI = "/account/{accountId}/balance";
+
+    private final StatementCounter statementCounter = new StatementCounter(null);
+
+    private StatementBudgetProperties properties;
+    private MeterRegistry meterRegistry;
+    private StatementCountFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StatementBudgetProperties();
+        properties.getEndpoints().put(BALANCE_URI, 2);
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new StatementCountFilter(properties, meterRegistry);
+    }
+
+    @Test
+    void testStatementsAreRecordedPerUri() throws Exception {
+        filter.doFilter(balanceRequest(), new MockHttpServletResponse(), runningStatements(2));
+        filter.doFilter(balanceRequest(), new MockHttpServletResponse(), runningStatements(0));
+
+        assertEquals(2, meterRegistry.get("bank.db.statements").tag("uri", BALANCE_URI).summary().count());
+        assertEquals(2, meterRegistry.get("bank.db.statements").tag("uri", BALANCE_URI).summary().totalAmount());
+    }
+
+    @Test
+    void testRequestOverBudgetFailsInFailMode() {
+        properties.setMode(StatementBudgetProperties.Mode.FAIL);
+
+        assertThrows(StatementBudgetExceededException.class,
+                () -> filter.doFilter(balanceRequest(), new MockHttpServletResponse(), runningStatements(3)));
+        assertEquals(1, meterRegistry.get("bank.db.statements.over-budget").tag("uri", BALANCE_URI).counter().count());
+    }
+
+    @Test
+    void testRequestOverBudgetIsOnlyCountedInLogMode() throws Exception {
+        properties.setMode(StatementBudgetProperties.Mode.LOG);
+
+        filter.doFilter(balanceRequest(), new MockHttpServletResponse(), runningStatements(3));
+
+        assertEquals(1, meterRegistry.get("bank.db.statements.over-budget").tag("uri", BALANCE_URI).counter().count());
+    }
+
+    @Test
+    void testBudgetIsNotCheckedWhenOff() throws Exception {
+        filter.doFilter(balanceRequest(), new MockHttpServletResponse(), runningStatements(3));
+
+        assertEquals(0, meterRegistry.find("bank.db.statements.over-budget").counters().size());
+    }
+
+    private static MockHttpServletRequest balanceRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/account/1/balance");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, BALANCE_URI);
+        return request;
+    }
+
+    private FilterChain runningStatements(int count) {
+        return (request, response) -> {
+            for (int i = 0; i < count; i++) {
+                statementCounter.inspect("select ab1_0.currency,ab1_0.balance from account_balance ab1_0 where ab1_0.account_id=?");
+            }
+        };
+    }
+}
@@ -0,0 +1,115 @@
+package com.testassignment.bank;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.testassignment.bank.dao.AccountDAO;
+import com.testassignment.bank.dao.TransactionDAO;
+import com.testassignment.bank.entity.Transaction;
+import com.testassignment.bank.enums.ExportFormat;
+import com.testassignment.bank.enums.TransactionType;
+import com.testassignment.bank.service.TransactionExportService;
+import com.testassignment.bank.service.TransactionFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TransactionExportServiceUT {
+
+    @Mock
+    private AccountDAO accountDAO;
+
+    @Mock
+    private TransactionDAO transactionDAO;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionExportService transactionExportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        transactionExportService = new TransactionExportService(accountDAO, transactionDAO, objectMapper, transactionManager);
+    }
+
+    @Test
+    void testExportCsv() {
+        Transaction deposit = newTransaction(1L, "100.00", TransactionType.DEPOSIT, null);
+        Transaction exchange = newTransaction(2L, "-50.00", TransactionType.EXCHANGE, 7L);
+        when(transactionDAO.streamAll(eq(1L), any(), any(), isNull(), isNull())).thenReturn(Stream.of(deposit, exchange));
+
+        String csv = export(ExportFormat.CSV);
+
+        assertEquals("id,accountId,currency,amount,timestamp,transactionType,conversionRateId,conversionRateLegIds,counterpartyAccountId\n"
+                + "1,1,USD,100.00,2024-01-01T10:00,DEPOSIT,,,\n"
+                + "2,1,USD,-50.00,2024-01-01T10:00,EXCHANGE,7,,\n", csv);
+        verify(transactionDAO, times(1)).detach(deposit);
+        verify(transactionDAO, times(1)).detach(exchange);
+    }
+
+    @Test
+    void testExportNdjson() {
+        Transaction deposit = newTransaction(1L, "100.00", TransactionType.DEPOSIT, null);
+        when(transactionDAO.streamAll(eq(1L), any(), any(), isNull(), isNull())).thenReturn(Stream.of(deposit, deposit));
+
+        String[] lines = export(ExportFormat.NDJSON).split("\n");
+
+        assertEquals(2, lines.length);
+        assertEquals("{\"id\":1,\"accountId\":1,\"currency\":\"USD\",\"amount\":100.00,\"timestamp\":\"2024-01-01T10:00:00\","
+                + "\"transactionType\":\"DEPOSIT\",\"conversionRateId\":null,\"conversionRateLegIds\":null,\"counterpartyAccountId\":null}", lines[0]);
+    }
+
+    @Test
+    void testVerifyAccountExistsFailsForMissingAccount() {
+        when(accountDAO.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(NoSuchElementException.class, () -> transactionExportService.verifyAccountExists(99L));
+    }
+
+    @Test
+    void testUnsupportedFormat() {
+        assertThrows(IllegalArgumentException.class, () -> ExportFormat.fromString("xml"));
+        assertEquals(ExportFormat.CSV, ExportFormat.fromString("csv"));
+    }
+
+    private String export(ExportFormat format) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        transactionExportService.export(1L, TransactionFilter.NONE, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private Transaction newTransaction(Long id, String amount, TransactionType type, Long conversionRateId) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setAccountId(1L);
+        transaction.setCurrency("USD");
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setTimestamp(LocalDateTime.of(2024, 1, 1, 10, 0));
+        transaction.setTransactionType(type);
+        transaction.setConversionRateId(conversionRateId);
+        return transaction;
+    }
+}
@@ -2,7 +2,12 @@ package com.testassignment.bank;
 
 import com.testassignment.bank.dao.TransactionDAO;
 import com.testassignment.bank.entity.Transaction;
+import com.testassignment.bank.enums.CurrencyEnum;
 import com.testassignment.bank.enums.TransactionType;
+import com.testassignment.bank.service.ConversionResult;
+import com.testassignment.bank.service.TransactionCursor;
+import com.testassignment.bank.service.TransactionFilter;
+import com.testassignment.bank.service.TransactionPage;
 import com.testassignment.bank.service.TransactionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,10 +17,13 @@ import org.mockito.MockitoAnnotations;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -44,42 +52,98 @@ public class TransactionServiceUT {
         verify(transactionDAO, times(1)).save(any(Transaction.class));
     }
 
+    @Test
+    void testExchangeTransactionsRecordDerivedRateLegs() {
+        ConversionResult conversion = new ConversionResult(new BigDecimal("90.00"), null, List.of(3L, 7L));
+
+        List<Transaction> transactions = transactionService.newExchangeTransactions(1L, "USD", new BigDecimal("-10.00"),
+                "RUB", new BigDecimal("90.00"), conversion);
+
+        assertEquals(2, transactions.size());
+        for (Transaction transaction : transactions) {
+            assertNull(transaction.getConversionRateId());
+            assertEquals("3;7", transaction.getConversionRateLegIds());
+        }
+    }
+
     @Test
     void testGetTransactionHistory() {
         Long accountId = 1L;
-        Transaction transaction1 = new Transaction();
-        transaction1.setAccountId(accountId);
-        transaction1.setCurrency("USD");
-        transaction1.setAmount(BigDecimal.valueOf(100.00));
-        transaction1.setTimestamp(LocalDateTime.now());
-        transaction1.setTransactionType(TransactionType.DEPOSIT);
+        Transaction transaction1 = newTransaction(accountId, 1L, "USD", TransactionType.DEPOSIT);
+        Transaction transaction2 = newTransaction(accountId, 2L, "EUR", TransactionType.DEBIT);
+
+        when(transactionDAO.findPage(eq(accountId), any(), any(), any(), eq(0L), isNull(), isNull(), eq(101)))
+                .thenReturn(new ArrayList<>(Arrays.asList(transaction1, transaction2)));
+
+        TransactionPage result = transactionService.getTransactionHistory(accountId, TransactionFilter.NONE, null, 100);
+
+        assertEquals(2, result.getTransactions().size());
+        assertEquals(transaction1, result.getTransactions().get(0));
+        assertEquals(transaction2, result.getTransactions().get(1));
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void testGetTransactionHistoryReturnsCursorOfLastRowWhenMoreFollow() {
+        Long accountId = 1L;
+        Transaction transaction1 = newTransaction(accountId, 1L, "USD", TransactionType.DEPOSIT);
+        Transaction transaction2 = newTransaction(accountId, 2L, "USD", TransactionType.DEPOSIT);
+        Transaction transaction3 = newTransaction(accountId, 3L, "USD", TransactionType.DEPOSIT);
+
+        when(transactionDAO.findPage(eq(accountId), any(), any(), any(), eq(0L), isNull(), isNull(), eq(3)))
+                .thenReturn(new ArrayList<>(Arrays.asList(transaction1, transaction2, transaction3)));
+
+        TransactionPage result = transactionService.getTransactionHistory(accountId, TransactionFilter.NONE, null, 2);
 
-        Transaction transaction2 = new Transaction();
-        transaction2.setAccountId(accountId);
-        transaction2.setCurrency("EUR");
-        transaction2.setAmount(BigDecimal.valueOf(200.00));
-        transaction2.setTimestamp(LocalDateTime.now());
-        transaction2.setTransactionType(TransactionType.DEBIT);
+        assertEquals(2, result.getTransactions().size());
+        TransactionCursor cursor = TransactionCursor.decode(result.getNextCursor());
+        assertEquals(transaction2.getTimestamp(), cursor.getTimestamp());
+        assertEquals(2L, cursor.getId());
+    }
 
-        List<Transaction> transactions = Arrays.asList(transaction1, transaction2);
+    @Test
+    void testGetTransactionHistoryContinuesAfterCursor() {
+        Long accountId = 1L;
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime cursorTimestamp = LocalDateTime.of(2024, 6, 1, 12, 0);
+        String cursor = new TransactionCursor(cursorTimestamp, 42L).encode();
+        TransactionFilter filter = new TransactionFilter(CurrencyEnum.USD, TransactionType.DEBIT, from, null);
 
-        when(transactionDAO.findByAccountId(accountId)).thenReturn(transactions);
+        when(transactionDAO.findPage(eq(accountId), eq(cursorTimestamp), any(), eq(cursorTimestamp), eq(42L), eq("USD"), eq(TransactionType.DEBIT), eq(11)))
+                .thenReturn(new ArrayList<>());
 
-        List<Transaction> result = transactionService.getTransactionHistory(accountId);
+        TransactionPage result = transactionService.getTransactionHistory(accountId, filter, cursor, 10);
 
-        assertEquals(2, result.size());
-        assertEquals(transaction1, result.get(0));
-        assertEquals(transaction2, result.get(1));
+        assertEquals(0, result.getTransactions().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void testGetTransactionHistoryRejectsInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () ->
+                transactionService.getTransactionHistory(1L, TransactionFilter.NONE, "not-a-cursor", 10));
     }
 
     @Test
     void testGetTransactionHistoryForNonExistentUser() {
         Long nonExistentAccountId = 999L;
 
-        when(transactionDAO.findByAccountId(nonExistentAccountId)).thenReturn(Arrays.asList());
+        when(transactionDAO.findPage(eq(nonExistentAccountId), any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenReturn(new ArrayList<>());
 
-        List<Transaction> result = transactionService.getTransactionHistory(nonExistentAccountId);
+        TransactionPage result = transactionService.getTransactionHistory(nonExistentAccountId, TransactionFilter.NONE, null, 100);
+
+        assertEquals(0, result.getTransactions().size());
+    }
 
-        assertEquals(0, result.size());
+    private Transaction newTransaction(Long accountId, Long id, String currency, TransactionType type) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setAccountId(accountId);
+        transaction.setCurrency(currency);
+        transaction.setAmount(BigDecimal.valueOf(100.00));
+        transaction.setTimestamp(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(id));
+        transaction.setTransactionType(type);
+        return transaction;
     }
 }